@@ -0,0 +1,65 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/*
+ * Test data for the benchmarks: the three CSV files of the import from DatasetGenerator
+ * with a fixed seed, so every run (and every release) measures the same rows, and embedded
+ * H2 databases in a temp directory that are deleted again afterwards.
+ */
+final class BenchmarkData {
+    static final long SEED = 20240501L;
+
+    final Path dir;
+    final Path applicants;
+    final Path applications;
+    final Path examScores;
+
+    private BenchmarkData(Path dir) {
+        this.dir = dir;
+        this.applicants = dir.resolve(DatasetGenerator.APPLICANTS_FILE);
+        this.applications = dir.resolve(DatasetGenerator.APPLICATIONS_FILE);
+        this.examScores = dir.resolve(DatasetGenerator.EXAM_SCORES_FILE);
+    }
+
+    /* Write the CSV files for applicantCount applicants into a new temp directory. */
+    static BenchmarkData generate(int applicantCount) throws IOException {
+        BenchmarkData data = new BenchmarkData(Files.createTempDirectory("admissions-bench"));
+        new DatasetGenerator(SEED).generate(data.dir, applicantCount);
+        return data;
+    }
+
+    /* A new embedded database in dir (with the schema, see SchemaInstaller). */
+    DatabaseConfig database(String name) {
+        return new DatabaseConfig("H2", null, null, dir.resolve(name).toString(), "sa", "");
+    }
+
+    /* Import the three files into config's database, the way the login dialog does. */
+    void load(DatabaseConfig config) throws IOException, SQLException, ClassNotFoundException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (Connection conn = config.openConnection()) {
+            CsvImporter importer = new CsvImporter(executor, new ImportOptions().setDialect(config.getDialect()));
+            importer.importCsvToTable(conn, applicants, "applicants");
+            importer.importCsvToTable(conn, applications, "applications");
+            importer.importCsvToTable(conn, examScores, "exam_scores");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    void delete() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
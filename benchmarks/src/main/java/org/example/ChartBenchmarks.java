@@ -0,0 +1,99 @@
+package org.example;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.jfree.chart.JFreeChart;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Building the dashboard charts from query results: a new dataset and JFreeChart per
+ * chart (the first load), refilling the dataset of an existing chart (a refresh), and
+ * drawing the histogram into an image the size of a chart panel. No database is
+ * involved; the inputs are made up once with a fixed seed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ChartBenchmarks {
+    private List<StatisticsRepository.ProgramRate> rates;
+    private List<StatisticsRepository.ProgramScore> averages;
+    private ScoreHistogram histogram;
+    private JFreeChart ratesChart;
+    private JFreeChart averagesChart;
+    private JFreeChart histogramChart;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(BenchmarkData.SEED);
+        rates = new ArrayList<>();
+        averages = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            int total = 1000 + random.nextInt(1000);
+            int accepted = random.nextInt(total);
+            rates.add(new StatisticsRepository.ProgramRate("Program " + i, accepted, total, accepted * 100.0 / total));
+            averages.add(new StatisticsRepository.ProgramScore("Program " + i, 40 + random.nextDouble() * 40));
+        }
+        long[] counts = new long[ScoreHistogram.MAX_SCORE + 1];
+        for (int s = 0; s <= ScoreHistogram.MAX_SCORE; s++) counts[s] = random.nextInt(5000);
+        histogram = new ScoreHistogram(counts);
+
+        ratesChart = DashboardCharts.acceptanceRates(rates);
+        averagesChart = DashboardCharts.averageScores(averages);
+        histogramChart = DashboardCharts.scoreHistogram(histogram, 10);
+    }
+
+    @Benchmark
+    public JFreeChart createAcceptanceRatesChart() {
+        return DashboardCharts.acceptanceRates(rates);
+    }
+
+    @Benchmark
+    public JFreeChart createAverageScoresChart() {
+        return DashboardCharts.averageScores(averages);
+    }
+
+    @Benchmark
+    public JFreeChart createExamScoresHistogram() {
+        return DashboardCharts.scoreHistogram(histogram, 10);
+    }
+
+    @Benchmark
+    public JFreeChart updateAcceptanceRatesChart() {
+        DashboardCharts.setAcceptanceRates(ratesChart, rates);
+        return ratesChart;
+    }
+
+    @Benchmark
+    public JFreeChart updateAverageScoresChart() {
+        DashboardCharts.setAverageScores(averagesChart, averages);
+        return averagesChart;
+    }
+
+    @Benchmark
+    public JFreeChart updateExamScoresHistogram() {
+        DashboardCharts.setScoreHistogram(histogramChart, histogram, 10);
+        return histogramChart;
+    }
+
+    @Benchmark
+    public BufferedImage renderExamScoresHistogram() {
+        return histogramChart.createBufferedImage(800, 400);
+    }
+}
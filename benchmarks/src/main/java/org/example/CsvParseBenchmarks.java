@@ -0,0 +1,95 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Parsing only: the original BufferedReader + split(",") loop against CsvReader, on the
+ * same applicants file. Each field is turned into the value that would be bound, so the
+ * numbers are not affected by database latency. The score is the time of one whole file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvParseBenchmarks {
+    @Param({"100000"})
+    public int applicants;
+
+    private BenchmarkData data;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        data = BenchmarkData.generate(applicants);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        data.delete();
+    }
+
+    @Benchmark
+    public long split() throws Exception {
+        return parseWithSplit(data.applicants);
+    }
+
+    @Benchmark
+    public long csvReader() throws Exception {
+        return parseWithCsvReader(data.applicants);
+    }
+
+    // The parsing done by the original importCsvToTable; returns a checksum of the fields
+    static long parseWithSplit(Path path) throws IOException {
+        long checksum = 0;
+        try (BufferedReader br = new BufferedReader(new FileReader(path.toFile()))) {
+            String header = br.readLine();
+            if (header == null) return 0;
+            int cols = header.split(",").length;
+            String line;
+            while ((line = br.readLine()) != null) {
+                String[] values = line.split(",");
+                for (int i = 0; i < cols; i++) {
+                    String val = i < values.length ? values[i].trim() : null;
+                    if (val != null && val.equalsIgnoreCase("NULL")) val = null;
+                    if (val != null) checksum += val.length();
+                }
+            }
+        }
+        return checksum;
+    }
+
+    static long parseWithCsvReader(Path path) throws IOException {
+        long checksum = 0;
+        try (CsvReader reader = CsvReader.open(path)) {
+            String[] header = reader.readHeader();
+            if (header == null) return 0;
+            int cols = header.length;
+            while (reader.next()) {
+                for (int i = 0; i < cols; i++) {
+                    String val = reader.getString(i);
+                    if (val != null) checksum += val.length();
+                }
+            }
+        }
+        return checksum;
+    }
+}
@@ -0,0 +1,81 @@
+package org.example;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * importCsvToTable with INSERT batches of different sizes, with typed binding and with
+ * every column bound by setString like the original importer. The table is emptied before
+ * every invocation (outside the measured time), so each one loads the same rows into the
+ * same empty table. The score is the time of one whole file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImportBenchmarks {
+    @Param({"100", "500", "5000"})
+    public int batchSize;
+
+    @Param({"true", "false"})
+    public boolean typedBinding;
+
+    @Param({"20000"})
+    public int applicants;
+
+    private BenchmarkData data;
+    private Connection conn;
+    private ExecutorService executor;
+    private CsvImporter importer;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        data = BenchmarkData.generate(applicants);
+        DatabaseConfig config = data.database("import");
+        conn = config.openConnection();
+        executor = Executors.newSingleThreadExecutor();
+        importer = new CsvImporter(executor, new ImportOptions()
+                .setStrategy(ImportOptions.LoadStrategy.BATCHED_INSERT)
+                .setBatchSize(batchSize)
+                .setTypedBinding(typedBinding)
+                .setDialect(config.getDialect()));
+    }
+
+    @Setup(Level.Invocation)
+    public void emptyTable() throws Exception {
+        try (Statement st = conn.createStatement()) {
+            st.executeUpdate("DELETE FROM applicants");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+        conn.close();
+        data.delete();
+    }
+
+    @Benchmark
+    public long importApplicants() throws Exception {
+        return importer.importCsvToTable(conn, data.applicants, "applicants").rows();
+    }
+}
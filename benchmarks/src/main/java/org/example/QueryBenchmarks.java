@@ -0,0 +1,79 @@
+package org.example;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * The dashboard queries, one at a time on one connection, against an embedded database
+ * loaded through the importer (so the summary tables are filled, as they would be after a
+ * real import). These are the queries behind StatisticsRepository's cache, without it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryBenchmarks {
+    @Param({"20000"})
+    public int applicants;
+
+    private BenchmarkData data;
+    private Connection conn;
+    private boolean summaries;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        data = BenchmarkData.generate(applicants);
+        DatabaseConfig config = data.database("queries");
+        data.load(config);
+        conn = config.openConnection();
+        summaries = SummaryTables.installed(conn);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        conn.close();
+        data.delete();
+    }
+
+    @Benchmark
+    public List<StatisticsRepository.ProgramRate> acceptanceRates() throws Exception {
+        return StatisticsRepository.queryAcceptanceRates(conn, null, summaries);
+    }
+
+    @Benchmark
+    public List<StatisticsRepository.ProgramScore> averageScores() throws Exception {
+        return StatisticsRepository.queryAverageScores(conn, null);
+    }
+
+    @Benchmark
+    public List<StatisticsRepository.CityGender> cityGender() throws Exception {
+        return StatisticsRepository.queryCityGender(conn, null);
+    }
+
+    @Benchmark
+    public List<StatisticsRepository.ApplicantScore> topApplicants() throws Exception {
+        return StatisticsRepository.queryTopApplicants(conn, null, StatisticsRepository.TOP_N, summaries);
+    }
+
+    @Benchmark
+    public ScoreHistogram scoreHistogram() throws Exception {
+        return ScoreHistogram.query(conn, null, null);
+    }
+}
@@ -0,0 +1,57 @@
+package org.example;
+
+/*
+ * Tunes the import batch size and commit frequency from measured executeBatch() latency.
+ *
+ * Small batches against a remote server spend most of their time in round trips, big
+ * ones hold locks and memory for long. The sizer grows the batch while a round trip
+ * takes well under the target latency and shrinks it when it takes much longer. Commits
+ * happen after roughly COMMIT_TARGET_NANOS of work or MAX_ROWS_PER_COMMIT rows, so an
+ * import never builds one giant transaction and never commits after every tiny batch.
+ */
+class AdaptiveBatchSizer {
+    static final int MIN_BATCH = 100;
+    static final int MAX_BATCH = 10_000;
+    // aim for each executeBatch() to take about this long
+    private static final long TARGET_BATCH_NANOS = 250_000_000L;
+    private static final long COMMIT_TARGET_NANOS = 2_000_000_000L;
+    private static final long MAX_ROWS_PER_COMMIT = 200_000;
+
+    private int batchSize;
+    private long workSinceCommit;
+    private long rowsSinceCommit;
+
+    AdaptiveBatchSizer(int initialBatchSize) {
+        this.batchSize = clamp(initialBatchSize);
+    }
+
+    int batchSize() {
+        return batchSize;
+    }
+
+    // Record one executeBatch() of 'rows' rows that took 'nanos'
+    void record(int rows, long nanos) {
+        workSinceCommit += nanos;
+        rowsSinceCommit += rows;
+        // only full batches say something about the size; the last one is usually short
+        if (rows < batchSize) return;
+        if (nanos < TARGET_BATCH_NANOS / 2) {
+            batchSize = clamp(batchSize + batchSize / 2);
+        } else if (nanos > TARGET_BATCH_NANOS * 3 / 2) {
+            batchSize = clamp(batchSize * 2 / 3);
+        }
+    }
+
+    boolean shouldCommit() {
+        return workSinceCommit >= COMMIT_TARGET_NANOS || rowsSinceCommit >= MAX_ROWS_PER_COMMIT;
+    }
+
+    void committed() {
+        workSinceCommit = 0;
+        rowsSinceCommit = 0;
+    }
+
+    private static int clamp(int size) {
+        return Math.max(MIN_BATCH, Math.min(MAX_BATCH, size));
+    }
+}
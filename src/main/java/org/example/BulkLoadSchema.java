@@ -0,0 +1,300 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Bulk load mode: take the secondary indexes and foreign key checks off the
+ * tables for the duration of a full reload and rebuild them at the end.
+ *
+ * Maintaining idx_applicants_city, idx_exam_scores_subject and the others row by
+ * row dominates the load once the tables hold millions of rows; building each
+ * index once from the finished table is a single sorted pass.
+ *
+ * The index and foreign key definitions are read from DatabaseMetaData, so
+ * this follows the schema actually installed rather than a copy of
+ * sql/sql schema.txt. Per dialect:
+ * - MySQL/MariaDB: the secondary indexes are dropped and re-added with one ALTER TABLE per
+ *   table. Foreign key checks are switched off for the importing sessions
+ *   (FOREIGN_KEY_CHECKS=0). Afterwards every foreign key is re-checked with an orphan query,
+ *   because MySQL does not re-validate existing rows when the checks are switched back on.
+ *   An index that a foreign key needs can't be dropped and is left in place.
+ * - PostgreSQL: the secondary indexes and the foreign key constraints are dropped. The
+ *   indexes are then re-created, and the constraints are re-added as NOT VALID and then
+ *   validated in one pass each.
+ *
+ * Before anything is dropped, the DDL to restore it is written to a script in the temp
+ * directory. If the JVM dies during the load, running that script by hand puts the schema
+ * back. restore() deletes the script once everything is back.
+ */
+public class BulkLoadSchema {
+    private final Dialect dialect;
+    private final List<IndexDef> droppedIndexes = new ArrayList<>();
+    private final List<ForeignKeyDef> foreignKeys = new ArrayList<>();
+    private final List<ForeignKeyDef> droppedForeignKeys = new ArrayList<>();
+    private final Path restoreScript;
+
+    private BulkLoadSchema(Dialect dialect, Path restoreScript) {
+        this.dialect = dialect;
+        this.restoreScript = restoreScript;
+    }
+
+    /*
+     * Read the secondary indexes and foreign keys of tables, save the restore script and drop
+     * them. If dropping fails half way, or the final restore script can't be written, what was
+     * dropped is put back before the exception is rethrown.
+     */
+    public static BulkLoadSchema suspend(Connection conn, Dialect dialect, List<String> tables)
+            throws SQLException, IOException {
+        Path script = Paths.get(System.getProperty("java.io.tmpdir"),
+                "admissions-restore-indexes-" + conn.getCatalog() + ".sql");
+        BulkLoadSchema schema = new BulkLoadSchema(dialect, script);
+        List<IndexDef> indexes = new ArrayList<>();
+        for (String table : tables) {
+            indexes.addAll(readSecondaryIndexes(conn, table));
+            schema.foreignKeys.addAll(readForeignKeys(conn, table));
+        }
+        schema.writeRestoreScript(indexes, dialect.isMySqlFamily() ? List.of() : schema.foreignKeys);
+
+        try (Statement st = conn.createStatement()) {
+            if (!dialect.isMySqlFamily()) {
+                // constraints first, so no index is dropped while a constraint still uses it
+                for (ForeignKeyDef fk : schema.foreignKeys) {
+                    st.execute("ALTER TABLE " + fk.table + " DROP CONSTRAINT " + fk.name);
+                    schema.droppedForeignKeys.add(fk);
+                }
+            }
+            for (IndexDef index : indexes) {
+                try {
+                    st.execute(dialect.isMySqlFamily()
+                            ? "DROP INDEX " + index.name + " ON " + index.table
+                            : "DROP INDEX " + index.name);
+                    schema.droppedIndexes.add(index);
+                } catch (SQLException e) {
+                    // MySQL 1553: the index backs a foreign key; it has to stay
+                    if (!dialect.isMySqlFamily() || e.getErrorCode() != 1553) throw e;
+                }
+            }
+            // the script now lists exactly what is missing
+            schema.writeRestoreScript(schema.droppedIndexes, schema.droppedForeignKeys);
+        } catch (SQLException | IOException e) {
+            try {
+                schema.restore(conn);
+            } catch (SQLException restoreFailure) {
+                e.addSuppressed(restoreFailure);
+            }
+            throw e;
+        }
+        return schema;
+    }
+
+    /*
+     * The embedded H2 database is left alone: it maintains its indexes in-process, and it
+     * has neither FOREIGN_KEY_CHECKS nor NOT VALID constraints to re-check the rows with.
+     */
+    public static boolean supports(Dialect dialect) {
+        return dialect != Dialect.H2;
+    }
+
+    public Path getRestoreScript() {
+        return restoreScript;
+    }
+
+    // Session settings for every connection that writes during the load
+    public void prepareSession(Connection conn) throws SQLException {
+        if (!dialect.isMySqlFamily()) return;
+        try (Statement st = conn.createStatement()) {
+            st.execute("SET FOREIGN_KEY_CHECKS=0");
+        }
+    }
+
+    /*
+     * Rebuild the dropped indexes, put the foreign keys back and check the loaded rows
+     * against them. Returns one message per foreign key that the data violates, keyed by
+     * the referencing table; the schema itself is fully restored in that case too.
+     * Throws if the DDL fails, leaving the restore script in place.
+     */
+    public Map<String, String> restore(Connection conn) throws SQLException {
+        Map<String, String> violations = new LinkedHashMap<>();
+        try (Statement st = conn.createStatement()) {
+            if (dialect.isMySqlFamily()) {
+                st.execute("SET FOREIGN_KEY_CHECKS=1");
+                // all indexes of a table in one ALTER, so the table is read once
+                Map<String, List<String>> perTable = new LinkedHashMap<>();
+                for (IndexDef index : droppedIndexes) {
+                    perTable.computeIfAbsent(index.table, t -> new ArrayList<>())
+                            .add("ADD INDEX " + index.name + " (" + String.join(",", index.columns) + ")");
+                }
+                for (Map.Entry<String, List<String>> e : perTable.entrySet()) {
+                    st.execute("ALTER TABLE " + e.getKey() + " " + String.join(", ", e.getValue()));
+                    // forget what is back, so a second restore() after a failure only does the rest
+                    droppedIndexes.removeIf(index -> index.table.equals(e.getKey()));
+                }
+                for (ForeignKeyDef fk : foreignKeys) {
+                    long orphans = countOrphans(st, fk);
+                    if (orphans > 0) violations.put(fk.table, orphanMessage(fk, orphans));
+                }
+            } else {
+                while (!droppedIndexes.isEmpty()) {
+                    IndexDef index = droppedIndexes.get(0);
+                    st.execute("CREATE INDEX " + index.name + " ON " + index.table
+                            + " (" + String.join(",", index.columns) + ")");
+                    droppedIndexes.remove(0);
+                }
+                while (!droppedForeignKeys.isEmpty()) {
+                    st.execute(droppedForeignKeys.get(0).addSql() + " NOT VALID");
+                    droppedForeignKeys.remove(0);
+                }
+                for (ForeignKeyDef fk : foreignKeys) {
+                    try {
+                        st.execute("ALTER TABLE " + fk.table + " VALIDATE CONSTRAINT " + fk.name);
+                    } catch (SQLException e) {
+                        // the constraint stays NOT VALID: enforced for new rows, not yet for old ones
+                        violations.put(fk.table, orphanMessage(fk, countOrphans(st, fk)));
+                    }
+                }
+            }
+        }
+        try {
+            Files.deleteIfExists(restoreScript);
+        } catch (IOException e) {
+            System.err.println("Could not delete " + restoreScript + ": " + e.getMessage());
+        }
+        return violations;
+    }
+
+    private static long countOrphans(Statement st, ForeignKeyDef fk) throws SQLException {
+        List<String> notNull = new ArrayList<>();
+        List<String> join = new ArrayList<>();
+        for (int i = 0; i < fk.columns.size(); i++) {
+            notNull.add("c." + fk.columns.get(i) + " IS NOT NULL");
+            join.add("p." + fk.refColumns.get(i) + " = c." + fk.columns.get(i));
+        }
+        String sql = "SELECT COUNT(*) FROM " + fk.table + " c WHERE " + String.join(" AND ", notNull)
+                + " AND NOT EXISTS (SELECT 1 FROM " + fk.refTable + " p WHERE " + String.join(" AND ", join) + ")";
+        try (ResultSet rs = st.executeQuery(sql)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private static String orphanMessage(ForeignKeyDef fk, long orphans) {
+        return String.format("%,d rows of %s reference %s rows that do not exist (foreign key %s)",
+                orphans, fk.table, fk.refTable, fk.name);
+    }
+
+    private void writeRestoreScript(List<IndexDef> indexes, List<ForeignKeyDef> fks) throws IOException {
+        StringBuilder sql = new StringBuilder("-- Restores the indexes and foreign keys dropped for a bulk CSV import\n");
+        for (IndexDef index : indexes) {
+            sql.append("CREATE INDEX ").append(index.name).append(" ON ").append(index.table)
+                    .append(" (").append(String.join(",", index.columns)).append(");\n");
+        }
+        for (ForeignKeyDef fk : fks) sql.append(fk.addSql()).append(";\n");
+        Files.writeString(restoreScript, sql);
+    }
+
+    // Plain, non-unique column indexes; partial and expression indexes are left alone
+    private static List<IndexDef> readSecondaryIndexes(Connection conn, String table) throws SQLException {
+        DatabaseMetaData md = conn.getMetaData();
+        Map<String, TreeMap<Integer, String>> columns = new LinkedHashMap<>();
+        List<String> skipped = new ArrayList<>();
+        for (String candidate : candidates(table)) {
+            try (ResultSet rs = md.getIndexInfo(conn.getCatalog(), null, candidate, false, true)) {
+                while (rs.next()) {
+                    String name = rs.getString("INDEX_NAME");
+                    if (name == null || !rs.getBoolean("NON_UNIQUE") || rs.getShort("TYPE") == DatabaseMetaData.tableIndexStatistic) continue;
+                    String column = rs.getString("COLUMN_NAME");
+                    String filter = rs.getString("FILTER_CONDITION");
+                    if (column == null || (filter != null && !filter.isEmpty())) skipped.add(name);
+                    columns.computeIfAbsent(name, n -> new TreeMap<>()).put((int) rs.getShort("ORDINAL_POSITION"), column);
+                }
+            }
+            if (!columns.isEmpty()) break;
+        }
+        List<IndexDef> indexes = new ArrayList<>();
+        for (Map.Entry<String, TreeMap<Integer, String>> e : columns.entrySet()) {
+            if (!skipped.contains(e.getKey())) indexes.add(new IndexDef(e.getKey(), table, new ArrayList<>(e.getValue().values())));
+        }
+        return indexes;
+    }
+
+    private static List<ForeignKeyDef> readForeignKeys(Connection conn, String table) throws SQLException {
+        DatabaseMetaData md = conn.getMetaData();
+        Map<String, ForeignKeyDef> fks = new LinkedHashMap<>();
+        for (String candidate : candidates(table)) {
+            try (ResultSet rs = md.getImportedKeys(conn.getCatalog(), null, candidate)) {
+                while (rs.next()) {
+                    String name = rs.getString("FK_NAME");
+                    ForeignKeyDef fk = fks.get(name);
+                    if (fk == null) {
+                        fk = new ForeignKeyDef(name, table, rs.getString("PKTABLE_NAME"), rs.getShort("DELETE_RULE"));
+                        fks.put(name, fk);
+                    }
+                    // rows come ordered by KEY_SEQ within a key
+                    fk.columns.add(rs.getString("FKCOLUMN_NAME"));
+                    fk.refColumns.add(rs.getString("PKCOLUMN_NAME"));
+                }
+            }
+            if (!fks.isEmpty()) break;
+        }
+        return new ArrayList<>(fks.values());
+    }
+
+    // identifiers may be stored upper or lower case depending on the database
+    private static String[] candidates(String table) {
+        return new String[] {table, table.toLowerCase(Locale.ROOT), table.toUpperCase(Locale.ROOT)};
+    }
+
+    private static final class IndexDef {
+        final String name;
+        final String table;
+        final List<String> columns;
+
+        IndexDef(String name, String table, List<String> columns) {
+            this.name = name;
+            this.table = table;
+            this.columns = columns;
+        }
+    }
+
+    private static final class ForeignKeyDef {
+        final String name;
+        final String table;
+        final String refTable;
+        final short deleteRule;
+        final List<String> columns = new ArrayList<>();
+        final List<String> refColumns = new ArrayList<>();
+
+        ForeignKeyDef(String name, String table, String refTable, short deleteRule) {
+            this.name = name;
+            this.table = table;
+            this.refTable = refTable;
+            this.deleteRule = deleteRule;
+        }
+
+        String addSql() {
+            String onDelete;
+            switch (deleteRule) {
+                case DatabaseMetaData.importedKeyCascade: onDelete = " ON DELETE CASCADE"; break;
+                case DatabaseMetaData.importedKeySetNull: onDelete = " ON DELETE SET NULL"; break;
+                case DatabaseMetaData.importedKeySetDefault: onDelete = " ON DELETE SET DEFAULT"; break;
+                case DatabaseMetaData.importedKeyRestrict: onDelete = " ON DELETE RESTRICT"; break;
+                default: onDelete = "";
+            }
+            return "ALTER TABLE " + table + " ADD CONSTRAINT " + name + " FOREIGN KEY (" + String.join(",", columns)
+                    + ") REFERENCES " + refTable + " (" + String.join(",", refColumns) + ")" + onDelete;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package org.example;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+/**
+ * Native bulk load paths: LOAD DATA LOCAL INFILE for MySQL/MariaDB and
+ * COPY ... FROM STDIN for PostgreSQL. The CSV file is streamed to the server
+ * as-is, so there is no per-row parsing or binding on the client. Gzip compressed
+ * files are decompressed on the client while they are streamed.
+ *
+ * The drivers are not compile time dependencies of this project (they are
+ * added to the classpath at run time), so the vendor specific calls go
+ * through reflection. If the driver does not offer them, or cannot take this file
+ * (a compressed file without stream support, a charset the server has no name for),
+ * load() throws UnavailableException and the caller can fall back to INSERT batches.
+ *
+ * Differences to the INSERT path: the server parses the CSV, so values are not
+ * trimmed, and an unquoted NULL is read as SQL NULL by both servers.
+ */
+public class BulkLoader {
+    private static final Map<String, String> MYSQL_CHARSETS = Map.of(
+            "UTF-8", "utf8mb4", "ISO-8859-1", "latin1", "windows-1252", "latin1", "US-ASCII", "ascii");
+    private static final Map<String, String> PG_ENCODINGS = Map.of(
+            "UTF-8", "UTF8", "ISO-8859-1", "LATIN1", "windows-1252", "WIN1252", "US-ASCII", "SQL_ASCII");
+
+    /*
+     * The native path cannot be used for this driver or file. Nothing has been sent to
+     * the server when this is thrown, so the same file can be imported another way.
+     */
+    public static class UnavailableException extends Exception {
+        UnavailableException(String message) {
+            super(message);
+        }
+
+        UnavailableException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    public static boolean supports(Dialect dialect) {
+        return dialect == Dialect.MYSQL || dialect == Dialect.MARIADB || dialect == Dialect.POSTGRESQL;
+    }
+
+    public static long load(Connection conn, Dialect dialect, Path csvPath, String table, String[] cols)
+            throws IOException, SQLException, UnavailableException {
+        return load(conn, dialect, csvPath, table, cols, StandardCharsets.UTF_8);
+    }
+
+    /*
+     * Load the data rows of csvPath (header excluded) into table.
+     * cols are the header column names, already validated as identifiers.
+     * charset is the file's encoding; the server is told to convert from it.
+     * Returns the number of rows loaded. Does not commit.
+     * The dialect must be one that supports() accepts.
+     */
+    public static long load(Connection conn, Dialect dialect, Path csvPath, String table, String[] cols, Charset charset)
+            throws IOException, SQLException, UnavailableException {
+        switch (dialect) {
+            case POSTGRESQL:
+                return copyIn(conn, csvPath, table, cols, charset);
+            case MYSQL:
+            case MARIADB:
+                return loadDataLocalInfile(conn, csvPath, table, cols, charset);
+            default:
+                throw new UnsupportedOperationException("No native bulk load for " + dialect);
+        }
+    }
+
+    // PostgreSQL: CopyManager.copyIn("COPY ... FROM STDIN", InputStream)
+    private static long copyIn(Connection conn, Path csvPath, String table, String[] cols, Charset charset)
+            throws IOException, SQLException, UnavailableException {
+        String sql = String.format("COPY %s (%s) FROM STDIN WITH (FORMAT csv, HEADER true, NULL 'NULL', ENCODING '%s')",
+                table, String.join(",", cols), serverCharset(charset, PG_ENCODINGS));
+        Object copyManager;
+        Method copyIn;
+        try {
+            Class<?> pgConnection = Class.forName("org.postgresql.PGConnection");
+            Object pg = conn.unwrap(pgConnection);
+            copyManager = pgConnection.getMethod("getCopyAPI").invoke(pg);
+            copyIn = copyManager.getClass().getMethod("copyIn", String.class, InputStream.class);
+        } catch (ReflectiveOperationException | SQLException e) {
+            throw new UnavailableException("PostgreSQL driver does not expose the COPY API", e);
+        }
+        try (InputStream in = new BufferedInputStream(CsvInput.openStream(csvPath), CsvInput.BUFFER_SIZE)) {
+            return ((Number) invoke(copyIn, copyManager, sql, in)).longValue();
+        }
+    }
+
+    // MySQL/MariaDB: LOAD DATA LOCAL INFILE fed from an InputStream set on the statement
+    private static long loadDataLocalInfile(Connection conn, Path csvPath, String table, String[] cols, Charset charset)
+            throws IOException, SQLException, UnavailableException {
+        String lineEnd = detectLineTerminator(csvPath);
+        String serverCharset = serverCharset(charset, MYSQL_CHARSETS);
+        try (Statement stmt = conn.createStatement();
+             InputStream in = new BufferedInputStream(CsvInput.openStream(csvPath), CsvInput.BUFFER_SIZE)) {
+            Method setStream = findMethod(stmt, "setLocalInfileInputStream", InputStream.class);
+            String source;
+            if (setStream != null) {
+                invoke(setStream, unwrapFor(stmt, setStream), in);
+                source = "stream";
+            } else if (CsvInput.isGzip(csvPath)) {
+                throw new UnavailableException("Driver cannot stream LOAD DATA input; compressed files need the stream");
+            } else {
+                // older drivers: let the driver read the file itself
+                source = csvPath.toAbsolutePath().toString().replace("\\", "\\\\").replace("'", "\\'");
+            }
+            String sql = String.format("LOAD DATA LOCAL INFILE '%s' INTO TABLE %s CHARACTER SET %s "
+                            + "FIELDS TERMINATED BY ',' OPTIONALLY ENCLOSED BY '\"' ESCAPED BY '' "
+                            + "LINES TERMINATED BY '%s' IGNORE 1 LINES (%s)",
+                    source, table, serverCharset, lineEnd, String.join(",", cols));
+            return stmt.executeUpdate(sql);
+        }
+    }
+
+    // CRLF files must be declared as such, or the last column keeps a trailing \r
+    private static String detectLineTerminator(Path csvPath) throws IOException {
+        try (InputStream in = CsvInput.openStream(csvPath)) {
+            byte[] head = in.readNBytes(8192);
+            for (int i = 0; i < head.length; i++) {
+                if (head[i] == '\n') {
+                    return i > 0 && head[i - 1] == '\r' ? "\\r\\n" : "\\n";
+                }
+            }
+        }
+        return "\\n";
+    }
+
+    // Server side name of the file's charset, e.g. UTF-8 -> utf8mb4 (MySQL) / UTF8 (PostgreSQL)
+    private static String serverCharset(Charset charset, Map<String, String> names) throws UnavailableException {
+        String name = names.get(charset.name());
+        if (name == null) throw new UnavailableException("No native bulk load charset for " + charset);
+        return name;
+    }
+
+    // The stream setter lives on the driver's statement class, which may be behind a wrapper
+    private static Method findMethod(Statement stmt, String name, Class<?> param) {
+        for (String cls : new String[] {"com.mysql.cj.jdbc.JdbcStatement", "org.mariadb.jdbc.Statement"}) {
+            try {
+                Class<?> c = Class.forName(cls);
+                if (stmt.isWrapperFor(c)) return c.getMethod(name, param);
+            } catch (ClassNotFoundException | NoSuchMethodException | SQLException ignored) {
+                // driver not present or method not offered by this driver version
+            }
+        }
+        try {
+            return stmt.getClass().getMethod(name, param);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static Object unwrapFor(Statement stmt, Method method) throws SQLException {
+        Class<?> owner = method.getDeclaringClass();
+        return owner.isInstance(stmt) ? stmt : stmt.unwrap(owner);
+    }
+
+    private static Object invoke(Method method, Object target, Object... args)
+            throws IOException, SQLException, UnavailableException {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) throw (SQLException) cause;
+            if (cause instanceof IOException) throw (IOException) cause;
+            throw new SQLException("Bulk load failed: " + cause, cause);
+        } catch (IllegalAccessException e) {
+            throw new UnavailableException("Cannot call " + method, e);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package org.example;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+
+import org.jfree.chart.ChartPanel;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.event.ChartChangeEvent;
+import org.jfree.chart.event.OverlayChangeEvent;
+
+/*
+ * ChartPanel that keeps the rendered chart in an off-screen image and only draws the
+ * chart again when it has changed or the panel has a new size. Repaints from tab
+ * switches, dialogs or tooltips copy the image.
+ *
+ * While the panel is being resized the last image is stretched to the new size; the
+ * chart is drawn again once the size has not changed for RESIZE_SETTLE_MS, so dragging a
+ * window edge draws it once instead of on every step.
+ *
+ * While a mouse button is down (zooming or panning) the panel paints as a plain
+ * ChartPanel, so the zoom rectangle follows the mouse, and the image is drawn again
+ * afterwards. Overlays (e.g. crosshairs) that change also drop the image.
+ *
+ * The panel's own buffer is off: with it, ChartPanel would keep a second image.
+ */
+class CachedChartPanel extends ChartPanel {
+    private static final int RESIZE_SETTLE_MS = 150;
+
+    private BufferedImage image;
+    private boolean resizing;
+    private boolean dragging;
+    private final Timer settle = new Timer(RESIZE_SETTLE_MS, e -> {
+        resizing = false;
+        repaint();
+    });
+
+    CachedChartPanel(JFreeChart chart) {
+        super(chart, false);
+        settle.setRepeats(false);
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                resizing = image != null;
+                settle.restart();
+            }
+        });
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                dragging = true;
+                image = null;
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                dragging = false;
+                image = null;
+                repaint();
+            }
+        });
+    }
+
+    @Override
+    public void chartChanged(ChartChangeEvent event) {
+        image = null; // the data (or anything else shown) changed
+        super.chartChanged(event);
+    }
+
+    @Override
+    public void overlayChanged(OverlayChangeEvent event) {
+        image = null;
+        super.overlayChanged(event);
+    }
+
+    @Override
+    public void setChart(JFreeChart chart) {
+        image = null;
+        super.setChart(chart);
+    }
+
+    @Override
+    public void paintComponent(Graphics g) {
+        if (dragging) {
+            super.paintComponent(g);
+            return;
+        }
+        int width = getWidth();
+        int height = getHeight();
+        if (width <= 0 || height <= 0) return;
+        // draw at device resolution, so the image is sharp on scaled displays
+        AffineTransform tx = ((Graphics2D) g).getTransform();
+        int pixelWidth = (int) Math.ceil(width * tx.getScaleX());
+        int pixelHeight = (int) Math.ceil(height * tx.getScaleY());
+        boolean sized = image != null && image.getWidth() == pixelWidth && image.getHeight() == pixelHeight;
+        if (image == null || (!sized && !resizing)) {
+            image = new BufferedImage(pixelWidth, pixelHeight, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g2 = image.createGraphics();
+            try {
+                g2.scale(tx.getScaleX(), tx.getScaleY());
+                g2.setClip(0, 0, width, height);
+                super.paintComponent(g2);
+            } finally {
+                g2.dispose();
+            }
+        }
+        Graphics2D g2 = (Graphics2D) g.create();
+        try {
+            if (resizing) {
+                g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            }
+            g2.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            g2.dispose();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.example;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Cheap test of whether the base tables have changed: the row count and the newest
+ * created_at of each table, read in one round trip. With the created_at indexes of the
+ * schema the MAX is an index lookup; the COUNT walks the smallest index, which is still
+ * far cheaper than any of the dashboard queries.
+ *
+ * Inserts and deletes change the stamp. An UPDATE in place does not (there is no
+ * updated_at column), nor does a delete followed by an insert with an older created_at;
+ * imports from the import dialog are seen anyway, as ImportPipeline.runImports() calls
+ * StatisticsRepository.dataChanged() when they are done. CsvImporter used on its own does not.
+ */
+public final class ChangeProbe {
+    public static final String APPLICANTS = "applicants";
+    public static final String APPLICATIONS = "applications";
+    public static final String EXAM_SCORES = "exam_scores";
+
+    private static final String[] TABLES = {APPLICANTS, APPLICATIONS, EXAM_SCORES};
+
+    private ChangeProbe() {
+    }
+
+    /* The state of one table. */
+    public record Stamp(long rows, Timestamp lastCreated) {}
+
+    /* Stamp of every base table, by table name. */
+    public static Map<String, Stamp> probe(Connection conn) throws SQLException {
+        StringBuilder sql = new StringBuilder();
+        for (String table : TABLES) {
+            if (sql.length() > 0) sql.append(" UNION ALL ");
+            sql.append("SELECT '").append(table).append("', COUNT(*), MAX(created_at) FROM ").append(table);
+        }
+        Map<String, Stamp> stamps = new LinkedHashMap<>();
+        try (QueryTrace trace = QueryTrace.begin("change_probe");
+             PreparedStatement ps = conn.prepareStatement(sql.toString()); ResultSet rs = ps.executeQuery()) {
+            trace.executed();
+            while (rs.next()) {
+                stamps.put(rs.getString(1), new Stamp(rs.getLong(2), rs.getTimestamp(3)));
+            }
+            trace.end(stamps.size());
+        }
+        return Collections.unmodifiableMap(stamps);
+    }
+
+    /* Tables whose stamp differs between before and after; all of them if before is null. */
+    public static Set<String> changed(Map<String, Stamp> before, Map<String, Stamp> after) {
+        Set<String> changed = new LinkedHashSet<>();
+        for (String table : TABLES) {
+            if (before == null || !Objects.equals(before.get(table), after.get(table))) changed.add(table);
+        }
+        return Collections.unmodifiableSet(changed);
+    }
+}
@@ -0,0 +1,249 @@
+package org.example;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Typed parameter binding for one CSV column.
+ *
+ * A binder is chosen from the column's JDBC type (read once per table from
+ * DatabaseMetaData). read() runs on the parser thread and converts the field
+ * bytes into the batch's column buffer: INT columns go into an int[], DATE
+ * columns into a long[] of epoch days, text into a String[]. bind() runs on the
+ * writer thread and calls the matching setInt / setDate / setString, so the
+ * server receives typed values instead of coercing strings.
+ */
+abstract class ColumnBinder {
+    final String column;
+    final int sqlType;
+    // declared size (VARCHAR(50) -> 50), 0 if unknown
+    final int size;
+    // declared NOT NULL; only known for binders made by forTable
+    boolean notNull;
+
+    ColumnBinder(String column, int sqlType, int size) {
+        this.column = column;
+        this.sqlType = sqlType;
+        this.size = size;
+    }
+
+    // Storage for one batch worth of values
+    abstract Object newBuffer(int capacity);
+
+    // Convert field 'field' of the current record into buffer[row]. The field is known not to be NULL.
+    abstract void read(CsvReader reader, int field, Object buffer, int row);
+
+    abstract void bind(PreparedStatement ps, int param, Object buffer, int row) throws SQLException;
+
+    // The value at buffer[row] as an object (Integer, Long, LocalDate or String)
+    abstract Object value(Object buffer, int row);
+
+    // Drop object references so recycled batches don't keep old values alive
+    void clear(Object buffer, int rows) {
+    }
+
+    /*
+     * Build binders for the CSV columns of a table from DatabaseMetaData.
+     * Columns the metadata doesn't know about are bound as strings.
+     */
+    static ColumnBinder[] forTable(Connection conn, String table, String[] cols) throws SQLException {
+        Map<String, ColumnInfo> types = readColumnTypes(conn, table);
+        ColumnBinder[] binders = new ColumnBinder[cols.length];
+        for (int i = 0; i < cols.length; i++) {
+            ColumnInfo t = types.get(cols[i].toLowerCase(Locale.ROOT));
+            binders[i] = t == null
+                    ? new StringBinder(cols[i], Types.VARCHAR, 0)
+                    : create(cols[i], t.sqlType, t.size, t.typeName);
+            binders[i].notNull = t != null && !t.nullable;
+        }
+        return binders;
+    }
+
+    // All-string binders, used when typed binding is switched off
+    static ColumnBinder[] strings(String[] cols) {
+        ColumnBinder[] binders = new ColumnBinder[cols.length];
+        for (int i = 0; i < cols.length; i++) binders[i] = new StringBinder(cols[i], Types.VARCHAR, 0);
+        return binders;
+    }
+
+    static ColumnBinder create(String column, int sqlType, int size, String typeName) {
+        switch (sqlType) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+                return new IntBinder(column, sqlType, size);
+            case Types.BIGINT:
+                return new LongBinder(column, sqlType, size);
+            case Types.DATE:
+                return new DateBinder(column, sqlType, size);
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+                // ENUM and short CHAR columns repeat a handful of values; share their Strings
+                boolean enumLike = "ENUM".equalsIgnoreCase(typeName) || sqlType == Types.CHAR;
+                return new CachedStringBinder(column, sqlType, size, enumLike);
+            default:
+                return new StringBinder(column, sqlType, size);
+        }
+    }
+
+    private static final class ColumnInfo {
+        final int sqlType;
+        final int size;
+        final String typeName;
+        final boolean nullable;
+
+        ColumnInfo(int sqlType, int size, String typeName, boolean nullable) {
+            this.sqlType = sqlType;
+            this.size = size;
+            this.typeName = typeName;
+            this.nullable = nullable;
+        }
+    }
+
+    // column name (lower case) -> type information from DatabaseMetaData.getColumns
+    private static Map<String, ColumnInfo> readColumnTypes(Connection conn, String table) throws SQLException {
+        Map<String, ColumnInfo> types = new HashMap<>();
+        DatabaseMetaData md = conn.getMetaData();
+        // identifiers may be stored upper or lower case depending on the database
+        for (String candidate : new String[] {table, table.toLowerCase(Locale.ROOT), table.toUpperCase(Locale.ROOT)}) {
+            try (ResultSet rs = md.getColumns(conn.getCatalog(), null, candidate, "%")) {
+                while (rs.next()) {
+                    String name = rs.getString("COLUMN_NAME").toLowerCase(Locale.ROOT);
+                    types.put(name, new ColumnInfo(rs.getInt("DATA_TYPE"), rs.getInt("COLUMN_SIZE"), rs.getString("TYPE_NAME"),
+                            rs.getInt("NULLABLE") != DatabaseMetaData.columnNoNulls));
+                }
+            }
+            if (!types.isEmpty()) break;
+        }
+        return types;
+    }
+
+    static final class IntBinder extends ColumnBinder {
+        IntBinder(String column, int sqlType, int size) { super(column, sqlType, size); }
+
+        @Override Object newBuffer(int capacity) { return new int[capacity]; }
+
+        @Override void read(CsvReader reader, int field, Object buffer, int row) {
+            ((int[]) buffer)[row] = reader.getInt(field);
+        }
+
+        @Override void bind(PreparedStatement ps, int param, Object buffer, int row) throws SQLException {
+            ps.setInt(param, ((int[]) buffer)[row]);
+        }
+
+        @Override Object value(Object buffer, int row) { return ((int[]) buffer)[row]; }
+    }
+
+    static final class LongBinder extends ColumnBinder {
+        LongBinder(String column, int sqlType, int size) { super(column, sqlType, size); }
+
+        @Override Object newBuffer(int capacity) { return new long[capacity]; }
+
+        @Override void read(CsvReader reader, int field, Object buffer, int row) {
+            ((long[]) buffer)[row] = reader.getLong(field);
+        }
+
+        @Override void bind(PreparedStatement ps, int param, Object buffer, int row) throws SQLException {
+            ps.setLong(param, ((long[]) buffer)[row]);
+        }
+
+        @Override Object value(Object buffer, int row) { return ((long[]) buffer)[row]; }
+    }
+
+    static final class DateBinder extends ColumnBinder {
+        DateBinder(String column, int sqlType, int size) { super(column, sqlType, size); }
+
+        @Override Object newBuffer(int capacity) { return new long[capacity]; }
+
+        @Override void read(CsvReader reader, int field, Object buffer, int row) {
+            ((long[]) buffer)[row] = reader.getEpochDay(field);
+        }
+
+        @Override void bind(PreparedStatement ps, int param, Object buffer, int row) throws SQLException {
+            ps.setDate(param, java.sql.Date.valueOf(LocalDate.ofEpochDay(((long[]) buffer)[row])));
+        }
+
+        @Override Object value(Object buffer, int row) { return LocalDate.ofEpochDay(((long[]) buffer)[row]); }
+    }
+
+    static class StringBinder extends ColumnBinder {
+        StringBinder(String column, int sqlType, int size) { super(column, sqlType, size); }
+
+        @Override Object newBuffer(int capacity) { return new String[capacity]; }
+
+        @Override void read(CsvReader reader, int field, Object buffer, int row) {
+            ((String[]) buffer)[row] = reader.getString(field);
+        }
+
+        @Override void bind(PreparedStatement ps, int param, Object buffer, int row) throws SQLException {
+            ps.setString(param, ((String[]) buffer)[row]);
+        }
+
+        @Override Object value(Object buffer, int row) { return ((String[]) buffer)[row]; }
+
+        @Override void clear(Object buffer, int rows) {
+            Arrays.fill((String[]) buffer, 0, rows, null);
+        }
+    }
+
+    /*
+     * String column that reuses the String for values it has seen before, looked up by the
+     * field bytes. Columns such as program, city, subject and status repeat a few values
+     * millions of times. For columns that turn out to be mostly unique (ids, emails) the
+     * cache switches itself off after a while.
+     */
+    static final class CachedStringBinder extends StringBinder {
+        private static final int SLOTS = 1024; // power of two
+        private static final int MAX_ENTRIES = SLOTS / 2;
+        private static final int GIVE_UP_AFTER_MISSES = 4096;
+
+        private final byte[][] keys = new byte[SLOTS][];
+        private final String[] values = new String[SLOTS];
+        private int entries;
+        private long hits;
+        private long misses;
+        private boolean enabled = true;
+        private final boolean alwaysCache;
+
+        CachedStringBinder(String column, int sqlType, int size, boolean alwaysCache) {
+            super(column, sqlType, size);
+            this.alwaysCache = alwaysCache;
+        }
+
+        @Override void read(CsvReader reader, int field, Object buffer, int row) {
+            ((String[]) buffer)[row] = enabled ? lookup(reader, field) : reader.getString(field);
+        }
+
+        private String lookup(CsvReader reader, int field) {
+            int slot = reader.fieldHash(field) & (SLOTS - 1);
+            while (keys[slot] != null) {
+                if (reader.fieldEquals(field, keys[slot])) {
+                    hits++;
+                    return values[slot];
+                }
+                slot = (slot + 1) & (SLOTS - 1);
+            }
+            misses++;
+            String value = reader.getString(field);
+            if (entries < MAX_ENTRIES) {
+                keys[slot] = reader.fieldBytes(field);
+                values[slot] = value;
+                entries++;
+            } else if (!alwaysCache && misses > GIVE_UP_AFTER_MISSES && hits < misses) {
+                enabled = false;
+            }
+            return value;
+        }
+    }
+}
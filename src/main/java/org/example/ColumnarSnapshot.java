@@ -0,0 +1,440 @@
+package org.example;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The three tables held in memory as primitive columns, for computing the dashboard
+ * statistics without going back to the database.
+ *
+ * load() reads each table once. applicant_id is mapped to a dense int index, and
+ * program, city, gender and status are dictionary encoded, so a row of applications is
+ * three ints and a row of exam_scores two. Each applicant's score sum and count are
+ * folded in while loading, because every statistic that joins scores to applicants or
+ * programs only needs those.
+ *
+ * aggregate() then computes every statistic of StatisticsRepository.Snapshot in one
+ * fork/join pass over the columns, with the same results as the SQL queries (the left
+ * joins included). It can be restricted to the applicants of one city and/or gender for
+ * drill-downs.
+ *
+ * A snapshot is immutable once loaded and can be aggregated from several threads.
+ */
+public final class ColumnarSnapshot {
+    // leaf size of the fork/join pass, in rows
+    private static final int SLICE = 64 * 1024;
+    private static final int ACCEPTED_NONE = -1;
+
+    // applicants, indexed by the dense applicant index. Ids that only appear in the child
+    // tables get an index too (present = false), as the LEFT JOINs still see their rows.
+    private final int applicantCount;
+    private final boolean[] present;
+    private final String[] firstName;
+    private final String[] lastName;
+    private final int[] city;
+    private final int[] gender;
+    private final int[] applicationCount;
+    private final long[] scoreSum;
+    private final int[] scoreCount;
+
+    // applications
+    private final int[] appApplicant;
+    private final int[] appProgram;
+    private final int[] appStatus;
+
+    // exam_scores
+    private final int[] scoreApplicant;
+    private final int[] score;
+
+    private final List<String> programs;
+    private final List<String> cities;
+    private final List<String> genders;
+    private final int accepted;
+
+    private ColumnarSnapshot(Loader l) {
+        applicantCount = l.ids.size();
+        present = Arrays.copyOf(l.present, applicantCount);
+        firstName = Arrays.copyOf(l.firstName, applicantCount);
+        lastName = Arrays.copyOf(l.lastName, applicantCount);
+        city = Arrays.copyOf(l.city, applicantCount);
+        gender = Arrays.copyOf(l.gender, applicantCount);
+        applicationCount = Arrays.copyOf(l.applicationCount, applicantCount);
+        scoreSum = Arrays.copyOf(l.scoreSum, applicantCount);
+        scoreCount = Arrays.copyOf(l.scoreCount, applicantCount);
+        appApplicant = l.appApplicant.toArray();
+        appProgram = l.appProgram.toArray();
+        appStatus = l.appStatus.toArray();
+        scoreApplicant = l.scoreApplicant.toArray();
+        score = l.score.toArray();
+        programs = Collections.unmodifiableList(l.programs.values);
+        cities = Collections.unmodifiableList(l.cities.values);
+        genders = Collections.unmodifiableList(l.genders.values);
+        Integer acc = l.statuses.codes.get("Accepted");
+        accepted = acc == null ? ACCEPTED_NONE : acc;
+    }
+
+    /* Read the three tables. Takes one pass over each; memory is a few ints per row. */
+    public static ColumnarSnapshot load(Connection conn) throws SQLException {
+        Loader l = new Loader();
+        try (Statement st = conn.createStatement()) {
+            st.setFetchSize(10_000);
+            long rows = 0;
+            try (QueryTrace trace = QueryTrace.begin("snapshot/applicants");
+                 ResultSet rs = st.executeQuery(
+                         "SELECT applicant_id, first_name, last_name, city, gender FROM applicants")) {
+                trace.executed();
+                while (rs.next()) {
+                    rows++;
+                    int a = l.applicant(rs.getString(1));
+                    l.present[a] = true;
+                    l.firstName[a] = rs.getString(2);
+                    l.lastName[a] = rs.getString(3);
+                    l.city[a] = l.cities.encode(rs.getString(4));
+                    l.gender[a] = l.genders.encode(rs.getString(5));
+                }
+                trace.end(rows);
+            }
+            rows = 0;
+            try (QueryTrace trace = QueryTrace.begin("snapshot/applications");
+                 ResultSet rs = st.executeQuery("SELECT applicant_id, program, status FROM applications")) {
+                trace.executed();
+                while (rs.next()) {
+                    rows++;
+                    int a = l.applicant(rs.getString(1));
+                    l.applicationCount[a]++;
+                    l.appApplicant.add(a);
+                    l.appProgram.add(l.programs.encode(rs.getString(2)));
+                    l.appStatus.add(l.statuses.encode(rs.getString(3)));
+                }
+                trace.end(rows);
+            }
+            rows = 0;
+            try (QueryTrace trace = QueryTrace.begin("snapshot/exam_scores");
+                 ResultSet rs = st.executeQuery("SELECT applicant_id, score FROM exam_scores")) {
+                trace.executed();
+                while (rs.next()) {
+                    rows++;
+                    int a = l.applicant(rs.getString(1));
+                    int s = rs.getInt(2);
+                    l.scoreSum[a] += s;
+                    l.scoreCount[a]++;
+                    l.scoreApplicant.add(a);
+                    l.score.add(s);
+                }
+                trace.end(rows);
+            }
+        }
+        return new ColumnarSnapshot(l);
+    }
+
+    public int getApplicantCount() {
+        return applicantCount;
+    }
+
+    public int getApplicationCount() {
+        return appApplicant.length;
+    }
+
+    public int getScoreCount() {
+        return score.length;
+    }
+
+    /* All dashboard statistics over the whole snapshot. */
+    public StatisticsRepository.Snapshot aggregate() {
+        return aggregate(null, null);
+    }
+
+    /*
+     * The statistics of the applicants in cityName with genderName; either may be null for
+     * all. The city/gender counts are then restricted in the same way.
+     */
+    public StatisticsRepository.Snapshot aggregate(String cityName, String genderName) {
+        int cityFilter = cityName == null ? -1 : cities.indexOf(cityName);
+        int genderFilter = genderName == null ? -1 : genders.indexOf(genderName);
+        if ((cityName != null && cityFilter < 0) || (genderName != null && genderFilter < 0)) {
+            return new Pass(this, -2, -2, 0, 0).finish();
+        }
+        int total = applicantCount + appApplicant.length + score.length;
+        return ForkJoinPool.commonPool().invoke(new Pass(this, cityFilter, genderFilter, 0, total)).finish();
+    }
+
+    private boolean matches(int a, int cityFilter, int genderFilter) {
+        if (cityFilter == -1 && genderFilter == -1) return true;
+        return present[a] && (cityFilter == -1 || city[a] == cityFilter)
+                && (genderFilter == -1 || gender[a] == genderFilter);
+    }
+
+    /*
+     * One slice of the pass. The row range covers applicants, then applications, then
+     * exam_scores, so a single task tree walks all three tables. Each leaf counts into
+     * small arrays of its own (per program, city and gender, score value); compute() adds the
+     * children's arrays together.
+     */
+    private static final class Pass extends RecursiveTask<Pass> {
+        private final ColumnarSnapshot s;
+        private final int cityFilter;
+        private final int genderFilter;
+        private final int from;
+        private final int to;
+
+        // index programs.size() is the NULL program of the left joins
+        long[] acceptedByProgram;
+        long[] totalByProgram;
+        long[] scoreSumByProgram;
+        long[] scoreCountByProgram;
+        long applicantsWithoutApplication;
+        long[] cityGender;
+        long[] scoreCounts;
+        PriorityQueue<Integer> top;
+
+        Pass(ColumnarSnapshot s, int cityFilter, int genderFilter, int from, int to) {
+            this.s = s;
+            this.cityFilter = cityFilter;
+            this.genderFilter = genderFilter;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Pass compute() {
+            if (to - from > SLICE) {
+                int mid = (from + to) >>> 1;
+                Pass left = new Pass(s, cityFilter, genderFilter, from, mid);
+                Pass right = new Pass(s, cityFilter, genderFilter, mid, to);
+                left.fork();
+                Pass r = right.compute();
+                Pass l = left.join();
+                l.merge(r);
+                return l;
+            }
+            init();
+            int apps = s.applicantCount;
+            int scoresStart = apps + s.appApplicant.length;
+            for (int i = from; i < to; i++) {
+                if (i < apps) {
+                    applicant(i);
+                } else if (i < scoresStart) {
+                    application(i - apps);
+                } else {
+                    int row = i - scoresStart;
+                    int v = s.score[row];
+                    if (v >= 0 && v <= ScoreHistogram.MAX_SCORE && s.matches(s.scoreApplicant[row], cityFilter, genderFilter)) {
+                        scoreCounts[v]++;
+                    }
+                }
+            }
+            return this;
+        }
+
+        private void init() {
+            int p = s.programs.size() + 1;
+            acceptedByProgram = new long[p];
+            totalByProgram = new long[p];
+            scoreSumByProgram = new long[p];
+            scoreCountByProgram = new long[p];
+            cityGender = new long[s.cities.size() * s.genders.size()];
+            scoreCounts = new long[ScoreHistogram.MAX_SCORE + 1];
+            top = new PriorityQueue<>(StatisticsRepository.TOP_N + 1, byAverage(s));
+        }
+
+        private void applicant(int a) {
+            if (!s.matches(a, cityFilter, genderFilter)) return;
+            if (s.present[a]) {
+                cityGender[s.city[a] * s.genders.size() + s.gender[a]]++;
+                if (s.applicationCount[a] == 0) applicantsWithoutApplication++;
+                if (s.scoreCount[a] > 0) offerTop(a);
+            }
+            // exam_scores LEFT JOIN applications: scores of applicants without an application
+            if (s.applicationCount[a] == 0 && s.scoreCount[a] > 0) {
+                int none = s.programs.size();
+                scoreSumByProgram[none] += s.scoreSum[a];
+                scoreCountByProgram[none] += s.scoreCount[a];
+            }
+        }
+
+        // keep the TOP_N best; most applicants are rejected by one comparison with the worst kept
+        private void offerTop(int a) {
+            if (top.size() < StatisticsRepository.TOP_N) {
+                top.add(a);
+            } else if (top.comparator().compare(a, top.peek()) > 0) {
+                top.poll();
+                top.add(a);
+            }
+        }
+
+        private void application(int i) {
+            int a = s.appApplicant[i];
+            if (!s.matches(a, cityFilter, genderFilter)) return;
+            int p = s.appProgram[i];
+            // applicants LEFT JOIN applications only sees applications of known applicants
+            if (s.present[a]) {
+                totalByProgram[p]++;
+                if (s.appStatus[i] == s.accepted) acceptedByProgram[p]++;
+            }
+            // each score row joins every application of its applicant
+            scoreSumByProgram[p] += s.scoreSum[a];
+            scoreCountByProgram[p] += s.scoreCount[a];
+        }
+
+        private void merge(Pass o) {
+            add(acceptedByProgram, o.acceptedByProgram);
+            add(totalByProgram, o.totalByProgram);
+            add(scoreSumByProgram, o.scoreSumByProgram);
+            add(scoreCountByProgram, o.scoreCountByProgram);
+            add(cityGender, o.cityGender);
+            applicantsWithoutApplication += o.applicantsWithoutApplication;
+            for (Integer a : o.top) offerTop(a);
+            add(scoreCounts, o.scoreCounts);
+        }
+
+        private static void add(long[] into, long[] from) {
+            for (int i = 0; i < into.length; i++) into[i] += from[i];
+        }
+
+        StatisticsRepository.Snapshot finish() {
+            if (acceptedByProgram == null) init();
+            int none = s.programs.size();
+            List<Integer> programOrder = sortedCodes(s.programs);
+
+            List<StatisticsRepository.ProgramRate> rates = new ArrayList<>();
+            if (applicantsWithoutApplication > 0) rates.add(new StatisticsRepository.ProgramRate(null, 0, 0, 0));
+            for (int p : programOrder) {
+                if (totalByProgram[p] == 0) continue;
+                rates.add(new StatisticsRepository.ProgramRate(s.programs.get(p), (int) acceptedByProgram[p],
+                        (int) totalByProgram[p], acceptedByProgram[p] * 100.0 / totalByProgram[p]));
+            }
+
+            List<StatisticsRepository.ProgramScore> averages = new ArrayList<>();
+            if (scoreCountByProgram[none] > 0) {
+                averages.add(new StatisticsRepository.ProgramScore(null,
+                        (double) scoreSumByProgram[none] / scoreCountByProgram[none]));
+            }
+            for (int p : programOrder) {
+                if (scoreCountByProgram[p] == 0) continue;
+                averages.add(new StatisticsRepository.ProgramScore(s.programs.get(p),
+                        (double) scoreSumByProgram[p] / scoreCountByProgram[p]));
+            }
+
+            List<StatisticsRepository.CityGender> cityGenderRows = new ArrayList<>();
+            Map<String, Integer> genderCounts = new LinkedHashMap<>();
+            for (int c : sortedCodes(s.cities)) {
+                for (int g : sortedCodes(s.genders)) {
+                    long n = cityGender[c * s.genders.size() + g];
+                    if (n == 0) continue;
+                    cityGenderRows.add(new StatisticsRepository.CityGender(s.cities.get(c), s.genders.get(g), (int) n));
+                    genderCounts.merge(s.genders.get(g), (int) n, Integer::sum);
+                }
+            }
+
+            List<Integer> best = new ArrayList<>(top);
+            best.sort(byAverage(s).reversed());
+            List<StatisticsRepository.ApplicantScore> topApplicants = new ArrayList<>();
+            for (int a : best) {
+                topApplicants.add(new StatisticsRepository.ApplicantScore(s.firstName[a], s.lastName[a],
+                        (double) s.scoreSum[a] / s.scoreCount[a]));
+            }
+
+            return new StatisticsRepository.Snapshot(List.copyOf(rates), List.copyOf(averages),
+                    List.copyOf(cityGenderRows), Collections.unmodifiableMap(genderCounts),
+                    new ScoreHistogram(scoreCounts), List.copyOf(topApplicants));
+        }
+    }
+
+    private static Comparator<Integer> byAverage(ColumnarSnapshot s) {
+        return Comparator.comparingDouble((Integer a) -> (double) s.scoreSum[a] / s.scoreCount[a])
+                .thenComparing(a -> -a);
+    }
+
+    // codes of a dictionary in the order of their values, as the ORDER BY of the queries
+    private static List<Integer> sortedCodes(List<String> values) {
+        List<Integer> codes = new ArrayList<>(values.size());
+        for (int i = 0; i < values.size(); i++) codes.add(i);
+        codes.sort(Comparator.comparing(values::get, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER)));
+        return codes;
+    }
+
+    // Growable int column used while loading
+    private static final class IntColumn {
+        private int[] values = new int[1024];
+        private int size;
+
+        void add(int v) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = v;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    // String -> small int code, codes handed out in order of first appearance
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int encode(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+    }
+
+    // Load time state; the applicant arrays grow with the id dictionary
+    private static final class Loader {
+        final Map<String, Integer> ids = new HashMap<>();
+        boolean[] present = new boolean[1024];
+        String[] firstName = new String[1024];
+        String[] lastName = new String[1024];
+        int[] city = new int[1024];
+        int[] gender = new int[1024];
+        int[] applicationCount = new int[1024];
+        long[] scoreSum = new long[1024];
+        int[] scoreCount = new int[1024];
+        final IntColumn appApplicant = new IntColumn();
+        final IntColumn appProgram = new IntColumn();
+        final IntColumn appStatus = new IntColumn();
+        final IntColumn scoreApplicant = new IntColumn();
+        final IntColumn score = new IntColumn();
+        final Dictionary programs = new Dictionary();
+        final Dictionary cities = new Dictionary();
+        final Dictionary genders = new Dictionary();
+        final Dictionary statuses = new Dictionary();
+
+        int applicant(String id) {
+            Integer a = ids.get(id);
+            if (a != null) return a;
+            int next = ids.size();
+            ids.put(id, next);
+            if (next == present.length) {
+                int n = next * 2;
+                present = Arrays.copyOf(present, n);
+                firstName = Arrays.copyOf(firstName, n);
+                lastName = Arrays.copyOf(lastName, n);
+                city = Arrays.copyOf(city, n);
+                gender = Arrays.copyOf(gender, n);
+                applicationCount = Arrays.copyOf(applicationCount, n);
+                scoreSum = Arrays.copyOf(scoreSum, n);
+                scoreCount = Arrays.copyOf(scoreCount, n);
+            }
+            return next;
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package org.example;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A small pool of connections to the database of a DatabaseConfig.
+ *
+ * getConnection() hands out a connection for one piece of work; closing it puts it back
+ * into the pool instead of closing it, with auto-commit restored and any open transaction
+ * rolled back. At most maxSize connections are open at a time; getConnection() waits for
+ * one to come back, and fails after the borrow timeout.
+ *
+ * A connection that has been idle for a while is checked with isValid() before it is
+ * handed out, and one that stays idle longer than the idle timeout is closed by a
+ * background thread, so a database restart or a server-side timeout only costs a reconnect.
+ *
+ * Each connection keeps its prepared statements: prepareStatement(sql) returns the cached
+ * statement for sql if there is one (closing it only clears its parameters), so the driver
+ * and server parse a dashboard query once per connection instead of on every refresh.
+ * Statement settings such as the fetch size stay with the cached statement. Only the
+ * one-argument prepareStatement is cached; the other variants are passed through.
+ */
+public class ConnectionPool implements AutoCloseable {
+    public static final int DEFAULT_SIZE = 4;
+
+    // statements kept per connection; the least recently used one is closed beyond this
+    private static final int STATEMENT_CACHE_SIZE = 64;
+    private static final Duration BORROW_TIMEOUT = Duration.ofSeconds(30);
+    // connections idle for less than this are handed out without a check
+    private static final long VALIDATE_AFTER_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final DatabaseConfig config;
+    private final int maxSize;
+    private final long idleTimeoutNanos;
+    private final Semaphore permits;
+    private final ScheduledExecutorService evictor;
+
+    // guarded by this; most recently returned first
+    private final Deque<Pooled> idle = new ArrayDeque<>();
+    private boolean closed;
+
+    public ConnectionPool(DatabaseConfig config) {
+        this(config, DEFAULT_SIZE, Duration.ofMinutes(5));
+    }
+
+    public ConnectionPool(DatabaseConfig config, int maxSize, Duration idleTimeout) {
+        if (maxSize < 1) throw new IllegalArgumentException("Pool size must be at least 1");
+        this.config = config;
+        this.maxSize = maxSize;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.permits = new Semaphore(maxSize, true);
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "connection-pool-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1, idleTimeout.toMillis() / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public DatabaseConfig getConfig() {
+        return config;
+    }
+
+    /* Borrow a connection; close() returns it. Waits while all maxSize connections are in use. */
+    public Connection getConnection() throws SQLException {
+        try {
+            if (!permits.tryAcquire(BORROW_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new SQLException("No database connection became free within " + BORROW_TIMEOUT.getSeconds()
+                        + " s (pool size " + maxSize + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        try {
+            Pooled p = takeValid();
+            if (p == null) p = new Pooled(open());
+            return p.lend();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    // An idle connection that still works, or null; broken ones are closed on the way
+    private Pooled takeValid() throws SQLException {
+        while (true) {
+            Pooled p;
+            synchronized (this) {
+                if (closed) throw new SQLException("Connection pool is closed");
+                p = idle.pollFirst();
+            }
+            if (p == null) return null;
+            if (System.nanoTime() - p.returnedAt < VALIDATE_AFTER_NANOS || isValid(p.physical)) return p;
+            p.closePhysical();
+        }
+    }
+
+    private static boolean isValid(Connection c) {
+        try {
+            return c.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private Connection open() throws SQLException {
+        try {
+            return config.openConnection();
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("JDBC driver not found: " + config.getDriverClass(), e);
+        }
+    }
+
+    // Called by a lent connection's close()
+    private void giveBack(Pooled p) {
+        boolean keep = reset(p.physical);
+        synchronized (this) {
+            if (keep && !closed) {
+                p.returnedAt = System.nanoTime();
+                idle.addFirst(p);
+                p = null;
+            }
+        }
+        if (p != null) p.closePhysical();
+        permits.release();
+    }
+
+    // Undo what the borrower may have left behind; false if the connection is unusable
+    private static boolean reset(Connection c) {
+        try {
+            if (c.isClosed()) return false;
+            if (!c.getAutoCommit()) {
+                c.rollback();
+                c.setAutoCommit(true);
+            }
+            if (c.isReadOnly()) c.setReadOnly(false);
+            c.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void evictIdle() {
+        Deque<Pooled> expired = new ArrayDeque<>();
+        long now = System.nanoTime();
+        synchronized (this) {
+            // the oldest are at the end
+            while (!idle.isEmpty() && now - idle.peekLast().returnedAt > idleTimeoutNanos) {
+                expired.add(idle.pollLast());
+            }
+        }
+        for (Pooled p : expired) p.closePhysical();
+    }
+
+    /* Close the idle connections and stop the evictor. Lent connections are closed when they come back. */
+    @Override
+    public void close() {
+        Deque<Pooled> toClose;
+        synchronized (this) {
+            closed = true;
+            toClose = new ArrayDeque<>(idle);
+            idle.clear();
+        }
+        evictor.shutdownNow();
+        for (Pooled p : toClose) p.closePhysical();
+    }
+
+    /*
+     * One physical connection with its statement cache. Handed out as a proxy, so a
+     * borrower that keeps the connection after closing it cannot use it any more.
+     */
+    private final class Pooled {
+        final Connection physical;
+        long returnedAt;
+
+        // access order: the first entry is the least recently used
+        private final Map<String, PreparedStatement> statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() <= STATEMENT_CACHE_SIZE) return false;
+                // one still in use is closed when its borrower closes it
+                if (!inUse.containsKey(eldest.getValue())) closeQuietly(eldest.getValue());
+                return true;
+            }
+        };
+        // cached statements currently handed out; asking for the same SQL again gets a new one
+        private final Map<PreparedStatement, Boolean> inUse = new IdentityHashMap<>();
+
+        Pooled(Connection physical) {
+            this.physical = physical;
+        }
+
+        Connection lend() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] {Connection.class}, new Lent());
+        }
+
+        PreparedStatement prepare(Connection lent, String sql) throws SQLException {
+            PreparedStatement ps = statements.get(sql);
+            if (ps != null && ps.isClosed()) {
+                statements.remove(sql);
+                ps = null;
+            }
+            // the same SQL open twice at once: the second one is not cached
+            if (ps != null && inUse.containsKey(ps)) return physical.prepareStatement(sql);
+            if (ps == null) {
+                ps = physical.prepareStatement(sql);
+                statements.put(sql, ps);
+            }
+            inUse.put(ps, Boolean.TRUE);
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[] {PreparedStatement.class}, new CachedStatement(lent, ps));
+        }
+
+        void closePhysical() {
+            for (PreparedStatement ps : statements.values()) closeQuietly(ps);
+            statements.clear();
+            inUse.clear();
+            try {
+                physical.close();
+            } catch (SQLException ignored) {
+            }
+        }
+
+        /* The connection as the borrower sees it: close() returns it to the pool. */
+        private final class Lent implements InvocationHandler {
+            private boolean returned;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close":
+                        if (!returned) {
+                            returned = true;
+                            giveBack(Pooled.this);
+                        }
+                        return null;
+                    case "isClosed":
+                        return returned || physical.isClosed();
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "Pooled[" + physical + "]";
+                    default:
+                        break;
+                }
+                if (returned) throw new SQLException("Connection has been returned to the pool");
+                if ("prepareStatement".equals(method.getName()) && args != null && args.length == 1) {
+                    return prepare((Connection) proxy, (String) args[0]);
+                }
+                return invokeOn(physical, method, args);
+            }
+        }
+
+        /* A cached statement as the borrower sees it: close() keeps it for the next prepare. */
+        private final class CachedStatement implements InvocationHandler {
+            private final Connection lent;
+            private final PreparedStatement ps;
+            // result sets handed out through this proxy, closed with it
+            private final List<ResultSet> results = new ArrayList<>();
+            private boolean closed;
+
+            CachedStatement(Connection lent, PreparedStatement ps) {
+                this.lent = lent;
+                this.ps = ps;
+            }
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close":
+                        if (!closed) {
+                            closed = true;
+                            inUse.remove(ps);
+                            closeResults();
+                            if (!statements.containsValue(ps)) {
+                                closeQuietly(ps); // evicted while in use
+                                return null;
+                            }
+                            try {
+                                ps.clearParameters();
+                                ps.clearBatch();
+                            } catch (SQLException e) {
+                                statements.values().remove(ps);
+                                closeQuietly(ps);
+                            }
+                        }
+                        return null;
+                    case "isClosed":
+                        return closed || ps.isClosed();
+                    case "getConnection":
+                        return lent;
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        break;
+                }
+                if (closed) throw new SQLException("Statement is closed");
+                Object result = invokeOn(ps, method, args);
+                if (result instanceof ResultSet) results.add((ResultSet) result);
+                return result;
+            }
+
+            // A cached statement stays open, so its results would otherwise stay open too
+            private void closeResults() {
+                for (ResultSet rs : results) {
+                    try {
+                        rs.close();
+                    } catch (SQLException ignored) {
+                    }
+                }
+                results.clear();
+            }
+        }
+    }
+
+    private static Object invokeOn(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement ps) {
+        try {
+            ps.close();
+        } catch (SQLException ignored) {
+        }
+    }
+}
@@ -0,0 +1,683 @@
+package org.example;
+
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * Imports one CSV file into one table.
+ *
+ * The CSV's first row must be column names matching the table columns. The file
+ * may be gzip compressed and is read in the charset of the ImportOptions. Parsing
+ * runs on a separate thread (taken from the given executor) and hands filled row
+ * batches to the calling thread, which binds them and runs executeBatch(). Each
+ * column is converted by a ColumnBinder matching its SQL type, so INT and DATE
+ * values are parsed straight from the CSV bytes. The batches are recycled, so the
+ * steady state allocates only the String values.
+ * The whole file is imported in one transaction and rolled back on any error.
+ *
+ * With the NATIVE_BULK or AUTO strategy the file is instead streamed to the
+ * server through BulkLoader (LOAD DATA / COPY); AUTO falls back to the INSERT
+ * batches when the dialect or driver can't do that.
+ *
+ * In incremental mode rows are upserted, committed in chunks and tracked in an
+ * ImportCheckpoint, so a failed import can be resumed instead of repeated. With
+ * adaptive batching the batch size and commit points follow the measured
+ * executeBatch() latency (see AdaptiveBatchSizer).
+ *
+ * The ImportMonitor hears about every written batch and about a fallback from the chosen
+ * strategy, and can cancel the import.
+ *
+ * With validation switched on, every row is first checked against the schema's
+ * constraints by a RowValidator. Rows that would fail on the server are written to
+ * a Quarantine file with the reason, and the remaining rows still load.
+ *
+ * When the SummaryTables are installed, the summary of the imported table is updated
+ * in the same transactions as its rows: from the bound batches (INSERT and upsert, which
+ * first takes the replaced rows' old values out), or from a second pass over the loaded
+ * file (native bulk load).
+ */
+public class CsvImporter {
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    // number of parsed batches that may wait for the writer
+    private static final int QUEUE_DEPTH = 4;
+    // primary keys per lookup of the rows an upsert batch replaces
+    private static final int LOOKUP_KEYS = 500;
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    // MySQL/MariaDB error codes meaning LOAD DATA LOCAL is switched off on the client or server
+    private static final int[] LOCAL_INFILE_DISABLED = {1148, 2068, 3948};
+
+    private final Executor parserExecutor;
+    private final ImportOptions options;
+    private final ImportMonitor monitor;
+    // null when validation is off
+    private final ImportValidator validator;
+
+    public CsvImporter(Executor parserExecutor, ImportOptions options, ImportMonitor monitor) {
+        this.parserExecutor = parserExecutor;
+        this.options = options;
+        this.monitor = monitor;
+        this.validator = options.isValidate() ? new ImportValidator() : null;
+    }
+
+    public CsvImporter(Executor parserExecutor, ImportOptions options) {
+        this(parserExecutor, options, ImportMonitor.NONE);
+    }
+
+    public CsvImporter(Executor parserExecutor) {
+        this(parserExecutor, new ImportOptions());
+    }
+
+    /**
+     * Import a CSV file into the specified table. The CSV's first row must be column names.
+     * The header names become the column list of the INSERT (or LOAD DATA / COPY) statement.
+     */
+    public ImportResult importCsvToTable(Connection conn, Path csvPath, String tableName) throws IOException, SQLException {
+        long started = System.nanoTime();
+        try (CsvReader reader = CsvReader.open(csvPath, options.getCharset())) {
+            String[] cols = reader.readHeader();
+            if (cols == null) throw new IOException("Empty CSV file: " + csvPath);
+            for (int i = 0; i < cols.length; i++) {
+                cols[i] = cols[i].trim();
+                // column names are pasted into the SQL, so only accept plain identifiers
+                if (!IDENTIFIER.matcher(cols[i]).matches()) {
+                    throw new IOException("Invalid column name in CSV header: '" + cols[i] + "'");
+                }
+            }
+
+            boolean summarized = SummaryTables.maintains(conn, tableName);
+            if (options.isIncremental()) {
+                return importChunked(conn, reader, csvPath, tableName, cols, true, summarized, started);
+            }
+
+            long rows = -1;
+            long rejected = 0;
+            SummaryTables.Delta delta = null;
+            if (options.getStrategy() != ImportOptions.LoadStrategy.BATCHED_INSERT) {
+                delta = summarized ? SummaryTables.delta(dialect(conn), tableName, cols) : null;
+                try (Quarantine quarantine = newQuarantine(csvPath, cols, false)) {
+                    rows = importNative(conn, csvPath, tableName, cols, quarantine, delta);
+                    if (rows >= 0 && quarantine != null) rejected = quarantine.getCount();
+                }
+                if (rows >= 0) {
+                    monitor.batchWritten(tableName, (int) Math.min(rows, Integer.MAX_VALUE), CsvInput.contentLength(csvPath), 0);
+                }
+            }
+            if (rows < 0) {
+                if (options.isAdaptive()) {
+                    return importChunked(conn, reader, csvPath, tableName, cols, false, summarized, started);
+                }
+                delta = summarized ? SummaryTables.delta(dialect(conn), tableName, cols) : null;
+                // a fresh Quarantine also drops whatever a failed native attempt rejected
+                try (Quarantine quarantine = newQuarantine(csvPath, cols, false)) {
+                    rows = importWithInserts(conn, reader, tableName, ImportSql.insert(tableName, cols), cols, null,
+                            rowValidator(conn, tableName, cols, false), quarantine, delta);
+                    if (quarantine != null) rejected = quarantine.getCount();
+                }
+            }
+            SQLException summaryError = summarized && delta == null ? rebuildSummary(conn, tableName) : null;
+            return new ImportResult(tableName, csvPath, rows, rejected, Files.size(csvPath), System.nanoTime() - started,
+                    false, summaryError);
+        }
+    }
+
+    /*
+     * Rebuild the summary of tableName after an import that could not maintain it row by
+     * row (the CSV lacks a summarized column, or an upsert's key is not one CSV column).
+     * The rows are committed by then, so a failure is returned (to be reported with the
+     * result) rather than thrown.
+     */
+    private static SQLException rebuildSummary(Connection conn, String tableName) {
+        try {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                SummaryTables.rebuild(conn, tableName);
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+            return null;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return new SQLException("Rows were loaded, but the summary of " + tableName
+                    + " could not be rebuilt (" + e.getMessage() + "); rebuild the summaries", e);
+        }
+    }
+
+    /*
+     * Chunked import: commit every few batches and record a checkpoint after each commit.
+     * A previous run's checkpoint for the same unchanged file makes this run start where
+     * that one stopped. Used by incremental mode (upsert instead of insert) and by adaptive
+     * batching (which keeps transactions bounded). Always uses INSERT batches, because the
+     * native loaders can neither upsert portably nor report where they stopped.
+     */
+    private ImportResult importChunked(Connection conn, CsvReader reader, Path csvPath, String tableName,
+                                       String[] cols, boolean upsert, boolean summarized, long started)
+            throws IOException, SQLException {
+        String sql;
+        List<String> primaryKey = upsert ? ImportSql.primaryKey(conn, tableName) : List.of();
+        if (upsert) {
+            sql = ImportSql.upsert(dialect(conn), tableName, cols, primaryKey);
+        } else {
+            sql = ImportSql.insert(tableName, cols);
+        }
+
+        ImportCheckpoint checkpoint = ImportCheckpoint.load(csvPath, tableName);
+        boolean resumed = checkpoint != null && checkpoint.getOffset() > 0;
+        if (resumed) {
+            reader.skipTo(checkpoint.getOffset(), checkpoint.getRecords());
+        } else {
+            checkpoint = ImportCheckpoint.start(csvPath, tableName);
+        }
+        SummaryTables.Delta delta = !summarized ? null
+                : upsert ? SummaryTables.delta(dialect(conn), tableName, cols, primaryKey)
+                : SummaryTables.delta(dialect(conn), tableName, cols);
+        long rows;
+        long rejected = 0;
+        try (Quarantine quarantine = newQuarantine(csvPath, cols, resumed)) {
+            // rows rejected past the checkpoint are about to be validated again
+            if (quarantine != null && resumed) quarantine.dropAfter(checkpoint.getRecords());
+            rows = importWithInserts(conn, reader, tableName, sql, cols, checkpoint,
+                    rowValidator(conn, tableName, cols, upsert), quarantine, delta);
+            if (quarantine != null) rejected = quarantine.getCount();
+        } catch (IOException | SQLException ex) {
+            if (checkpoint.getBatches() == 0) throw ex;
+            throw new SQLException(ex.getMessage() + "\nRecords up to " + checkpoint.getRecords()
+                    + " are committed; import the same file again to resume from there.", ex);
+        }
+        checkpoint.delete();
+        SQLException summaryError = summarized && delta == null ? rebuildSummary(conn, tableName) : null;
+        return new ImportResult(tableName, csvPath, rows, rejected, Files.size(csvPath), System.nanoTime() - started,
+                resumed, summaryError);
+    }
+
+    private Dialect dialect(Connection conn) throws SQLException {
+        return options.getDialect() != null ? options.getDialect() : Dialect.detect(conn);
+    }
+
+    private Quarantine newQuarantine(Path csvPath, String[] cols, boolean append) throws IOException {
+        return validator == null ? null : new Quarantine(csvPath, cols, options.getCharset(), append);
+    }
+
+    private RowValidator rowValidator(Connection conn, String tableName, String[] cols, boolean upsert) throws SQLException {
+        if (validator == null) return null;
+        return validator.forTable(conn, tableName, cols, upsert, dialect(conn).isMySqlFamily(), options.getCharset());
+    }
+
+    /*
+     * Native bulk load. Returns -1 if the AUTO strategy should fall back to INSERT batches
+     * because the dialect or driver has no usable native path.
+     * With a quarantine the file is validated first and the loader gets a copy without the
+     * rejected rows. With a delta, the loaded rows are added to the summary before the commit.
+     */
+    private long importNative(Connection conn, Path csvPath, String tableName, String[] cols, Quarantine quarantine,
+                              SummaryTables.Delta delta) throws IOException, SQLException {
+        boolean auto = options.getStrategy() == ImportOptions.LoadStrategy.AUTO;
+        Dialect dialect = dialect(conn);
+        if (!BulkLoader.supports(dialect)) {
+            if (auto) return -1;
+            throw new SQLException("Native bulk load is not available for " + dialect);
+        }
+        Path source = quarantine == null ? csvPath : filterForBulkLoad(conn, csvPath, tableName, cols, quarantine);
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            long rows = BulkLoader.load(conn, dialect, source, tableName, cols, options.getCharset());
+            if (delta != null) addLoadedRows(conn, source, tableName, delta, rows);
+            conn.commit();
+            return rows;
+        } catch (BulkLoader.UnavailableException ex) {
+            conn.rollback();
+            if (auto) {
+                monitor.notice(tableName, "Native bulk load unavailable, using batched INSERT: " + ex.getMessage());
+                return -1;
+            }
+            throw new SQLException(ex.getMessage(), ex);
+        } catch (SQLException ex) {
+            conn.rollback();
+            if (auto && isLocalInfileDisabled(ex)) {
+                monitor.notice(tableName, "LOAD DATA LOCAL is disabled, using batched INSERT: " + ex.getMessage());
+                return -1;
+            }
+            throw ex;
+        } catch (IOException | RuntimeException ex) {
+            conn.rollback();
+            throw ex;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+            if (!source.equals(csvPath)) Files.deleteIfExists(source);
+        }
+    }
+
+    /*
+     * Validate every row before a native load, which can't skip bad rows itself.
+     * Returns csvPath when all rows passed, otherwise a temporary copy of the file without
+     * the rejected records. The copy is made of byte ranges of the original (runs of good
+     * records between rejected ones), so quoting and line endings stay exactly as they were.
+     * The ranges are copied from a second stream over the same input, which only ever moves
+     * forward, so this works for gzip input too; the copy is written uncompressed.
+     */
+    private Path filterForBulkLoad(Connection conn, Path csvPath, String tableName, String[] cols, Quarantine quarantine)
+            throws IOException, SQLException {
+        RowValidator rules = rowValidator(conn, tableName, cols, false);
+        Path filtered = null;
+        OutputStream out = null;
+        try (CsvReader reader = CsvReader.open(csvPath, options.getCharset());
+             InputStream in = CsvInput.openStream(csvPath)) {
+            reader.readHeader();
+            // start of the good records not yet copied
+            long runStart = 0;
+            while (reader.next()) {
+                if ((reader.recordNumber() & 0xffff) == 0 && monitor.isCancelled()) {
+                    throw new InterruptedIOException("Import cancelled");
+                }
+                String reason = rules.check(reader);
+                if (reason == null) continue;
+                quarantine.reject(reader, reason);
+                if (out == null) {
+                    filtered = Files.createTempFile(tableName + "-", ".csv");
+                    out = new BufferedOutputStream(Files.newOutputStream(filtered), CsvInput.BUFFER_SIZE);
+                }
+                // in is at runStart: copy the good records, then step over the rejected one
+                copy(in, reader.recordOffset() - runStart, out);
+                in.skipNBytes(reader.position() - reader.recordOffset());
+                runStart = reader.position();
+            }
+            if (out == null) return csvPath;
+            in.transferTo(out);
+            out.close();
+            return filtered;
+        } catch (IOException | RuntimeException ex) {
+            if (out != null) out.close();
+            if (filtered != null) Files.deleteIfExists(filtered);
+            throw ex;
+        }
+    }
+
+    /*
+     * Summary delta of a native load: read the loaded file again and add each row. The
+     * server may have skipped rows (LOAD DATA drops duplicate keys with a warning); when the
+     * counts differ the delta is unknown, so the summary is recomputed instead, in the same
+     * transaction.
+     */
+    private void addLoadedRows(Connection conn, Path source, String tableName, SummaryTables.Delta delta, long loaded)
+            throws IOException, SQLException {
+        long parsed = 0;
+        try (CsvReader reader = CsvReader.open(source, options.getCharset())) {
+            reader.readHeader();
+            while (reader.next()) {
+                parsed++;
+                String key = reader.getString(delta.keyColumn);
+                String value = reader.getString(delta.valueColumn);
+                if (key == null || value == null) continue;
+                delta.add(key, value);
+                if (delta.isFull()) delta.apply(conn);
+            }
+        }
+        if (parsed == loaded) {
+            delta.apply(conn);
+        } else {
+            monitor.notice(tableName, "Native load wrote " + loaded + " of " + parsed + " rows; the server skipped the others");
+            delta.clear();
+            SummaryTables.rebuild(conn, tableName);
+        }
+    }
+
+    private static void copy(InputStream in, long length, OutputStream out) throws IOException {
+        byte[] chunk = new byte[(int) Math.min(length, CsvInput.BUFFER_SIZE)];
+        while (length > 0) {
+            int n = in.read(chunk, 0, (int) Math.min(length, chunk.length));
+            if (n < 0) throw new EOFException("Input ended while copying valid rows");
+            out.write(chunk, 0, n);
+            length -= n;
+        }
+    }
+
+    private static boolean isLocalInfileDisabled(SQLException ex) {
+        for (int code : LOCAL_INFILE_DISABLED) {
+            if (ex.getErrorCode() == code) return true;
+        }
+        return false;
+    }
+
+    /*
+     * INSERT ... VALUES (?,?,...) batches, parsed on the parser thread and bound here.
+     * Without a checkpoint the whole file is one transaction. With one, the import commits
+     * every commitInterval batches (or when the adaptive sizer says so) and records each
+     * commit in the checkpoint. With rules, rejected rows go to the quarantine on the
+     * parser thread and never reach the writer. With a delta, the written rows are added
+     * to the table's summary before each commit.
+     */
+    private long importWithInserts(Connection conn, CsvReader reader, String tableName, String sql, String[] cols,
+                                   ImportCheckpoint checkpoint, RowValidator rules, Quarantine quarantine,
+                                   SummaryTables.Delta delta) throws IOException, SQLException {
+        // typed binders come from DatabaseMetaData, read once per table
+        ColumnBinder[] binders = options.isTypedBinding()
+                ? ColumnBinder.forTable(conn, tableName, cols)
+                : ColumnBinder.strings(cols);
+        AdaptiveBatchSizer sizer = options.isAdaptive() ? new AdaptiveBatchSizer(options.getBatchSize()) : null;
+        int capacity = sizer != null ? AdaptiveBatchSizer.MAX_BATCH : options.getBatchSize();
+        BatchQueue queue = new BatchQueue(binders, capacity, rules, quarantine);
+        if (sizer != null) queue.setTargetRows(sizer.batchSize());
+        // read before the parser thread starts moving the reader
+        long lastOffset = reader.position();
+        parserExecutor.execute(() -> queue.parse(reader));
+
+        long rows = 0;
+        int uncommittedBatches = 0;
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            while (true) {
+                RowBatch batch = queue.takeFilled();
+                if (batch.error != null) throw batch.error;
+                if (monitor.isCancelled()) throw new InterruptedIOException("Import cancelled");
+                bind(ps, batch, binders);
+                DashboardEvents.ImportBatch event = new DashboardEvents.ImportBatch();
+                event.begin();
+                if (delta != null && delta.replacesRows()) subtractReplaced(conn, delta, batch, binders);
+                long t0 = System.nanoTime();
+                if (batch.rows > 0) ps.executeBatch();
+                long executeNanos = System.nanoTime() - t0;
+                if (delta != null) collect(delta, batch, binders);
+                if (sizer != null) {
+                    sizer.record(batch.rows, System.nanoTime() - t0);
+                    queue.setTargetRows(sizer.batchSize());
+                }
+                rows += batch.rows;
+                uncommittedBatches++;
+                boolean commitDue = sizer != null ? sizer.shouldCommit() : uncommittedBatches >= options.getCommitInterval();
+                // without a checkpoint the whole file is one transaction, committed after the last batch
+                boolean commitNow = batch.last || checkpoint != null && commitDue;
+                if (delta != null && (commitNow || delta.isFull())) delta.apply(conn);
+                long commitNanos = 0;
+                if (commitNow) {
+                    long c0 = System.nanoTime();
+                    conn.commit();
+                    commitNanos = System.nanoTime() - c0;
+                    if (checkpoint != null) checkpoint.committed(batch.endOffset, batch.endRecord);
+                    if (sizer != null) sizer.committed();
+                    uncommittedBatches = 0;
+                }
+                long bytes = batch.endOffset - lastOffset;
+                recordBatch(event, tableName, batch.rows, bytes, executeNanos, commitNanos);
+                monitor.batchWritten(tableName, batch.rows, bytes,
+                        sizer != null ? sizer.batchSize() : options.getBatchSize());
+                lastOffset = batch.endOffset;
+                if (batch.last) break;
+                queue.recycle(batch);
+            }
+            return rows;
+        } catch (IOException | SQLException | RuntimeException ex) {
+            queue.stop();
+            conn.rollback();
+            throw ex;
+        } finally {
+            queue.stop();
+            queue.awaitParser();
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    // JFR event and session metrics of one batch; commitNanos is 0 if it wasn't committed
+    private static void recordBatch(DashboardEvents.ImportBatch event, String tableName, int rows, long bytes,
+                                    long executeNanos, long commitNanos) {
+        SessionMetrics.record("Import executeBatch " + tableName, executeNanos);
+        if (commitNanos > 0) SessionMetrics.record("Import commit " + tableName, commitNanos);
+        event.end();
+        if (event.shouldCommit()) {
+            event.table = tableName;
+            event.rows = rows;
+            event.bytes = bytes;
+            event.executeBatchTime = executeNanos;
+            event.commitTime = commitNanos;
+            event.commit();
+        }
+    }
+
+    private static void collect(SummaryTables.Delta delta, RowBatch batch, ColumnBinder[] binders) {
+        int k = delta.keyColumn;
+        int v = delta.valueColumn;
+        int pk = delta.primaryKeyColumn;
+        // an upsert batch that repeats a primary key keeps only its last row with it
+        Map<Object, Integer> lastRow = delta.replacesRows() ? lastRows(batch, binders[pk], pk) : null;
+        for (int r = 0; r < batch.rows; r++) {
+            if (batch.nulls[k][r] || batch.nulls[v][r]) continue;
+            if (lastRow != null && !batch.nulls[pk][r]
+                    && lastRow.get(binders[pk].value(batch.columns[pk], r)) != r) continue;
+            delta.add(binders[k].value(batch.columns[k], r), binders[v].value(batch.columns[v], r));
+        }
+    }
+
+    private static Map<Object, Integer> lastRows(RowBatch batch, ColumnBinder binder, int column) {
+        Map<Object, Integer> last = new HashMap<>();
+        for (int r = 0; r < batch.rows; r++) {
+            if (!batch.nulls[column][r]) last.put(binder.value(batch.columns[column], r), r);
+        }
+        return last;
+    }
+
+    /*
+     * Upsert: take the stored values of the rows this batch is about to replace out of the
+     * delta; collect() then adds the new ones. Runs in the import's transaction, so earlier
+     * batches of the same file are seen.
+     */
+    private static void subtractReplaced(Connection conn, SummaryTables.Delta delta, RowBatch batch,
+                                         ColumnBinder[] binders) throws SQLException {
+        int pk = delta.primaryKeyColumn;
+        for (int from = 0; from < batch.rows; from += LOOKUP_KEYS) {
+            int n = Math.min(LOOKUP_KEYS, batch.rows - from);
+            try (PreparedStatement ps = conn.prepareStatement(delta.currentRowsSql(n))) {
+                for (int i = 0; i < n; i++) {
+                    if (batch.nulls[pk][from + i]) {
+                        ps.setNull(i + 1, binders[pk].sqlType);
+                    } else {
+                        binders[pk].bind(ps, i + 1, batch.columns[pk], from + i);
+                    }
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) delta.subtract(rs.getObject(1), rs.getObject(2));
+                }
+            }
+        }
+    }
+
+    private static void bind(PreparedStatement ps, RowBatch batch, ColumnBinder[] binders) throws SQLException {
+        for (int r = 0; r < batch.rows; r++) {
+            for (int i = 0; i < binders.length; i++) {
+                if (batch.nulls[i][r]) {
+                    ps.setNull(i + 1, binders[i].sqlType);
+                } else {
+                    binders[i].bind(ps, i + 1, batch.columns[i], r);
+                }
+            }
+            ps.addBatch();
+        }
+    }
+
+    // A block of parsed rows stored column by column in the binders' typed buffers.
+    private static final class RowBatch {
+        final Object[] columns;
+        final boolean[][] nulls;
+        int rows;
+        // input position and record count after the last row of this batch
+        long endOffset;
+        long endRecord;
+        boolean last;
+        IOException error;
+
+        RowBatch(ColumnBinder[] binders, int capacity) {
+            columns = new Object[binders.length];
+            nulls = new boolean[binders.length][capacity];
+            for (int i = 0; i < binders.length; i++) columns[i] = binders[i].newBuffer(capacity);
+        }
+    }
+
+    /*
+     * Hand-off between the parser thread and the writer. Batches go parser -> filled -> writer
+     * and back through free, so only QUEUE_DEPTH + 2 batches ever exist.
+     */
+    private final class BatchQueue {
+        private final ColumnBinder[] binders;
+        private final int capacity;
+        // both null when validation is off
+        private final RowValidator rules;
+        private final Quarantine quarantine;
+        // rows per batch the parser should deliver; may be lowered below capacity at any time
+        private volatile int targetRows;
+        private final BlockingQueue<RowBatch> filled = new ArrayBlockingQueue<>(QUEUE_DEPTH + 2);
+        private final BlockingQueue<RowBatch> free = new ArrayBlockingQueue<>(QUEUE_DEPTH + 2);
+        private final AtomicBoolean stopped = new AtomicBoolean();
+        private final CountDownLatch parserDone = new CountDownLatch(1);
+
+        BatchQueue(ColumnBinder[] binders, int capacity, RowValidator rules, Quarantine quarantine) {
+            this.binders = binders;
+            this.capacity = capacity;
+            this.rules = rules;
+            this.quarantine = quarantine;
+            this.targetRows = capacity;
+            for (int i = 0; i < QUEUE_DEPTH + 2; i++) free.add(new RowBatch(binders, capacity));
+        }
+
+        // Runs on the parser thread.
+        void parse(CsvReader reader) {
+            RowBatch batch = null;
+            try {
+                batch = nextFree();
+                while (batch != null && reader.next()) {
+                    // rejected rows never reach nextFree(), so check here as well
+                    if (stopped.get()) return;
+                    if (rules != null) {
+                        String reason = rules.check(reader);
+                        if (reason != null) {
+                            quarantine.reject(reader, reason);
+                            continue;
+                        }
+                    }
+                    readRow(reader, batch, batch.rows);
+                    if (++batch.rows >= targetRows) {
+                        publish(batch, reader);
+                        batch = nextFree();
+                    }
+                }
+                if (batch != null) {
+                    batch.last = true;
+                    publish(batch, reader);
+                }
+            } catch (IOException | RuntimeException ex) {
+                if (batch != null) {
+                    batch.error = ex instanceof IOException ? (IOException) ex : new IOException("Failed to parse CSV", ex);
+                    batch.last = true;
+                    publish(batch, reader);
+                }
+            } finally {
+                parserDone.countDown();
+            }
+        }
+
+        private void readRow(CsvReader reader, RowBatch batch, int row) throws IOException {
+            for (int i = 0; i < binders.length; i++) {
+                boolean isNull = reader.isNull(i);
+                batch.nulls[i][row] = isNull;
+                if (isNull) continue;
+                try {
+                    binders[i].read(reader, i, batch.columns[i], row);
+                } catch (RuntimeException e) {
+                    // NumberFormatException, DateTimeException: report where the bad value is
+                    throw new IOException("Invalid value '" + reader.getString(i) + "' for column "
+                            + binders[i].column + " in record " + reader.recordNumber() + ": " + e.getMessage(), e);
+                }
+            }
+        }
+
+        private RowBatch nextFree() {
+            try {
+                while (!stopped.get()) {
+                    RowBatch b = free.poll(100, TimeUnit.MILLISECONDS);
+                    if (b != null) {
+                        b.rows = 0;
+                        return b;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }
+
+        private void publish(RowBatch batch, CsvReader reader) {
+            batch.endOffset = reader.position();
+            batch.endRecord = reader.recordNumber();
+            // filled has room for every batch in existence, so this never blocks
+            filled.add(batch);
+        }
+
+        /*
+         * The next batch from the parser. Fails instead of waiting forever if the parser has
+         * ended without publishing its last batch (its thread was interrupted while it waited
+         * for a free batch).
+         */
+        RowBatch takeFilled() throws IOException {
+            try {
+                while (true) {
+                    RowBatch batch = filled.poll(100, TimeUnit.MILLISECONDS);
+                    if (batch != null) return batch;
+                    if (parserDone.getCount() == 0) {
+                        // publish() happens before countDown(), so a last batch would be here by now
+                        batch = filled.poll();
+                        if (batch != null) return batch;
+                        throw new IOException("The CSV parser stopped before the end of the input");
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("CSV import interrupted");
+            }
+        }
+
+        void recycle(RowBatch batch) {
+            for (int i = 0; i < binders.length; i++) binders[i].clear(batch.columns[i], batch.rows);
+            free.add(batch);
+        }
+
+        void setTargetRows(int rows) {
+            targetRows = Math.max(1, Math.min(capacity, rows));
+        }
+
+        void stop() {
+            stopped.set(true);
+        }
+
+        void awaitParser() {
+            try {
+                parserDone.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Opens import files, plain or gzip compressed.
+ *
+ * Compression is recognised by the gzip magic bytes, not the file name, so
+ * applicants.csv.gz and a compressed file without the .gz suffix both work.
+ * Compressed files are decompressed while they are read; nothing is staged on disk.
+ * Plain files are opened as a FileChannel, which CsvReader can seek in when it
+ * resumes from a checkpoint. Gzip streams can't seek and are skipped forward instead.
+ */
+public final class CsvInput {
+    static final int BUFFER_SIZE = 1 << 16; // 64 KiB, also the inflater's input buffer
+    private static final int GZIP_MAGIC = 0x1f8b;
+
+    private CsvInput() {
+    }
+
+    public static boolean isGzip(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer head = ByteBuffer.allocate(2);
+            while (head.hasRemaining() && ch.read(head) >= 0) {
+                // keep reading until two bytes or end of file
+            }
+            return head.position() == 2 && (head.getShort(0) & 0xffff) == GZIP_MAGIC;
+        }
+    }
+
+    // Channel over the decompressed bytes
+    public static ReadableByteChannel openChannel(Path path) throws IOException {
+        if (!isGzip(path)) return FileChannel.open(path, StandardOpenOption.READ);
+        return new StreamChannel(openStream(path));
+    }
+
+    // Stream over the decompressed bytes
+    public static InputStream openStream(Path path) throws IOException {
+        InputStream in = Files.newInputStream(path);
+        if (!isGzip(path)) return in;
+        try {
+            return new GZIPInputStream(in, BUFFER_SIZE);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /*
+     * Size of the decompressed content, for progress reporting. For gzip this is the
+     * ISIZE field at the end of the file: the uncompressed length modulo 2^32, which is
+     * exact below 4 GiB and corrected upwards by whole 4 GiB steps beyond that.
+     */
+    public static long contentLength(Path path) throws IOException {
+        long size = Files.size(path);
+        if (size < 18 || !isGzip(path)) return size;
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer tail = ByteBuffer.allocate(4);
+            ch.read(tail, size - 4);
+            long isize = Integer.toUnsignedLong(Integer.reverseBytes(tail.getInt(0)));
+            // CSV text never shrinks when compressed, so a smaller ISIZE has wrapped around
+            while (isize < size) isize += 1L << 32;
+            return isize;
+        }
+    }
+
+    /*
+     * The parser looks for comma, quote, CR and LF as single bytes, which only works for
+     * charsets that encode ASCII as ASCII (UTF-8, ISO-8859-1, windows-1252, ...).
+     */
+    static Charset requireAsciiCompatible(Charset charset) {
+        byte[] probe = ",\"\r\nNULL".getBytes(charset);
+        if (!Arrays.equals(probe, ",\"\r\nNULL".getBytes(StandardCharsets.US_ASCII))) {
+            throw new IllegalArgumentException("CSV import needs an ASCII compatible charset, not " + charset);
+        }
+        return charset;
+    }
+
+    /*
+     * Channels.newChannel(InputStream) copies through an 8 KiB array. This reads straight
+     * into the caller's heap buffer, so each read can fill CsvReader's whole 64 KiB buffer.
+     */
+    private static final class StreamChannel implements ReadableByteChannel {
+        private final InputStream in;
+        private boolean open = true;
+
+        StreamChannel(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            if (!dst.hasArray()) throw new IllegalArgumentException("Heap buffer expected");
+            int n = in.readNBytes(dst.array(), dst.arrayOffset() + dst.position(), dst.remaining());
+            if (n == 0 && dst.hasRemaining()) return -1;
+            dst.position(dst.position() + n);
+            return n;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() throws IOException {
+            open = false;
+            in.close();
+        }
+    }
+}
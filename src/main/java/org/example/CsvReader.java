@@ -0,0 +1,430 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Streaming RFC 4180 CSV reader used by the CSV import.
+ *
+ * The reader works on raw bytes pulled from a channel into one reusable buffer.
+ * Every record is unescaped into a second reusable buffer and exposed as field
+ * slices (start/end offsets), so no String[] or regex is created per row. A field
+ * is only turned into a String when the caller asks for it with getString().
+ *
+ * Supported: quoted fields, doubled quotes ("") inside quotes, commas and line
+ * breaks inside quoted fields, LF and CRLF line endings, a leading UTF-8 BOM.
+ * Unquoted fields are trimmed and an unquoted NULL is reported as SQL NULL, which
+ * matches what the old split(",") based import did. Blank lines are skipped.
+ *
+ * The delimiter, quote and line break bytes are ASCII, so the parser is safe for
+ * UTF-8 and other ASCII compatible charsets; the charset is only used to decode
+ * field values.
+ */
+public final class CsvReader implements Closeable {
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 16; // 64 KiB
+    private static final byte COMMA = ',';
+    private static final byte QUOTE = '"';
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+
+    private final ReadableByteChannel channel;
+    private final Charset charset;
+
+    // input buffer: bytes [pos, limit) have not been parsed yet
+    private final byte[] buf;
+    private final ByteBuffer bufView;
+    private int pos;
+    private int limit;
+    private boolean eof;
+    // number of bytes consumed before buf[0]
+    private long bufferOffset;
+
+    // current record: unescaped field bytes plus per-field slice offsets
+    private byte[] data = new byte[1024];
+    private int dataLen;
+    private int[] fieldStart = new int[16];
+    private int[] fieldEnd = new int[16];
+    private boolean[] fieldQuoted = new boolean[16];
+    private int fieldCount;
+
+    private long recordNumber;
+    private long recordOffset;
+    private boolean started;
+
+    public CsvReader(ReadableByteChannel channel, Charset charset, int bufferSize) {
+        this.channel = channel;
+        this.charset = charset;
+        this.buf = new byte[Math.max(bufferSize, 1024)];
+        this.bufView = ByteBuffer.wrap(buf);
+    }
+
+    public CsvReader(ReadableByteChannel channel) {
+        this(channel, StandardCharsets.UTF_8, DEFAULT_BUFFER_SIZE);
+    }
+
+    /** Open a CSV file, plain or gzip compressed, as UTF-8. */
+    public static CsvReader open(Path path) throws IOException {
+        return open(path, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Open a CSV file, plain or gzip compressed (see CsvInput), decoding values with
+     * the given charset. The charset must encode ASCII as single ASCII bytes.
+     */
+    public static CsvReader open(Path path, Charset charset) throws IOException {
+        return new CsvReader(CsvInput.openChannel(path), CsvInput.requireAsciiCompatible(charset), DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Read the next record. Returns false at end of input.
+     * After a successful call the field accessors describe that record.
+     */
+    public boolean next() throws IOException {
+        if (!started) {
+            started = true;
+            skipBom();
+        }
+        while (true) {
+            fieldCount = 0;
+            dataLen = 0;
+            if (pos >= limit && !fill()) return false;
+            recordOffset = bufferOffset + pos;
+
+            boolean endOfRecord = false;
+            while (!endOfRecord) {
+                endOfRecord = readField();
+            }
+            // a line with nothing on it is not a record
+            if (fieldCount == 1 && fieldEnd[0] == fieldStart[0] && !fieldQuoted[0]) continue;
+            recordNumber++;
+            return true;
+        }
+    }
+
+    /**
+     * Read the next record and return its fields as Strings. Meant for the header
+     * row only; data rows should use the slice accessors.
+     */
+    public String[] readHeader() throws IOException {
+        if (!next()) return null;
+        String[] names = new String[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            names[i] = new String(data, fieldStart[i], fieldEnd[i] - fieldStart[i], charset);
+        }
+        return names;
+    }
+
+    /** Number of fields in the current record. */
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /** True if field i is missing or is an unquoted NULL. */
+    public boolean isNull(int i) {
+        if (i >= fieldCount) return true;
+        if (fieldQuoted[i]) return false;
+        int s = fieldStart[i];
+        return fieldEnd[i] - s == 4
+                && (data[s] | 0x20) == 'n'
+                && (data[s + 1] | 0x20) == 'u'
+                && (data[s + 2] | 0x20) == 'l'
+                && (data[s + 3] | 0x20) == 'l';
+    }
+
+    /** Value of field i, or null if the field is missing or NULL. */
+    public String getString(int i) {
+        if (isNull(i)) return null;
+        return new String(data, fieldStart[i], fieldEnd[i] - fieldStart[i], charset);
+    }
+
+    /** Length in bytes of field i (0 if missing). */
+    public int length(int i) {
+        return i < fieldCount ? fieldEnd[i] - fieldStart[i] : 0;
+    }
+
+    /**
+     * Parse field i as a decimal int straight from the field bytes.
+     * Throws NumberFormatException for anything that is not an optionally signed integer.
+     */
+    public int getInt(int i) {
+        long v = getLong(i);
+        if (v < Integer.MIN_VALUE || v > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Value out of int range in column " + (i + 1) + ": " + getString(i));
+        }
+        return (int) v;
+    }
+
+    /** Parse field i as a decimal long straight from the field bytes. */
+    public long getLong(int i) {
+        int s = i < fieldCount ? fieldStart[i] : 0;
+        int e = i < fieldCount ? fieldEnd[i] : 0;
+        if (s == e) throw new NumberFormatException("Empty numeric value in column " + (i + 1));
+        boolean negative = false;
+        if (data[s] == '-' || data[s] == '+') {
+            negative = data[s] == '-';
+            s++;
+            if (s == e) throw new NumberFormatException("Invalid number in column " + (i + 1) + ": " + getString(i));
+        }
+        if (e - s > 18) throw new NumberFormatException("Number too long in column " + (i + 1) + ": " + getString(i));
+        long v = 0;
+        for (int p = s; p < e; p++) {
+            int d = data[p] - '0';
+            if (d < 0 || d > 9) {
+                throw new NumberFormatException("Invalid number in column " + (i + 1) + ": " + getString(i));
+            }
+            v = v * 10 + d;
+        }
+        return negative ? -v : v;
+    }
+
+    /**
+     * Parse field i as an ISO date (yyyy-MM-dd) and return it as a day count since 1970-01-01.
+     * Throws DateTimeException for malformed or impossible dates.
+     */
+    public long getEpochDay(int i) {
+        int s = i < fieldCount ? fieldStart[i] : 0;
+        int e = i < fieldCount ? fieldEnd[i] : 0;
+        if (e - s != 10 || data[s + 4] != '-' || data[s + 7] != '-') {
+            throw new DateTimeException("Invalid date in column " + (i + 1) + " (expected yyyy-MM-dd): " + getString(i));
+        }
+        int year = digits(s, 4, i);
+        int month = digits(s + 5, 2, i);
+        int day = digits(s + 8, 2, i);
+        return LocalDate.of(year, month, day).toEpochDay();
+    }
+
+    private int digits(int from, int count, int field) {
+        int v = 0;
+        for (int p = from; p < from + count; p++) {
+            int d = data[p] - '0';
+            if (d < 0 || d > 9) throw new DateTimeException("Invalid date in column " + (field + 1) + ": " + getString(field));
+            v = v * 10 + d;
+        }
+        return v;
+    }
+
+    /** Hash of the bytes of field i, for lookups that should not create a String. */
+    public int fieldHash(int i) {
+        int h = 1;
+        for (int p = fieldStart[i], e = fieldEnd[i]; p < e; p++) h = 31 * h + data[p];
+        return h;
+    }
+
+    /** True if field i holds exactly the given bytes. */
+    public boolean fieldEquals(int i, byte[] bytes) {
+        int s = fieldStart[i];
+        return Arrays.equals(data, s, fieldEnd[i], bytes, 0, bytes.length);
+    }
+
+    /** 64-bit fingerprint of field i for FingerprintSet, optionally ignoring ASCII case. */
+    public long fieldFingerprint(int i, boolean ignoreCase) {
+        return FingerprintSet.hash(data, fieldStart[i], fieldEnd[i], ignoreCase);
+    }
+
+    /** Copy of the bytes of field i. */
+    public byte[] fieldBytes(int i) {
+        return Arrays.copyOfRange(data, fieldStart[i], fieldEnd[i]);
+    }
+
+    /** 1-based number of the current record, counting the header. */
+    public long recordNumber() {
+        return recordNumber;
+    }
+
+    /** Byte offset in the input where the current record starts. */
+    public long recordOffset() {
+        return recordOffset;
+    }
+
+    /** Number of input bytes consumed so far (offset of the next record). */
+    public long position() {
+        return bufferOffset + pos;
+    }
+
+    /**
+     * Continue reading at the given byte offset, which must be the start of a record
+     * (a value previously returned by position()). recordsBefore is the record count up
+     * to that point, so recordNumber() stays meaningful after a resume. Seekable channels
+     * jump directly; other channels read and discard up to the offset.
+     */
+    public void skipTo(long offset, long recordsBefore) throws IOException {
+        if (offset < position()) throw new IOException("Cannot skip backwards to byte " + offset);
+        started = true;
+        if (channel instanceof SeekableByteChannel) {
+            ((SeekableByteChannel) channel).position(offset);
+            bufferOffset = offset;
+            pos = 0;
+            limit = 0;
+        } else {
+            while (position() < offset) {
+                if (pos >= limit && !fill()) throw new IOException("Input ends before byte " + offset);
+                pos += (int) Math.min(limit - pos, offset - position());
+            }
+        }
+        recordNumber = recordsBefore;
+    }
+
+    public Charset charset() {
+        return charset;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // Parse one field starting at pos. Returns true when the field ended the record.
+    private boolean readField() throws IOException {
+        ensureFieldCapacity();
+        int idx = fieldCount++;
+        // skip leading blanks so that  a, "b"  is read as a quoted field
+        while (true) {
+            if (pos >= limit && !fill()) break;
+            byte b = buf[pos];
+            if (b != ' ' && b != '\t') break;
+            pos++;
+        }
+        fieldStart[idx] = dataLen;
+        if (pos < limit && buf[pos] == QUOTE) {
+            pos++;
+            fieldQuoted[idx] = true;
+            readQuoted();
+            fieldEnd[idx] = dataLen;
+            // anything between the closing quote and the delimiter is tolerated and dropped
+            return readUnquoted(idx, false);
+        }
+        fieldQuoted[idx] = false;
+        return readUnquoted(idx, true);
+    }
+
+    // Copy bytes up to the next delimiter or line break. Returns true at end of record.
+    private boolean readUnquoted(int idx, boolean trim) throws IOException {
+        while (true) {
+            if (pos >= limit && !fill()) {
+                finishUnquoted(idx, trim);
+                return true;
+            }
+            int start = pos;
+            int p = pos;
+            int end = limit;
+            byte[] b = buf;
+            while (p < end) {
+                byte c = b[p];
+                if (c == COMMA || c == LF || c == CR) break;
+                p++;
+            }
+            if (p > start) append(b, start, p - start);
+            pos = p;
+            if (p < end) {
+                byte c = b[p];
+                pos++;
+                finishUnquoted(idx, trim);
+                if (c == COMMA) return false;
+                if (c == CR) {
+                    if (pos >= limit) fill();
+                    if (pos < limit && buf[pos] == LF) pos++;
+                }
+                return true;
+            }
+        }
+    }
+
+    private void finishUnquoted(int idx, boolean trim) {
+        int end = dataLen;
+        if (trim) {
+            while (end > fieldStart[idx] && (data[end - 1] == ' ' || data[end - 1] == '\t')) end--;
+            dataLen = end;
+            fieldEnd[idx] = end;
+        } else {
+            // drop trailing junk after a closing quote but keep the quoted value itself
+            dataLen = fieldEnd[idx];
+        }
+    }
+
+    // Copy a quoted field body, unescaping "" to ". The opening quote is already consumed.
+    private void readQuoted() throws IOException {
+        while (true) {
+            if (pos >= limit && !fill()) {
+                throw new IOException("Unterminated quoted field in record " + (recordNumber + 1)
+                        + " starting at byte " + recordOffset);
+            }
+            int start = pos;
+            int p = pos;
+            int end = limit;
+            byte[] b = buf;
+            while (p < end && b[p] != QUOTE) p++;
+            if (p > start) append(b, start, p - start);
+            pos = p;
+            if (p == end) continue;
+            pos++; // consume quote
+            if (pos >= limit) fill();
+            if (pos < limit && buf[pos] == QUOTE) {
+                append(buf, pos, 1);
+                pos++;
+                continue;
+            }
+            return;
+        }
+    }
+
+    private void append(byte[] src, int off, int len) {
+        if (dataLen + len > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, dataLen + len));
+        }
+        System.arraycopy(src, off, data, dataLen, len);
+        dataLen += len;
+    }
+
+    private void ensureFieldCapacity() {
+        if (fieldCount == fieldStart.length) {
+            int n = fieldStart.length * 2;
+            fieldStart = Arrays.copyOf(fieldStart, n);
+            fieldEnd = Arrays.copyOf(fieldEnd, n);
+            fieldQuoted = Arrays.copyOf(fieldQuoted, n);
+        }
+    }
+
+    private void skipBom() throws IOException {
+        while (limit - pos < 3 && !eof) {
+            if (!fill()) break;
+        }
+        if (limit - pos >= 3 && (buf[pos] & 0xFF) == 0xEF && (buf[pos + 1] & 0xFF) == 0xBB
+                && (buf[pos + 2] & 0xFF) == 0xBF) {
+            pos += 3;
+        }
+    }
+
+    // Read more input, keeping any unparsed bytes. Returns false if nothing new was read.
+    private boolean fill() throws IOException {
+        if (eof) return false;
+        if (pos > 0) {
+            int remaining = limit - pos;
+            System.arraycopy(buf, pos, buf, 0, remaining);
+            bufferOffset += pos;
+            pos = 0;
+            limit = remaining;
+        }
+        if (limit == buf.length) return true; // buffer full of unparsed data
+        bufView.clear();
+        bufView.position(limit);
+        int n;
+        do {
+            n = channel.read(bufView);
+        } while (n == 0);
+        if (n < 0) {
+            eof = true;
+            return false;
+        }
+        limit += n;
+        return true;
+    }
+}
@@ -0,0 +1,153 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.DecimalFormat;
+import java.util.List;
+import java.util.Map;
+
+import org.jfree.chart.ChartFactory;
+import org.jfree.chart.ChartUtils;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.labels.StandardPieSectionLabelGenerator;
+import org.jfree.chart.plot.PiePlot;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.data.category.DefaultCategoryDataset;
+import org.jfree.data.general.DefaultPieDataset;
+
+/**
+ * The dashboard's charts, built from the statistics alone. The dashboard shows them in
+ * ChartPanels; the batch report (Main) renders them to PNG files. A JFreeChart is only
+ * a model plus Java2D drawing code, so this works in a headless JVM.
+ *
+ * The set methods refill the dataset of a chart made here, so the dashboard can keep its
+ * charts across refreshes. The dataset's notifications are held back while it is filled:
+ * every addValue would otherwise make the plot recompute its axes and the chart redraw.
+ */
+public final class DashboardCharts {
+    // category of the rows without a program (applicants without an application)
+    static final String NO_PROGRAM = "(No program)";
+
+    private DashboardCharts() {
+    }
+
+    public static JFreeChart acceptanceRates(List<StatisticsRepository.ProgramRate> rates) {
+        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+        fillAcceptanceRates(dataset, rates);
+        return ChartFactory.createBarChart(
+                "Acceptance Rate per Program",
+                "Program",
+                "Acceptance Rate (%)",
+                dataset,
+                PlotOrientation.VERTICAL,
+                true, true, false
+        );
+    }
+
+    public static JFreeChart averageScores(List<StatisticsRepository.ProgramScore> averages) {
+        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+        fillAverageScores(dataset, averages);
+        return ChartFactory.createBarChart(
+                "Average Exam Score per Program",
+                "Program",
+                "Average Score",
+                dataset,
+                PlotOrientation.VERTICAL,
+                false, true, false
+        );
+    }
+
+    public static JFreeChart genderDistribution(Map<String, Integer> genderCounts) {
+        DefaultPieDataset<String> dataset = new DefaultPieDataset<>();
+        fillGenderDistribution(dataset, genderCounts);
+        JFreeChart chart = ChartFactory.createPieChart(
+                "Gender Distribution",
+                dataset,
+                true, true, false
+        );
+        PiePlot<?> plot = (PiePlot<?>) chart.getPlot();
+        plot.setLabelGenerator(new StandardPieSectionLabelGenerator(
+                "{0}: {1} ({2})",
+                new DecimalFormat("0"),
+                new DecimalFormat("0.0%")
+        ));
+        return chart;
+    }
+
+    public static JFreeChart scoreHistogram(ScoreHistogram histogram, int binWidth) {
+        return ChartFactory.createHistogram(
+                "Distribution of Exam Scores",
+                "Score",
+                "Frequency",
+                histogram.toDataset("Exam Scores", binWidth),
+                PlotOrientation.VERTICAL,
+                true, true, false
+        );
+    }
+
+    public static void setAcceptanceRates(JFreeChart chart, List<StatisticsRepository.ProgramRate> rates) {
+        fillAcceptanceRates((DefaultCategoryDataset) chart.getCategoryPlot().getDataset(), rates);
+    }
+
+    public static void setAverageScores(JFreeChart chart, List<StatisticsRepository.ProgramScore> averages) {
+        fillAverageScores((DefaultCategoryDataset) chart.getCategoryPlot().getDataset(), averages);
+    }
+
+    public static void setGenderDistribution(JFreeChart chart, Map<String, Integer> genderCounts) {
+        // genderDistribution() made it with String keys
+        @SuppressWarnings("unchecked")
+        DefaultPieDataset<String> dataset = (DefaultPieDataset<String>) ((PiePlot<?>) chart.getPlot()).getDataset();
+        fillGenderDistribution(dataset, genderCounts);
+    }
+
+    /* The bins stay if the width is the same; only a new width needs a new dataset. */
+    public static void setScoreHistogram(JFreeChart chart, ScoreHistogram histogram, int binWidth) {
+        ScoreHistogram.BinnedDataset dataset = (ScoreHistogram.BinnedDataset) chart.getXYPlot().getDataset();
+        if (dataset.getBinWidth() == binWidth) {
+            dataset.setCounts(histogram);
+        } else {
+            chart.getXYPlot().setDataset(histogram.toDataset("Exam Scores", binWidth));
+        }
+    }
+
+    private static void fillAcceptanceRates(DefaultCategoryDataset dataset, List<StatisticsRepository.ProgramRate> rates) {
+        dataset.setNotify(false);
+        try {
+            dataset.clear();
+            for (StatisticsRepository.ProgramRate r : rates) {
+                dataset.addValue(r.rate(), "Acceptance Rate", r.program() == null ? NO_PROGRAM : r.program());
+            }
+        } finally {
+            dataset.setNotify(true); // fires one change event
+        }
+    }
+
+    private static void fillAverageScores(DefaultCategoryDataset dataset, List<StatisticsRepository.ProgramScore> averages) {
+        dataset.setNotify(false);
+        try {
+            dataset.clear();
+            for (StatisticsRepository.ProgramScore p : averages) {
+                dataset.addValue(p.average(), "Average Score", p.program() == null ? NO_PROGRAM : p.program());
+            }
+        } finally {
+            dataset.setNotify(true);
+        }
+    }
+
+    private static void fillGenderDistribution(DefaultPieDataset<String> dataset, Map<String, Integer> genderCounts) {
+        dataset.setNotify(false);
+        try {
+            dataset.clear();
+            for (Map.Entry<String, Integer> g : genderCounts.entrySet()) {
+                dataset.setValue(g.getKey(), g.getValue());
+            }
+        } finally {
+            dataset.setNotify(true);
+        }
+    }
+
+    /* Render chart into a PNG file of width x height pixels. */
+    public static void writePng(JFreeChart chart, Path file, int width, int height) throws IOException {
+        ChartUtils.saveChartAsPNG(file.toFile(), chart, width, height);
+    }
+}
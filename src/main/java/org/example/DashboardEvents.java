@@ -0,0 +1,88 @@
+package org.example;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/*
+ * JDK Flight Recorder events of the dashboard and the importer, so a slow session can be
+ * looked at without attaching a profiler: start the app with
+ *
+ *   java -XX:StartFlightRecording=filename=admissions.jfr,settings=profile ...
+ *
+ * (or jcmd <pid> JFR.start) and open the recording in JDK Mission Control, where they are
+ * under "University Admissions". Disabled events cost next to nothing. Every event is also
+ * recorded in SessionMetrics for the Metrics tab, whether a recording is running or not.
+ */
+final class DashboardEvents {
+    static final String CATEGORY = "University Admissions";
+
+    private DashboardEvents() {
+    }
+
+    @Name("org.example.Query")
+    @Label("Dashboard Query")
+    @Category(CATEGORY)
+    @Description("One dashboard query: executeQuery() and reading its rows")
+    @StackTrace(false)
+    static final class Query extends Event {
+        @Label("SQL Id")
+        String sqlId;
+
+        @Label("Rows")
+        long rows;
+
+        @Label("Execute Time")
+        @Timespan
+        long executeTime;
+
+        @Label("Fetch Time")
+        @Timespan
+        long fetchTime;
+    }
+
+    @Name("org.example.ImportBatch")
+    @Label("Import Batch")
+    @Category(CATEGORY)
+    @Description("One INSERT batch of a CSV import, and the commit after it if there was one")
+    @StackTrace(false)
+    static final class ImportBatch extends Event {
+        @Label("Table")
+        String table;
+
+        @Label("Rows")
+        long rows;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+
+        @Label("Execute Batch Time")
+        @Timespan
+        long executeBatchTime;
+
+        @Label("Commit Time")
+        @Description("0 when the batch was not followed by a commit")
+        @Timespan
+        long commitTime;
+    }
+
+    @Name("org.example.TabLoad")
+    @Label("Tab Load")
+    @Category(CATEGORY)
+    @Description("Loading one dashboard tab: from starting its queries to its content on screen")
+    @StackTrace(false)
+    static final class TabLoad extends Event {
+        @Label("Tab")
+        String tab;
+
+        @Label("Refresh")
+        @Description("Count of dashboard refreshes before this load (0: the first load of the window)")
+        long refresh;
+    }
+}
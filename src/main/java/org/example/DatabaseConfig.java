@@ -0,0 +1,104 @@
+package org.example;
+
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+/*
+ * Connection parameters entered in the login dialog.
+ * Keeping them (instead of only the opened Connection) lets the importer and
+ * other background work open additional connections to the same database.
+ *
+ * For the embedded H2 database (type "H2") host and port are not used and the
+ * database is the path of the database file.
+ */
+public class DatabaseConfig {
+    private final String dbType;
+    private final String host;
+    private final String port;
+    private final String database;
+    private final String user;
+    private final String password;
+
+    public DatabaseConfig(String dbType, String host, String port, String database, String user, String password) {
+        this.dbType = dbType == null ? "MySQL" : dbType;
+        this.host = host;
+        this.port = port;
+        this.database = database;
+        this.user = user;
+        this.password = password;
+    }
+
+    public String getDatabase() {
+        return database;
+    }
+
+    public Dialect getDialect() {
+        return Dialect.fromDbType(dbType);
+    }
+
+    // JDBC driver class for the selected database type
+    public String getDriverClass() {
+        switch (dbType) {
+            case "PostgreSQL":
+                return "org.postgresql.Driver";
+            case "MariaDB":
+                return "org.mariadb.jdbc.Driver";
+            case "H2":
+                return "org.h2.Driver";
+            case "MySQL":
+            default:
+                // MySQL Connector/J
+                return "com.mysql.cj.jdbc.Driver";
+        }
+    }
+
+    /*
+     * JDBC URL for the selected database type.
+     * MySQL/MariaDB allow LOAD DATA LOCAL so the native bulk import can stream CSV files.
+     * Batch rewriting lets the drivers send a JDBC batch of INSERTs as multi-row statements
+     * instead of one round trip per row.
+     * H2 runs in the same JVM on a local file. MODE=MySQL accepts the MySQL upserts of the
+     * importer; DATABASE_TO_LOWER keeps the unquoted names lower case, as the metadata
+     * lookups expect.
+     */
+    public String getJdbcUrl() {
+        switch (dbType) {
+            case "PostgreSQL":
+                return String.format("jdbc:postgresql://%s:%s/%s?reWriteBatchedInserts=true", host, port, database);
+            case "MariaDB":
+                return String.format("jdbc:mariadb://%s:%s/%s?allowLocalInfile=true&useBulkStmts=true", host, port, database);
+            case "H2":
+                return String.format("jdbc:h2:file:%s;MODE=MySQL;DATABASE_TO_LOWER=TRUE", embeddedPath());
+            case "MySQL":
+            default:
+                return String.format("jdbc:mysql://%s:%s/%s?useSSL=false&serverTimezone=UTC&allowLoadLocalInfile=true&rewriteBatchedStatements=true", host, port, database);
+        }
+    }
+
+    /*
+     * Load the driver and open a new connection.
+     * ClassNotFoundException means the driver jar is not on the classpath.
+     * A new embedded database gets the schema on its first connection.
+     */
+    public Connection openConnection() throws ClassNotFoundException, SQLException {
+        Class.forName(getDriverClass()); // ensure driver class available
+        Connection conn = DriverManager.getConnection(getJdbcUrl(), user, password);
+        if (getDialect() == Dialect.H2) {
+            try {
+                SchemaInstaller.ensureInstalled(conn);
+            } catch (SQLException e) {
+                conn.close();
+                throw e;
+            }
+        }
+        return conn;
+    }
+
+    // H2 wants an absolute path and adds the .mv.db suffix itself
+    private String embeddedPath() {
+        String path = Paths.get(database).toAbsolutePath().toString();
+        return path.endsWith(".mv.db") ? path.substring(0, path.length() - ".mv.db".length()) : path;
+    }
+}
@@ -6,19 +6,20 @@ import java.awt.*; // GridBagLayout, GridBagConstraints, Insets, EventQueue
 import java.awt.event.*; // ActionEvent, ActionListener
 // JDBC classes
 import java.sql.Connection; // JDBC Connection
-import java.sql.DriverManager; // DriverManager for obtaining connections
 import java.sql.SQLException; // Exception type for SQL errors
-// IO and utilities for CSV import
-import java.io.*; // File, FileReader, BufferedReader, IOException
-import java.util.*; // Collections utilities
-// JDBC helpers for prepared statements and resultsets
-import java.sql.PreparedStatement; // For parameterized INSERTs
-import java.sql.ResultSet; // For reading query results (not used here but imported)
-import java.sql.Statement; // For executing SQL statements (not used here but imported)
+import java.time.Duration; // idle timeout of the connection pool
+// Paths and utilities for CSV import
+import java.io.IOException; // reading CSV file sizes
+import java.nio.charset.Charset; // CSV file encoding
+import java.nio.file.Path; // CSV file locations
+import java.nio.file.Paths; // Paths.get for the text field values
+import java.util.List; // import results (java.util, not java.awt.List)
 
 public class DatabaseLoginLauncher {
     // Program entry point. Launches the Swing UI on the Event Dispatch Thread.
     public static void main(String[] args) {
+        // Log the stack of the EDT whenever it stops responding for a while (see EdtWatchdog)
+        EdtWatchdog.install();
         // Ensure Swing components are created on the EDT
         SwingUtilities.invokeLater(() -> showLoginDialog());
     }
@@ -32,7 +33,8 @@ public class DatabaseLoginLauncher {
         gbc.fill = GridBagConstraints.HORIZONTAL; // make components stretch horizontally
 
         // Dropdown for database type
-        String[] dbTypes = new String[] {"MySQL", "PostgreSQL", "MariaDB"};
+        // H2 is embedded: a local database file, no server needed (the schema is created on first use)
+        String[] dbTypes = new String[] {"MySQL", "PostgreSQL", "MariaDB", "H2"};
         JComboBox<String> dbTypeCombo = new JComboBox<>(dbTypes); // choose driver/url
         // Text fields for connection parameters with sensible defaults
         JTextField hostField = new JTextField("localhost", 20);
@@ -40,6 +42,29 @@ public class DatabaseLoginLauncher {
         JTextField dbNameField = new JTextField("University_admissions", 20);
         JTextField userField = new JTextField("root", 12);
         JPasswordField passwordField = new JPasswordField(12);
+        // Connections the dashboard may hold open; one of them is kept for the import and the dashboard
+        JSpinner poolSizeSpinner = new JSpinner(new SpinnerNumberModel(ConnectionPool.DEFAULT_SIZE, 2, 32, 1));
+        // Database file of the embedded mode, chosen with Browse...
+        JButton browseDbButton = new JButton("Browse...");
+        browseDbButton.setEnabled(false);
+        browseDbButton.addActionListener(e -> {
+            JFileChooser fc = new JFileChooser();
+            fc.setSelectedFile(Paths.get(dbNameField.getText().trim()).toAbsolutePath().toFile());
+            if (fc.showSaveDialog(null) == JFileChooser.APPROVE_OPTION) {
+                dbNameField.setText(fc.getSelectedFile().getAbsolutePath());
+            }
+        });
+        // Host and port mean nothing to the embedded database; its "database" is a file path
+        dbTypeCombo.addActionListener(e -> {
+            boolean embedded = "H2".equals(dbTypeCombo.getSelectedItem());
+            hostField.setEnabled(!embedded);
+            portField.setEnabled(!embedded);
+            browseDbButton.setEnabled(embedded);
+            if (embedded) {
+                dbNameField.setText(Paths.get(System.getProperty("user.home"), "university_admissions").toString());
+                userField.setText("sa");
+            }
+        });
 
         // Place components into grid rows
         int row = 0;
@@ -57,6 +82,7 @@ public class DatabaseLoginLauncher {
         row++;
         gbc.gridx = 0; gbc.gridy = row; panel.add(new JLabel("Database:"), gbc);
         gbc.gridx = 1; panel.add(dbNameField, gbc);
+        gbc.gridx = 2; panel.add(browseDbButton, gbc);
 
         row++;
         gbc.gridx = 0; gbc.gridy = row; panel.add(new JLabel("Username:"), gbc);
@@ -66,6 +92,10 @@ public class DatabaseLoginLauncher {
         gbc.gridx = 0; gbc.gridy = row; panel.add(new JLabel("Password:"), gbc);
         gbc.gridx = 1; panel.add(passwordField, gbc);
 
+        row++;
+        gbc.gridx = 0; gbc.gridy = row; panel.add(new JLabel("Connections:"), gbc);
+        gbc.gridx = 1; panel.add(poolSizeSpinner, gbc);
+
         // Show the dialog and get the user's choice (OK/CANCEL)
         int option = JOptionPane.showConfirmDialog(null, panel, "Database Login",
                 JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
@@ -78,64 +108,57 @@ public class DatabaseLoginLauncher {
             String db = dbNameField.getText().trim(); // database name
             String user = userField.getText().trim(); // username
             String password = new String(passwordField.getPassword()); // password
+            int poolSize = (Integer) poolSizeSpinner.getValue(); // connection pool size
 
-            // Resolve driver class and URL template based on selection
-            String driverClass;
-            String url;
-            switch (dbType) {
-                case "PostgreSQL":
-                    driverClass = "org.postgresql.Driver";
-                    url = String.format("jdbc:postgresql://%s:%s/%s", host, port, db);
-                    break;
-                case "MariaDB":
-                    driverClass = "org.mariadb.jdbc.Driver";
-                    url = String.format("jdbc:mariadb://%s:%s/%s", host, port, db);
-                    break;
-                case "MySQL":
-                default:
-                    // Use MySQL Connector/J driver and a typical JDBC URL
-                    driverClass = "com.mysql.cj.jdbc.Driver";
-                    url = String.format("jdbc:mysql://%s:%s/%s?useSSL=false&serverTimezone=UTC", host, port, db);
-                    break;
-            }
+            // Driver class and URL template are resolved from the selection
+            DatabaseConfig config = new DatabaseConfig(dbType, host, port, db, user, password);
 
-            // Attempt to load the driver and connect
+            // Attempt to load the driver and connect; the dashboard queries borrow from the pool
+            ConnectionPool pool = new ConnectionPool(config, poolSize, Duration.ofMinutes(5));
             Connection conn = null;
             try {
-                Class.forName(driverClass); // ensure driver class available
-                conn = DriverManager.getConnection(url, user, password); // open connection
-            } catch (ClassNotFoundException cnfe) {
-                // Driver jar missing
-                JOptionPane.showMessageDialog(null, "JDBC Driver not found: " + driverClass + "\nPlease add the JDBC driver JAR to the classpath.", "Driver Error", JOptionPane.ERROR_MESSAGE);
-                return;
+                conn = pool.getConnection(); // open connection
             } catch (SQLException sqle) {
-                // Connection failed
-                JOptionPane.showMessageDialog(null, "Failed to connect: " + sqle.getMessage(), "Connection Error", JOptionPane.ERROR_MESSAGE);
+                pool.close();
+                if (sqle.getCause() instanceof ClassNotFoundException) {
+                    // Driver jar missing
+                    JOptionPane.showMessageDialog(null, "JDBC Driver not found: " + config.getDriverClass() + "\nPlease add the JDBC driver JAR to the classpath.", "Driver Error", JOptionPane.ERROR_MESSAGE);
+                } else {
+                    // Connection failed
+                    JOptionPane.showMessageDialog(null, "Failed to connect: " + sqle.getMessage(), "Connection Error", JOptionPane.ERROR_MESSAGE);
+                }
                 return;
             }
 
             // On success: optionally import CSV files, then launch the GUI with the open connection
             final Connection finalConn = conn; // capture for inner runnable
-            SwingUtilities.invokeLater(() -> {
-                try {
-                    showImportDialog(finalConn); // optional CSV import step
-                    UniversityAdmissionsGUI gui = new UniversityAdmissionsGUI(finalConn); // create dashboard with live connection
-                    gui.setVisible(true); // show the dashboard window
-                } catch (Exception e) {
-                    // If anything goes wrong, notify user and close connection
-                    JOptionPane.showMessageDialog(null, "Error launching dashboard: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-                    e.printStackTrace();
-                    try { if (finalConn != null) finalConn.close(); } catch (SQLException ignored) {}
-                }
-            });
+            // The import runs in the background; the dashboard opens once it has finished
+            SwingUtilities.invokeLater(() -> showImportDialog(finalConn, config, () -> launchDashboard(finalConn, pool)));
+        }
+    }
+
+    // the pool lets the dashboard run its queries side by side
+    private static void launchDashboard(Connection conn, ConnectionPool pool) {
+        try {
+            UniversityAdmissionsGUI gui = new UniversityAdmissionsGUI(conn, pool); // create dashboard with live connection
+            gui.setVisible(true); // show the dashboard window
+        } catch (Exception e) {
+            // If anything goes wrong, notify user and close connection
+            JOptionPane.showMessageDialog(null, "Error launching dashboard: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            e.printStackTrace();
+            try { if (conn != null) conn.close(); } catch (SQLException ignored) {}
+            pool.close();
         }
     }
 
     /**
      * Show a small dialog allowing the user to import CSV files into three tables.
      * The CSV must have a header row with column names matching the DB table columns.
+     * The config is used to open extra connections so the child tables load in parallel.
+     * The import runs off the EDT behind a progress dialog; next runs on the EDT afterwards,
+     * or straight away when nothing is imported.
      */
-    private static void showImportDialog(Connection conn) {
+    private static void showImportDialog(Connection conn, DatabaseConfig config, Runnable next) {
         JPanel panel = new JPanel(new GridBagLayout());
         GridBagConstraints gbc = new GridBagConstraints();
         gbc.insets = new Insets(4,4,4,4);
@@ -169,7 +192,7 @@ public class DatabaseLoginLauncher {
         });
 
         int row = 0;
-        gbc.gridx = 0; gbc.gridy = row; panel.add(new JLabel("Applicants CSV:"), gbc);
+        gbc.gridx = 0; gbc.gridy = row; panel.add(new JLabel("Applicants CSV (.csv/.gz):"), gbc);
         gbc.gridx = 1; panel.add(applicantsField, gbc);
         gbc.gridx = 2; panel.add(browseApplicants, gbc);
 
@@ -181,74 +204,95 @@ public class DatabaseLoginLauncher {
         gbc.gridx = 1; panel.add(examScoresField, gbc);
         gbc.gridx = 2; panel.add(browseExam, gbc);
 
+        // How the rows are written: INSERT batches or the database's own bulk loader
+        JComboBox<ImportOptions.LoadStrategy> strategyCombo = new JComboBox<>(ImportOptions.LoadStrategy.values());
+        strategyCombo.setSelectedItem(ImportOptions.LoadStrategy.AUTO);
+        row++; gbc.gridx = 0; gbc.gridy = row; panel.add(new JLabel("Load method:"), gbc);
+        gbc.gridx = 1; panel.add(strategyCombo, gbc);
+
+        // Bulk mode: for full reloads, rebuild the secondary indexes once at the end instead of per row
+        JCheckBox bulkModeBox = new JCheckBox("Bulk mode (suspend indexes and FK checks, rebuild after)");
+        row++; gbc.gridx = 1; gbc.gridy = row; panel.add(bulkModeBox, gbc);
+
+        // Encoding of the CSV files (plain or .gz); the parser needs an ASCII compatible one
+        JComboBox<String> charsetCombo = new JComboBox<>(new String[] {"UTF-8", "ISO-8859-1", "windows-1252"});
+        row++; gbc.gridx = 0; gbc.gridy = row; panel.add(new JLabel("File encoding:"), gbc);
+        gbc.gridx = 1; panel.add(charsetCombo, gbc);
+
+        // Incremental: upsert, commit in chunks, resume an interrupted import of the same file
+        JCheckBox incrementalBox = new JCheckBox("Incremental (upsert, resume from checkpoint)");
+        row++; gbc.gridx = 1; gbc.gridy = row; panel.add(incrementalBox, gbc);
+
+        // Adaptive: grow/shrink batches from measured latency and commit in bounded chunks
+        JCheckBox adaptiveBox = new JCheckBox("Adapt batch size to server latency", true);
+        row++; gbc.gridx = 1; gbc.gridy = row; panel.add(adaptiveBox, gbc);
+
+        // Validate: bad rows go to <file>.rejected.csv instead of aborting the import
+        JCheckBox validateBox = new JCheckBox("Quarantine invalid rows (load the valid ones)", true);
+        row++; gbc.gridx = 1; gbc.gridy = row; panel.add(validateBox, gbc);
+
         int option = JOptionPane.showConfirmDialog(null, panel, "Import CSV data (optional)", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
-        if (option == JOptionPane.OK_OPTION) {
-            // For each non-empty field, attempt import
-            if (!applicantsField.getText().trim().isEmpty()) {
-                importCsvToTable(conn, applicantsField.getText().trim(), "applicants");
-            }
-            if (!applicationsField.getText().trim().isEmpty()) {
-                importCsvToTable(conn, applicationsField.getText().trim(), "applications");
-            }
-            if (!examScoresField.getText().trim().isEmpty()) {
-                importCsvToTable(conn, examScoresField.getText().trim(), "exam_scores");
-            }
+        Path applicants = pathOrNull(applicantsField);
+        Path applications = pathOrNull(applicationsField);
+        Path examScores = pathOrNull(examScoresField);
+        if (option != JOptionPane.OK_OPTION || (applicants == null && applications == null && examScores == null)) {
+            next.run();
+            return;
         }
+
+        // Empty fields are skipped; applicants is loaded before the tables that reference it
+        ImportOptions options = new ImportOptions()
+                .setStrategy((ImportOptions.LoadStrategy) strategyCombo.getSelectedItem())
+                .setIncremental(incrementalBox.isSelected())
+                .setAdaptive(adaptiveBox.isSelected())
+                .setValidate(validateBox.isSelected())
+                .setSuspendIndexes(bulkModeBox.isSelected())
+                .setCharset(Charset.forName((String) charsetCombo.getSelectedItem()));
+        long totalBytes = fileSize(applicants) + fileSize(applications) + fileSize(examScores);
+        ImportProgressDialog progress = new ImportProgressDialog(null, totalBytes);
+        ImportPipeline pipeline = new ImportPipeline(config, conn, options, progress);
+        progress.start(() -> pipeline.run(applicants, applications, examScores), results -> {
+            for (ImportResult result : results) {
+                showImportResult(result, progress.getNotices(result.table()));
+            }
+            next.run();
+        });
     }
 
-    /**
-     * Import a CSV file into the specified table. The CSV's first row must be column names.
-     * This method builds an INSERT statement using the header names and inserts all rows.
-     */
-    private static void importCsvToTable(Connection conn, String csvPath, String tableName) {
-        File f = new File(csvPath);
-        if (!f.exists()) {
-            JOptionPane.showMessageDialog(null, "File not found: " + csvPath, "Import Error", JOptionPane.ERROR_MESSAGE);
-            return;
+    // Decompressed size of an input file for the progress bar, 0 when it is not given or unreadable
+    private static long fileSize(Path path) {
+        if (path == null) return 0;
+        try {
+            return CsvInput.contentLength(path);
+        } catch (IOException e) {
+            return 0;
         }
+    }
 
-        try (BufferedReader br = new BufferedReader(new FileReader(f))) {
-            String header = br.readLine();
-            if (header == null) {
-                JOptionPane.showMessageDialog(null, "Empty CSV file: " + csvPath, "Import Error", JOptionPane.ERROR_MESSAGE);
-                return;
+    private static Path pathOrNull(JTextField field) {
+        String text = field.getText().trim();
+        return text.isEmpty() ? null : Paths.get(text);
+    }
+
+    // Report the outcome of one file the same way for success and failure, with the import's notices
+    private static void showImportResult(ImportResult result, List<String> notices) {
+        String name = result.file().getFileName().toString();
+        if (result.succeeded()) {
+            String message = "Imported " + name + " into table " + result.table()
+                    + String.format(" (%,d rows%s)", result.rows(), result.resumed() ? ", resumed from checkpoint" : "");
+            if (result.rejected() > 0) {
+                message += String.format("\n%,d invalid rows were skipped and written to %s", result.rejected(),
+                        Quarantine.pathFor(result.file()));
             }
-            String[] cols = header.split(",");
-            for (int i = 0; i < cols.length; i++) cols[i] = cols[i].trim();
-
-            String placeholders = String.join(",", Collections.nCopies(cols.length, "?"));
-            String colList = String.join(",", cols);
-            String sql = String.format("INSERT INTO %s (%s) VALUES (%s)", tableName, colList, placeholders);
-
-            conn.setAutoCommit(false);
-            try (PreparedStatement ps = conn.prepareStatement(sql)) {
-                String line;
-                int batch = 0;
-                while ((line = br.readLine()) != null) {
-                    // simple CSV split – does not fully support quoted commas
-                    String[] values = line.split(",");
-                    for (int i = 0; i < cols.length; i++) {
-                        String val = i < values.length ? values[i].trim() : null;
-                        if (val != null && val.equalsIgnoreCase("NULL")) val = null;
-                        ps.setString(i+1, val);
-                    }
-                    ps.addBatch();
-                    batch++;
-                    if (batch % 500 == 0) ps.executeBatch();
-                }
-                if (batch % 500 != 0) ps.executeBatch();
-                conn.commit();
-                JOptionPane.showMessageDialog(null, "Imported " + f.getName() + " into table " + tableName, "Import Complete", JOptionPane.INFORMATION_MESSAGE);
-            } catch (Exception ex) {
-                conn.rollback();
-                JOptionPane.showMessageDialog(null, "Failed to import " + f.getName() + ": " + ex.getMessage(), "Import Error", JOptionPane.ERROR_MESSAGE);
-                ex.printStackTrace();
-            } finally {
-                conn.setAutoCommit(true);
+            for (String notice : notices) {
+                message += "\n" + notice;
             }
-        } catch (IOException | SQLException ex) {
-            JOptionPane.showMessageDialog(null, "Error reading or importing file: " + ex.getMessage(), "Import Error", JOptionPane.ERROR_MESSAGE);
-            ex.printStackTrace();
+            boolean warn = result.rejected() > 0 || !notices.isEmpty();
+            JOptionPane.showMessageDialog(null, message, "Import Complete",
+                    warn ? JOptionPane.WARNING_MESSAGE : JOptionPane.INFORMATION_MESSAGE);
+        } else {
+            JOptionPane.showMessageDialog(null, "Failed to import " + name + ": " + result.error().getMessage(),
+                    "Import Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 }
@@ -0,0 +1,333 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Synthetic admissions data for scale tests: applicants.csv, applications.csv and
+ * exam_scores.csv in the columns of sql/sql schema.txt, ready for the CSV import.
+ *
+ * The rows are valid against the schema. Every application and score references a
+ * generated applicant, the emails are unique, and the genders, statuses and scores are
+ * within the CHECK and ENUM constraints. Cities, programs and genders are skewed like
+ * real intake data. The number of exam subjects per applicant and the overall acceptance
+ * ratio are settings; stronger applicants are more likely to be accepted.
+ *
+ * Applicants are generated in chunks of CHUNK on a thread pool, each chunk with its own
+ * random stream derived from the seed and the chunk number. The chunks are written in
+ * order, so a seed always gives byte-identical files, whatever the number of threads. Only
+ * a few chunks per thread are held in memory, so the size of the output is not limited
+ * by the heap.
+ *
+ * Usage: DatasetGenerator <outDir> <applicants> [seed] [subjects] [acceptanceRatio] [threads]
+ */
+public class DatasetGenerator {
+    public static final String APPLICANTS_FILE = "applicants.csv";
+    public static final String APPLICATIONS_FILE = "applications.csv";
+    public static final String EXAM_SCORES_FILE = "exam_scores.csv";
+
+    // applicants per chunk; part of the output's definition (a different value gives different files)
+    static final int CHUNK = 10_000;
+    // ids are a letter and 9 digits (VARCHAR(10) in the schema)
+    private static final long MAX_ID = 999_999_999L;
+    private static final int MAX_APPLICATIONS = 3;
+
+    private static final String[] CITIES = {"Nairobi", "Mombasa", "Kisumu", "Nakuru", "Eldoret", "Thika",
+            "Nyeri", "Machakos", "Kakamega", "Meru"};
+    private static final double[] CITY_WEIGHTS = {30, 14, 10, 9, 9, 7, 6, 6, 5, 4};
+    private static final String[] PROGRAMS = {"CS", "Business", "Engineering", "Medicine", "Law", "Nursing"};
+    private static final double[] PROGRAM_WEIGHTS = {28, 24, 18, 14, 9, 7};
+    // one, two or three applications
+    private static final double[] APPLICATION_WEIGHTS = {60, 30, 10};
+    private static final int[] YEARS = {2020, 2021, 2022, 2023, 2024};
+    private static final double[] YEAR_WEIGHTS = {12, 16, 20, 24, 28};
+    private static final String[] SUBJECTS = {"Mathematics", "English", "Kiswahili", "Physics", "Chemistry",
+            "Biology", "Geography", "History"};
+    private static final String[] FEMALE_NAMES = {"Mary", "Grace", "Faith", "Mercy", "Esther", "Joy", "Ann",
+            "Jane", "Lucy", "Sarah", "Ruth", "Caroline"};
+    private static final String[] MALE_NAMES = {"John", "Peter", "James", "David", "Brian", "Kevin", "Samuel",
+            "Daniel", "Joseph", "Dennis", "Collins", "Victor"};
+    private static final String[] LAST_NAMES = {"Otieno", "Wanjiru", "Kamau", "Mwangi", "Ochieng", "Njoroge",
+            "Kiprop", "Mutua", "Wambui", "Odhiambo", "Kariuki", "Chebet", "Mohamed", "Achieng", "Kimani", "Njeri"};
+    private static final double FEMALE_SHARE = 0.53;
+    // born between these days, so applicants are 17 to 24 at the 2024 intake
+    private static final long FIRST_DOB = LocalDate.of(2000, 1, 1).toEpochDay();
+    private static final long LAST_DOB = LocalDate.of(2007, 12, 31).toEpochDay();
+
+    private static final double[] CITY_CDF = cumulative(CITY_WEIGHTS);
+    private static final double[] PROGRAM_CDF = cumulative(PROGRAM_WEIGHTS);
+    private static final double[] APPLICATION_CDF = cumulative(APPLICATION_WEIGHTS);
+    private static final double[] YEAR_CDF = cumulative(YEAR_WEIGHTS);
+
+    private final long seed;
+    private int subjects = 4;
+    private double acceptanceRatio = 0.4;
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    public DatasetGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /* Exam scores per applicant, one per subject (1 to 8). */
+    public DatasetGenerator setSubjects(int subjects) {
+        if (subjects < 1 || subjects > SUBJECTS.length) {
+            throw new IllegalArgumentException("Subjects must be 1-" + SUBJECTS.length + ": " + subjects);
+        }
+        this.subjects = subjects;
+        return this;
+    }
+
+    /* Share of the applications that are accepted, on average over all applicants. */
+    public DatasetGenerator setAcceptanceRatio(double acceptanceRatio) {
+        if (acceptanceRatio < 0 || acceptanceRatio > 1) {
+            throw new IllegalArgumentException("Acceptance ratio must be 0-1: " + acceptanceRatio);
+        }
+        this.acceptanceRatio = acceptanceRatio;
+        return this;
+    }
+
+    /* Generator threads; does not change the output. */
+    public DatasetGenerator setThreads(int threads) {
+        if (threads < 1) throw new IllegalArgumentException("Threads must be positive: " + threads);
+        this.threads = threads;
+        return this;
+    }
+
+    /* Rows written per file. */
+    public record Counts(long applicants, long applications, long examScores) {
+        public long total() {
+            return applicants + applications + examScores;
+        }
+    }
+
+    /* Write the three CSV files for applicants applicants into dir, replacing existing files. */
+    public Counts generate(Path dir, long applicants) throws IOException {
+        if (applicants < 1) throw new IllegalArgumentException("Applicants must be positive: " + applicants);
+        if (applicants * Math.max(MAX_APPLICATIONS, subjects) > MAX_ID) {
+            throw new IllegalArgumentException("Too many applicants for 10 character ids: " + applicants);
+        }
+        Files.createDirectories(dir);
+        long chunks = (applicants + CHUNK - 1) / CHUNK;
+        long applications = 0;
+        long scores = 0;
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "dataset-generator-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try (OutputStream a = Files.newOutputStream(dir.resolve(APPLICANTS_FILE));
+             OutputStream p = Files.newOutputStream(dir.resolve(APPLICATIONS_FILE));
+             OutputStream s = Files.newOutputStream(dir.resolve(EXAM_SCORES_FILE))) {
+            a.write(ascii("applicant_id,first_name,last_name,dob,gender,email,phone,city\n"));
+            p.write(ascii("application_id,applicant_id,program,admission_year,status\n"));
+            s.write(ascii("score_id,applicant_id,subject,score\n"));
+
+            // chunks are generated ahead in parallel and written in order
+            Deque<Future<Chunk>> pending = new ArrayDeque<>();
+            long next = 0;
+            while (next < chunks || !pending.isEmpty()) {
+                while (next < chunks && pending.size() < threads * 2) {
+                    long chunk = next++;
+                    long first = chunk * CHUNK;
+                    long count = Math.min(CHUNK, applicants - first);
+                    pending.add(executor.submit(() -> chunk(chunk, first, count)));
+                }
+                Chunk done = await(pending.removeFirst());
+                done.applicants.writeTo(a);
+                done.applications.writeTo(p);
+                done.scores.writeTo(s);
+                applications += done.applicationCount;
+                scores += done.scoreCount;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return new Counts(applicants, applications, scores);
+    }
+
+    private static Chunk await(Future<Chunk> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Generating the data failed: " + e.getCause(), e.getCause());
+        }
+    }
+
+    private static final class Chunk {
+        final Buffer applicants = new Buffer(CHUNK * 96);
+        final Buffer applications = new Buffer(CHUNK * 80);
+        final Buffer scores = new Buffer(CHUNK * 160);
+        long applicationCount;
+        long scoreCount;
+    }
+
+    // applicants first .. first + count - 1 (0-based) with their applications and scores
+    private Chunk chunk(long number, long first, long count) {
+        SplittableRandom random = new SplittableRandom(seed ^ (number * 0x9E3779B97F4A7C15L));
+        Chunk c = new Chunk();
+        boolean[] applied = new boolean[PROGRAMS.length];
+        for (long i = first; i < first + count; i++) {
+            // applicant
+            boolean female = random.nextDouble() < FEMALE_SHARE;
+            String firstName = female ? FEMALE_NAMES[random.nextInt(FEMALE_NAMES.length)]
+                    : MALE_NAMES[random.nextInt(MALE_NAMES.length)];
+            String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            Buffer b = c.applicants;
+            b.append('A').appendPadded(i + 1, 9).append(',').append(firstName).append(',').append(lastName).append(',');
+            b.appendDate(random.nextLong(FIRST_DOB, LAST_DOB + 1)).append(',').append(female ? 'F' : 'M').append(',');
+            // the id makes the email unique
+            b.appendLower(firstName).append('.').appendLower(lastName).append('.').appendPadded(i + 1, 9)
+                    .append("@example.com").append(',');
+            b.append("07").appendPadded(random.nextInt(100_000_000), 8).append(',');
+            b.append(CITIES[pick(random, CITY_CDF)]).append('\n');
+
+            // scores: an ability per applicant plus noise per subject
+            double ability = 60 + random.nextGaussian() * 12;
+            for (int s = 0; s < subjects; s++) {
+                long score = Math.round(Math.max(0, Math.min(100, ability + random.nextGaussian() * 8)));
+                c.scores.append('S').appendPadded(i * subjects + s + 1, 9).append(',')
+                        .append('A').appendPadded(i + 1, 9).append(',')
+                        .append(SUBJECTS[s]).append(',').appendPadded(score, 1).append('\n');
+            }
+            c.scoreCount += subjects;
+
+            // applications to different programs; better applicants are accepted more often
+            double accept = Math.max(0, Math.min(1, acceptanceRatio + (ability - 60) / 100));
+            int n = pick(random, APPLICATION_CDF) + 1;
+            Arrays.fill(applied, false);
+            for (int k = 0; k < n; k++) {
+                int program = pick(random, PROGRAM_CDF);
+                while (applied[program]) program = (program + 1) % PROGRAMS.length;
+                applied[program] = true;
+                String status = random.nextDouble() < accept ? "Accepted"
+                        : random.nextDouble() < 0.15 ? "Pending" : "Rejected";
+                c.applications.append('P').appendPadded(i * MAX_APPLICATIONS + k + 1, 9).append(',')
+                        .append('A').appendPadded(i + 1, 9).append(',')
+                        .append(PROGRAMS[program]).append(',').appendPadded(YEARS[pick(random, YEAR_CDF)], 4).append(',')
+                        .append(status).append('\n');
+            }
+            c.applicationCount += n;
+        }
+        return c;
+    }
+
+    private static int pick(SplittableRandom random, double[] cdf) {
+        double r = random.nextDouble();
+        for (int i = 0; i < cdf.length - 1; i++) {
+            if (r < cdf[i]) return i;
+        }
+        return cdf.length - 1;
+    }
+
+    private static double[] cumulative(double[] weights) {
+        double total = 0;
+        for (double w : weights) total += w;
+        double[] cdf = new double[weights.length];
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            cdf[i] = sum / total;
+        }
+        return cdf;
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /*
+     * Growable ASCII byte buffer; all generated text is ASCII, so there is no encoder.
+     * Numbers are written digit by digit instead of through String.format.
+     */
+    private static final class Buffer {
+        private byte[] bytes;
+        private int size;
+
+        Buffer(int capacity) {
+            bytes = new byte[capacity];
+        }
+
+        Buffer append(char c) {
+            ensure(1);
+            bytes[size++] = (byte) c;
+            return this;
+        }
+
+        Buffer append(String s) {
+            ensure(s.length());
+            for (int i = 0; i < s.length(); i++) bytes[size++] = (byte) s.charAt(i);
+            return this;
+        }
+
+        Buffer appendLower(String s) {
+            ensure(s.length());
+            for (int i = 0; i < s.length(); i++) bytes[size++] = (byte) Character.toLowerCase(s.charAt(i));
+            return this;
+        }
+
+        // value in at least width digits, zero padded
+        Buffer appendPadded(long value, int width) {
+            int digits = 1;
+            for (long v = value / 10; v > 0; v /= 10) digits++;
+            int length = Math.max(width, digits);
+            ensure(length);
+            for (int i = size + length - 1; i >= size; i--) {
+                bytes[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            size += length;
+            return this;
+        }
+
+        // yyyy-MM-dd
+        Buffer appendDate(long epochDay) {
+            LocalDate date = LocalDate.ofEpochDay(epochDay);
+            return appendPadded(date.getYear(), 4).append('-').appendPadded(date.getMonthValue(), 2)
+                    .append('-').appendPadded(date.getDayOfMonth(), 2);
+        }
+
+        void writeTo(OutputStream out) throws IOException {
+            out.write(bytes, 0, size);
+        }
+
+        private void ensure(int more) {
+            if (size + more > bytes.length) bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + more));
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: DatasetGenerator <outDir> <applicants> [seed] [subjects] [acceptanceRatio] [threads]");
+            System.exit(1);
+        }
+        DatasetGenerator generator = new DatasetGenerator(args.length > 2 ? Long.parseLong(args[2]) : 1L);
+        if (args.length > 3) generator.setSubjects(Integer.parseInt(args[3]));
+        if (args.length > 4) generator.setAcceptanceRatio(Double.parseDouble(args[4]));
+        if (args.length > 5) generator.setThreads(Integer.parseInt(args[5]));
+        Path dir = Paths.get(args[0]);
+        long started = System.nanoTime();
+        Counts counts = generator.generate(dir, Long.parseLong(args[1]));
+        double seconds = (System.nanoTime() - started) / 1e9;
+        System.out.printf("%,d applicants, %,d applications, %,d exam scores in %.2f s (%,.0f rows/s) -> %s%n",
+                counts.applicants(), counts.applications(), counts.examScores(), seconds,
+                counts.total() / seconds, dir.toAbsolutePath());
+    }
+}
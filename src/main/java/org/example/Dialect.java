@@ -0,0 +1,48 @@
+package org.example;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/*
+ * SQL dialect of the connected database.
+ * Used wherever the import or the dashboard needs vendor specific SQL.
+ */
+public enum Dialect {
+    MYSQL,
+    MARIADB,
+    POSTGRESQL,
+    // embedded, file backed; run in MySQL compatibility mode (see DatabaseConfig)
+    H2;
+
+    // Map the database type chosen in the login dialog
+    public static Dialect fromDbType(String dbType) {
+        if (dbType == null) return MYSQL;
+        switch (dbType) {
+            case "PostgreSQL":
+                return POSTGRESQL;
+            case "MariaDB":
+                return MARIADB;
+            case "H2":
+                return H2;
+            case "MySQL":
+            default:
+                return MYSQL;
+        }
+    }
+
+    // Work out the dialect from an open connection (when no DatabaseConfig is available)
+    public static Dialect detect(Connection conn) throws SQLException {
+        String product = conn.getMetaData().getDatabaseProductName().toLowerCase();
+        if (product.contains("postgres")) return POSTGRESQL;
+        if (product.contains("mariadb")) return MARIADB;
+        if (product.equals("h2")) return H2;
+        // MariaDB servers reached through Connector/J report themselves as MySQL
+        String version = conn.getMetaData().getDatabaseProductVersion().toLowerCase();
+        if (version.contains("mariadb")) return MARIADB;
+        return MYSQL;
+    }
+
+    public boolean isMySqlFamily() {
+        return this == MYSQL || this == MARIADB;
+    }
+}
@@ -0,0 +1,154 @@
+package org.example;
+
+import javax.swing.*;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.FileHandler;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.logging.SimpleFormatter;
+
+/**
+ * Watches the responsiveness of the Event Dispatch Thread.
+ *
+ * A daemon thread posts a heartbeat to the EDT every PERIOD_MS and times how long it
+ * waits in the queue. Once one has waited STALL_MS, the EDT is stalled: its stack is
+ * captured, together with the dashboard query it is running (see QueryTrace), and
+ * written to a rolling log in the user's home directory
+ * (university-admissions-edt0.log, rotated at 1 MB, 5 files), e.g.
+ *
+ *   EDT stall #3: blocked for 500 ms so far, running query acceptance_rates (started 612 ms ago)
+ *       at java.net.SocketInputStream.socketRead0(Native Method)
+ *       ...
+ *       at org.example.UniversityAdmissionsGUI.refreshData(UniversityAdmissionsGUI.java:448)
+ *   EDT stall #3 ended after 2140 ms
+ *
+ * The heartbeat latency and each stall's length also go to SessionMetrics, so the
+ * Metrics tab shows how many stalls there were, their total and the longest. Nothing is
+ * printed to the console unless the log file cannot be opened; the file is only created
+ * by the first stall.
+ */
+final class EdtWatchdog {
+    static final long PERIOD_MS = 100;
+    static final long STALL_MS = 500;
+    private static final String LOG_PATTERN = "%h/university-admissions-edt%g.log";
+    private static final int LOG_LIMIT = 1024 * 1024;
+    private static final int LOG_COUNT = 5;
+
+    private static final AtomicBoolean installed = new AtomicBoolean();
+    private static final Logger log = Logger.getLogger(EdtWatchdog.class.getName());
+
+    // the EDT as of the last heartbeat (it is replaced after an uncaught exception)
+    private static volatile Thread edt;
+    // the query the EDT is running, set by QueryTrace; null when none
+    private static volatile String edtQuery;
+    private static volatile long edtQueryStarted;
+    // posting time of the heartbeat that has not run yet, 0 if none is waiting
+    private static volatile long pending;
+
+    // guarded by the class lock
+    private static int stalls;
+    private static boolean reported;
+    private static boolean logOpen;
+
+    private EdtWatchdog() {
+    }
+
+    /* Start watching; further calls do nothing. */
+    static void install() {
+        if (!installed.compareAndSet(false, true)) return;
+        Thread t = new Thread(EdtWatchdog::watch, "edt-watchdog");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /* Called by QueryTrace when a query starts or ends; only records queries on the EDT. */
+    static void queryStarted(String sqlId) {
+        if (Thread.currentThread() != edt) return;
+        edtQueryStarted = System.nanoTime();
+        edtQuery = sqlId;
+    }
+
+    static void queryEnded() {
+        if (Thread.currentThread() == edt) edtQuery = null;
+    }
+
+    private static void watch() {
+        while (true) {
+            try {
+                Thread.sleep(PERIOD_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long posted = pending;
+            long now = System.nanoTime();
+            if (posted == 0) {
+                post(now);
+            } else if (now - posted >= STALL_MS * 1_000_000) {
+                synchronized (EdtWatchdog.class) {
+                    // unless the heartbeat has run meanwhile
+                    if (!reported && pending == posted) {
+                        reported = true;
+                        stalls++;
+                        stalled((now - posted) / 1_000_000);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void post(long now) {
+        pending = now;
+        SwingUtilities.invokeLater(() -> {
+            edt = Thread.currentThread();
+            long waited = System.nanoTime() - pending;
+            pending = 0;
+            SessionMetrics.record("EDT heartbeat latency", waited);
+            if (waited >= STALL_MS * 1_000_000) ended(waited);
+        });
+    }
+
+    // On the EDT, when a heartbeat has waited STALL_MS or more
+    private static void ended(long waited) {
+        SessionMetrics.record("EDT stall", waited);
+        synchronized (EdtWatchdog.class) {
+            // one shorter than a period can end before the watchdog has seen it
+            if (!reported) stalls++;
+            reported = false;
+            write(Level.WARNING, "EDT stall #" + stalls + " ended after " + waited / 1_000_000 + " ms", null);
+        }
+    }
+
+    // Holding the class lock
+    private static void stalled(long millis) {
+        Thread t = edt;
+        String query = edtQuery;
+        StringBuilder msg = new StringBuilder("EDT stall #").append(stalls)
+                .append(": blocked for ").append(millis).append(" ms so far");
+        if (query != null) {
+            msg.append(", running query ").append(query).append(" (started ")
+                    .append((System.nanoTime() - edtQueryStarted) / 1_000_000).append(" ms ago)");
+        }
+        StackTraceElement[] stack = t != null ? t.getStackTrace() : new StackTraceElement[0];
+        Throwable trace = new Throwable("Stack of " + (t != null ? t.getName() : "the EDT (not seen yet)"));
+        trace.setStackTrace(stack);
+        write(Level.WARNING, msg.toString(), trace);
+    }
+
+    // Holding the class lock
+    private static void write(Level level, String message, Throwable trace) {
+        if (!logOpen) {
+            logOpen = true;
+            try {
+                FileHandler file = new FileHandler(LOG_PATTERN, LOG_LIMIT, LOG_COUNT, true);
+                file.setFormatter(new SimpleFormatter());
+                log.addHandler(file);
+                log.setUseParentHandlers(false);
+            } catch (IOException | SecurityException e) {
+                // then the console handler gets all of it
+                e.printStackTrace();
+            }
+        }
+        log.log(level, message, trace);
+    }
+}
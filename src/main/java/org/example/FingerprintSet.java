@@ -0,0 +1,96 @@
+package org.example;
+
+import java.nio.charset.Charset;
+
+/*
+ * Set of 64-bit fingerprints of key values (applicant ids, emails).
+ *
+ * Keys are stored as their hash in an open addressing long[] instead of as Strings,
+ * so a million ids take 16 MB and lookups allocate nothing. Two different keys with
+ * the same 64-bit hash are treated as equal; with a million keys the chance of that
+ * happening at all is about 1 in 30 million. The effect of a collision depends on the check:
+ * - references: a row with an unknown applicant passes, and the foreign key on the
+ *   server still rejects it.
+ * - unique: a valid row is taken for a duplicate and goes to the quarantine file, so
+ *   the database never sees it. The quarantine gives the reason, and the row can be
+ *   imported again from there; nothing confirms the duplicate against the exact key.
+ *
+ * Not thread safe for writes. Concurrent contains() calls are fine once filling is done.
+ */
+class FingerprintSet {
+    private static final int MIN_CAPACITY = 1024;
+
+    // 0 marks an empty slot; a real fingerprint of 0 is stored as 1 (see hash)
+    private long[] slots;
+    private int size;
+
+    FingerprintSet() {
+        slots = new long[MIN_CAPACITY];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(long fingerprint) {
+        int mask = slots.length - 1;
+        for (int i = (int) fingerprint & mask; ; i = (i + 1) & mask) {
+            long v = slots[i];
+            if (v == fingerprint) return true;
+            if (v == 0) return false;
+        }
+    }
+
+    // Returns false if the fingerprint was already present
+    boolean add(long fingerprint) {
+        if (size * 2 >= slots.length) grow();
+        int mask = slots.length - 1;
+        for (int i = (int) fingerprint & mask; ; i = (i + 1) & mask) {
+            long v = slots[i];
+            if (v == fingerprint) return false;
+            if (v == 0) {
+                slots[i] = fingerprint;
+                size++;
+                return true;
+            }
+        }
+    }
+
+    private void grow() {
+        long[] old = slots;
+        slots = new long[old.length * 2];
+        int mask = slots.length - 1;
+        for (long v : old) {
+            if (v == 0) continue;
+            int i = (int) v & mask;
+            while (slots[i] != 0) i = (i + 1) & mask;
+            slots[i] = v;
+        }
+    }
+
+    /*
+     * 64-bit hash of bytes[from, to). ignoreCase folds ASCII letters, for databases whose
+     * default collation compares keys case-insensitively (MySQL, MariaDB).
+     */
+    static long hash(byte[] bytes, int from, int to, boolean ignoreCase) {
+        // FNV-1a, then a final avalanche so the low bits are usable as a table index
+        long h = 0xcbf29ce484222325L;
+        for (int p = from; p < to; p++) {
+            int b = bytes[p];
+            if (ignoreCase && b >= 'A' && b <= 'Z') b += 'a' - 'A';
+            h = (h ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h == 0 ? 1 : h;
+    }
+
+    // Same hash as the CSV field bytes of value in the given charset
+    static long hash(String value, Charset charset, boolean ignoreCase) {
+        byte[] bytes = value.getBytes(charset);
+        return hash(bytes, 0, bytes.length, ignoreCase);
+    }
+}
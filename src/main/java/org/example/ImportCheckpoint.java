@@ -0,0 +1,110 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/*
+ * Progress marker for an incremental import, stored next to the CSV as <file>.checkpoint.
+ *
+ * After every commit the importer records the byte offset of the next unimported record,
+ * how many records and batches are committed, and the size and modification time of the
+ * CSV. A later import of the same, unchanged file continues from that offset. If the file
+ * was replaced (different size or timestamp) the checkpoint is ignored.
+ */
+public class ImportCheckpoint {
+    private final Path file;
+    private final String table;
+    private final long fileSize;
+    private final long fileModified;
+    private long offset;
+    private long records;
+    private long batches;
+
+    private ImportCheckpoint(Path file, String table, long fileSize, long fileModified) {
+        this.file = file;
+        this.table = table;
+        this.fileSize = fileSize;
+        this.fileModified = fileModified;
+    }
+
+    // A fresh checkpoint for the current state of csvPath (nothing committed yet)
+    public static ImportCheckpoint start(Path csvPath, String table) throws IOException {
+        return new ImportCheckpoint(checkpointPath(csvPath), table, Files.size(csvPath),
+                Files.getLastModifiedTime(csvPath).toMillis());
+    }
+
+    /*
+     * The saved checkpoint for csvPath, or null if there is none or it belongs to a
+     * different table or a different version of the file.
+     */
+    public static ImportCheckpoint load(Path csvPath, String table) throws IOException {
+        Path cp = checkpointPath(csvPath);
+        if (!Files.exists(cp)) return null;
+        Properties p = new Properties();
+        try (InputStream in = Files.newInputStream(cp)) {
+            p.load(in);
+        }
+        ImportCheckpoint current = start(csvPath, table);
+        try {
+            if (!table.equals(p.getProperty("table"))
+                    || current.fileSize != Long.parseLong(p.getProperty("fileSize"))
+                    || current.fileModified != Long.parseLong(p.getProperty("fileModified"))) {
+                return null;
+            }
+            current.offset = Long.parseLong(p.getProperty("offset"));
+            current.records = Long.parseLong(p.getProperty("records"));
+            current.batches = Long.parseLong(p.getProperty("batches"));
+        } catch (NumberFormatException | NullPointerException e) {
+            // unreadable checkpoint: start over rather than guess
+            return null;
+        }
+        return current;
+    }
+
+    // Record a commit and write the checkpoint (via a temp file, so a crash never leaves half a file)
+    public void committed(long nextOffset, long recordsSoFar) throws IOException {
+        offset = nextOffset;
+        records = recordsSoFar;
+        batches++;
+        Properties p = new Properties();
+        p.setProperty("table", table);
+        p.setProperty("fileSize", Long.toString(fileSize));
+        p.setProperty("fileModified", Long.toString(fileModified));
+        p.setProperty("offset", Long.toString(offset));
+        p.setProperty("records", Long.toString(records));
+        p.setProperty("batches", Long.toString(batches));
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            p.store(out, "CSV import checkpoint");
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // The import finished; nothing left to resume
+    public void delete() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    // Byte offset of the first record that is not committed yet (0 = start after the header)
+    public long getOffset() {
+        return offset;
+    }
+
+    // Number of records (including the header) committed so far
+    public long getRecords() {
+        return records;
+    }
+
+    public long getBatches() {
+        return batches;
+    }
+
+    static Path checkpointPath(Path csvPath) {
+        return csvPath.resolveSibling(csvPath.getFileName() + ".checkpoint");
+    }
+}
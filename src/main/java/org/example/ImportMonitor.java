@@ -0,0 +1,34 @@
+package org.example;
+
+/*
+ * Callback from the importer after every written batch. Lets a progress display follow
+ * the import, tells it when the import had to change its plan, and lets the user cancel it. Implementations must be thread safe: the
+ * child tables are imported on two threads at once.
+ */
+public interface ImportMonitor {
+
+    // Does nothing and never cancels
+    ImportMonitor NONE = new ImportMonitor() {
+        @Override
+        public void batchWritten(String table, int rows, long bytes, int batchSize) {
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+    };
+
+    // rows and bytes are the amounts added by this batch; batchSize is the size now in use
+    void batchWritten(String table, int rows, long bytes, int batchSize);
+
+    // Checked before every batch; true makes the import stop and roll back its open transaction
+    boolean isCancelled();
+
+    /*
+     * The import of table goes on, but not as chosen: e.g. the native load was not available
+     * and the rows are written with INSERT batches instead. Ignored by default.
+     */
+    default void notice(String table, String message) {
+    }
+}
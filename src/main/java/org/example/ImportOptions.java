@@ -0,0 +1,143 @@
+package org.example;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/*
+ * Settings for a CSV import. Defaults match the original importer:
+ * batches of 500 rows through a batched INSERT.
+ */
+public class ImportOptions {
+
+    // How rows get into the table
+    public enum LoadStrategy {
+        // use the native bulk path when the dialect and driver support it, otherwise INSERT batches
+        AUTO("Auto"),
+        // INSERT ... VALUES (?,?,...) with JDBC batches
+        BATCHED_INSERT("Batched INSERT"),
+        // LOAD DATA LOCAL INFILE (MySQL/MariaDB) or COPY ... FROM STDIN (PostgreSQL)
+        NATIVE_BULK("Native bulk load (LOAD DATA / COPY)");
+
+        private final String label;
+
+        LoadStrategy(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    private int batchSize = CsvImporter.DEFAULT_BATCH_SIZE;
+    private LoadStrategy strategy = LoadStrategy.BATCHED_INSERT;
+    private Dialect dialect;
+    // bind INT/DATE columns with setInt/setDate based on DatabaseMetaData instead of setString
+    private boolean typedBinding = true;
+    // upsert, commit every commitInterval batches and keep a resumable checkpoint
+    private boolean incremental;
+    private int commitInterval = 20;
+    // let AdaptiveBatchSizer pick batch size and commit points; implies chunked commits
+    private boolean adaptive;
+    // check rows against the schema constraints first and quarantine the bad ones
+    private boolean validate;
+    // full reload: drop secondary indexes and FK checks during the load, rebuild them after (BulkLoadSchema)
+    private boolean suspendIndexes;
+    // encoding of the CSV files; must be ASCII compatible
+    private Charset charset = StandardCharsets.UTF_8;
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public ImportOptions setBatchSize(int batchSize) {
+        if (batchSize < 1) throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    public LoadStrategy getStrategy() {
+        return strategy;
+    }
+
+    public ImportOptions setStrategy(LoadStrategy strategy) {
+        this.strategy = strategy;
+        return this;
+    }
+
+    // null means detect it from the connection
+    public Dialect getDialect() {
+        return dialect;
+    }
+
+    public ImportOptions setDialect(Dialect dialect) {
+        this.dialect = dialect;
+        return this;
+    }
+
+    public boolean isTypedBinding() {
+        return typedBinding;
+    }
+
+    public ImportOptions setTypedBinding(boolean typedBinding) {
+        this.typedBinding = typedBinding;
+        return this;
+    }
+
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    public ImportOptions setIncremental(boolean incremental) {
+        this.incremental = incremental;
+        return this;
+    }
+
+    // Batches per commit in incremental mode
+    public int getCommitInterval() {
+        return commitInterval;
+    }
+
+    public ImportOptions setCommitInterval(int commitInterval) {
+        if (commitInterval < 1) throw new IllegalArgumentException("Commit interval must be positive: " + commitInterval);
+        this.commitInterval = commitInterval;
+        return this;
+    }
+
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    public ImportOptions setAdaptive(boolean adaptive) {
+        this.adaptive = adaptive;
+        return this;
+    }
+
+    public boolean isValidate() {
+        return validate;
+    }
+
+    public ImportOptions setValidate(boolean validate) {
+        this.validate = validate;
+        return this;
+    }
+
+    public boolean isSuspendIndexes() {
+        return suspendIndexes;
+    }
+
+    public ImportOptions setSuspendIndexes(boolean suspendIndexes) {
+        this.suspendIndexes = suspendIndexes;
+        return this;
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    public ImportOptions setCharset(Charset charset) {
+        this.charset = CsvInput.requireAsciiCompatible(charset);
+        return this;
+    }
+}
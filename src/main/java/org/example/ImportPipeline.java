@@ -0,0 +1,245 @@
+package org.example;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Imports applicants.csv, applications.csv and exam_scores.csv.
+ *
+ * applications and exam_scores both reference applicants(applicant_id), so
+ * applicants is loaded and committed first. The two child tables are then
+ * imported at the same time, each on its own connection and each with its own
+ * parser thread, so a full reload uses several cores and two write streams.
+ * If applicants fails, the child tables are skipped.
+ *
+ * With the suspendIndexes option the tables' secondary indexes and foreign key
+ * checks are taken off for the load and rebuilt once at the end (BulkLoadSchema),
+ * whether the load succeeded or not.
+ *
+ * Afterwards the cached dashboard statistics are marked stale (StatisticsRepository).
+ */
+public class ImportPipeline {
+    private final DatabaseConfig config;
+    private final Connection primary;
+    private final ImportOptions options;
+    private final ImportMonitor monitor;
+    // set while a bulk load runs with the indexes suspended
+    private BulkLoadSchema bulkSchema;
+
+    /*
+     * config is used to open the extra connection for the parallel child table import.
+     * It may be null, in which case everything runs on the primary connection.
+     */
+    public ImportPipeline(DatabaseConfig config, Connection primary, ImportOptions options, ImportMonitor monitor) {
+        this.config = config;
+        this.primary = primary;
+        this.options = options;
+        this.monitor = monitor;
+        if (options.getDialect() == null && config != null) options.setDialect(config.getDialect());
+    }
+
+    public ImportPipeline(DatabaseConfig config, Connection primary, ImportOptions options) {
+        this(config, primary, options, ImportMonitor.NONE);
+    }
+
+    public ImportPipeline(DatabaseConfig config, Connection primary) {
+        this(config, primary, new ImportOptions());
+    }
+
+    /*
+     * Run the import. Any of the paths may be null to skip that table.
+     * Returns one result per requested table in applicants, applications, exam_scores order.
+     */
+    public List<ImportResult> run(Path applicants, Path applications, Path examScores) {
+        if (!options.isSuspendIndexes()) return runImports(applicants, applications, examScores);
+
+        List<String> tables = new ArrayList<>();
+        if (applicants != null) tables.add("applicants");
+        if (applications != null) tables.add("applications");
+        if (examScores != null) tables.add("exam_scores");
+        try {
+            Dialect dialect = options.getDialect() != null ? options.getDialect() : Dialect.detect(primary);
+            if (!BulkLoadSchema.supports(dialect)) return runImports(applicants, applications, examScores);
+            bulkSchema = BulkLoadSchema.suspend(primary, dialect, tables);
+            bulkSchema.prepareSession(primary);
+        } catch (IOException | SQLException e) {
+            e.printStackTrace();
+            SQLException failed = new SQLException("Could not suspend the indexes for the bulk load: " + e.getMessage(), e);
+            if (bulkSchema != null) {
+                // prepareSession failed after the indexes were dropped: put them back
+                try {
+                    bulkSchema.restore(primary);
+                } catch (SQLException restoreFailure) {
+                    failed = new SQLException(failed.getMessage() + "; the indexes could not be rebuilt either ("
+                            + restoreFailure.getMessage() + "), run " + bulkSchema.getRestoreScript() + " to restore them", e);
+                    failed.addSuppressed(restoreFailure);
+                }
+                bulkSchema = null;
+            }
+            return failAll(failed, applicants, applications, examScores);
+        }
+
+        List<ImportResult> results;
+        try {
+            results = runImports(applicants, applications, examScores);
+        } catch (RuntimeException | Error e) {
+            // never leave the tables without their indexes
+            try {
+                bulkSchema.restore(primary);
+            } catch (SQLException restoreFailure) {
+                e.addSuppressed(restoreFailure);
+            }
+            bulkSchema = null;
+            throw e;
+        }
+        try {
+            Map<String, String> violations = bulkSchema.restore(primary);
+            // the rows are committed, but the user has to know they break a foreign key
+            for (int i = 0; i < results.size(); i++) {
+                ImportResult r = results.get(i);
+                String violation = violations.get(r.table());
+                if (violation != null && r.succeeded()) {
+                    results.set(i, new ImportResult(r.table(), r.file(), r.rows(), r.rejected(), r.bytes(),
+                            r.elapsedNanos(), r.resumed(), new SQLException("Rows were loaded, but " + violation)));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            SQLException failed = new SQLException("Indexes could not be rebuilt (" + e.getMessage()
+                    + "); run " + bulkSchema.getRestoreScript() + " to restore them", e);
+            for (int i = 0; i < results.size(); i++) {
+                ImportResult r = results.get(i);
+                results.set(i, new ImportResult(r.table(), r.file(), r.rows(), r.rejected(), r.bytes(),
+                        r.elapsedNanos(), r.resumed(), r.succeeded() ? failed : r.error()));
+            }
+        } finally {
+            bulkSchema = null;
+        }
+        return results;
+    }
+
+    private static List<ImportResult> failAll(Exception error, Path applicants, Path applications, Path examScores) {
+        List<ImportResult> results = new ArrayList<>();
+        if (applicants != null) results.add(ImportResult.failed("applicants", applicants, error));
+        if (applications != null) results.add(ImportResult.failed("applications", applications, error));
+        if (examScores != null) results.add(ImportResult.failed("exam_scores", examScores, error));
+        return results;
+    }
+
+    private List<ImportResult> runImports(Path applicants, Path applications, Path examScores) {
+        List<ImportResult> results = new ArrayList<>();
+        ExecutorService executor = Executors.newCachedThreadPool(daemonThreads());
+        try {
+            CsvImporter importer = new CsvImporter(executor, options, monitor);
+
+            if (applicants != null) {
+                ImportResult parent = importFile(importer, primary, applicants, "applicants");
+                results.add(parent);
+                if (!parent.succeeded()) {
+                    // children would only fail on the foreign key, so don't try
+                    SQLException skipped = new SQLException("Skipped because the applicants import failed");
+                    if (applications != null) results.add(ImportResult.failed("applications", applications, skipped));
+                    if (examScores != null) results.add(ImportResult.failed("exam_scores", examScores, skipped));
+                    return results;
+                }
+            }
+
+            if (applications != null && examScores != null) {
+                results.addAll(importChildrenInParallel(importer, executor, applications, examScores));
+            } else if (applications != null) {
+                results.add(importFile(importer, primary, applications, "applications"));
+            } else if (examScores != null) {
+                results.add(importFile(importer, primary, examScores, "exam_scores"));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+            // even a failed or cancelled import may have committed chunks
+            StatisticsRepository.dataChanged();
+        }
+    }
+
+    private List<ImportResult> importChildrenInParallel(CsvImporter importer, ExecutorService executor,
+                                                        Path applications, Path examScores) {
+        Connection second = openSecondConnection();
+        if (second == null) {
+            // no second connection available: fall back to one after the other
+            List<ImportResult> results = new ArrayList<>();
+            results.add(importFile(importer, primary, applications, "applications"));
+            results.add(importFile(importer, primary, examScores, "exam_scores"));
+            return results;
+        }
+        try {
+            Future<ImportResult> scores = executor.submit(() -> importFile(importer, second, examScores, "exam_scores"));
+            ImportResult apps = importFile(importer, primary, applications, "applications");
+            List<ImportResult> results = new ArrayList<>();
+            results.add(apps);
+            results.add(await(scores, "exam_scores", examScores));
+            return results;
+        } finally {
+            try { second.close(); } catch (SQLException ignored) {}
+        }
+    }
+
+    private Connection openSecondConnection() {
+        if (config == null) return null;
+        try {
+            Connection conn = config.openConnection();
+            if (bulkSchema != null) bulkSchema.prepareSession(conn);
+            return conn;
+        } catch (ClassNotFoundException | SQLException e) {
+            System.err.println("Could not open a second connection, importing sequentially: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private ImportResult importFile(CsvImporter importer, Connection conn, Path file, String table) {
+        if (monitor.isCancelled()) {
+            return ImportResult.failed(table, file, new InterruptedIOException("Import cancelled"));
+        }
+        if (!Files.exists(file)) {
+            return ImportResult.failed(table, file, new FileNotFoundException("File not found: " + file));
+        }
+        try {
+            return importer.importCsvToTable(conn, file, table);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ImportResult.failed(table, file, e);
+        }
+    }
+
+    private static ImportResult await(Future<ImportResult> future, String table, Path file) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ImportResult.failed(table, file, e);
+        } catch (ExecutionException e) {
+            Exception cause = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            return ImportResult.failed(table, file, cause);
+        }
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, "csv-import-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
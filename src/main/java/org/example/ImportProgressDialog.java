@@ -0,0 +1,158 @@
+package org.example;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/*
+ * Progress window for a CSV import running in the background.
+ *
+ * The import itself runs in a SwingWorker, so the Event Dispatch Thread stays free.
+ * The dialog is the import's ImportMonitor: writer threads add to thread safe counters
+ * and a Swing timer turns them into rows/sec, bytes read and an ETA four times a second.
+ * Notices (a strategy that could not be used) are shown below the progress and kept per
+ * table, so they can be reported with the results. Cancel sets a flag that the importer
+ * checks before every batch.
+ */
+public class ImportProgressDialog extends JDialog implements ImportMonitor {
+    private static final int REFRESH_MILLIS = 250;
+
+    private final long totalBytes;
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private volatile String currentTable = "";
+    private volatile int batchSize;
+    private volatile boolean cancelled;
+    private volatile String lastNotice = "";
+    private final Map<String, List<String>> notices = new ConcurrentHashMap<>();
+    private long startNanos;
+
+    private final JProgressBar progressBar = new JProgressBar(0, 1000);
+    private final JLabel tableLabel = new JLabel(" ");
+    private final JLabel rowsLabel = new JLabel(" ");
+    private final JLabel bytesLabel = new JLabel(" ");
+    private final JLabel etaLabel = new JLabel(" ");
+    private final JLabel noticeLabel = new JLabel(" ");
+    private final JButton cancelButton = new JButton("Cancel");
+    private final Timer refreshTimer = new Timer(REFRESH_MILLIS, e -> refresh());
+
+    public ImportProgressDialog(Window owner, long totalBytes) {
+        super(owner, "Importing CSV data", ModalityType.MODELESS);
+        this.totalBytes = Math.max(totalBytes, 1);
+
+        JPanel panel = new JPanel(new GridBagLayout());
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(4, 8, 4, 8);
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        gbc.gridx = 0;
+        gbc.weightx = 1.0;
+
+        progressBar.setStringPainted(true);
+        progressBar.setPreferredSize(new Dimension(420, 22));
+        int row = 0;
+        gbc.gridy = row++; panel.add(tableLabel, gbc);
+        gbc.gridy = row++; panel.add(progressBar, gbc);
+        gbc.gridy = row++; panel.add(rowsLabel, gbc);
+        gbc.gridy = row++; panel.add(bytesLabel, gbc);
+        gbc.gridy = row++; panel.add(etaLabel, gbc);
+        noticeLabel.setForeground(new Color(0xB0, 0x60, 0x00));
+        gbc.gridy = row++; panel.add(noticeLabel, gbc);
+
+        cancelButton.addActionListener(e -> {
+            cancelled = true;
+            cancelButton.setEnabled(false);
+            cancelButton.setText("Cancelling...");
+        });
+        gbc.gridy = row; gbc.fill = GridBagConstraints.NONE; gbc.anchor = GridBagConstraints.EAST;
+        panel.add(cancelButton, gbc);
+
+        setContentPane(panel);
+        setDefaultCloseOperation(DO_NOTHING_ON_CLOSE);
+        pack();
+        setLocationRelativeTo(owner);
+    }
+
+    /*
+     * Show the dialog and run the import task on a background thread.
+     * onDone runs on the EDT with the results once the task has finished.
+     */
+    public void start(Callable<List<ImportResult>> task, Consumer<List<ImportResult>> onDone) {
+        startNanos = System.nanoTime();
+        SwingWorker<List<ImportResult>, Void> worker = new SwingWorker<>() {
+            @Override
+            protected List<ImportResult> doInBackground() throws Exception {
+                return task.call();
+            }
+
+            @Override
+            protected void done() {
+                refreshTimer.stop();
+                dispose();
+                try {
+                    onDone.accept(get());
+                } catch (InterruptedException | ExecutionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    cause.printStackTrace();
+                    JOptionPane.showMessageDialog(null, "Import failed: " + cause.getMessage(), "Import Error", JOptionPane.ERROR_MESSAGE);
+                    onDone.accept(List.of());
+                }
+            }
+        };
+        refreshTimer.start();
+        setVisible(true);
+        worker.execute();
+    }
+
+    @Override
+    public void batchWritten(String table, int rowCount, long byteCount, int currentBatchSize) {
+        rows.add(rowCount);
+        bytes.add(byteCount);
+        currentTable = table;
+        batchSize = currentBatchSize;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public void notice(String table, String message) {
+        notices.computeIfAbsent(table, t -> new CopyOnWriteArrayList<>()).add(message);
+        lastNotice = table + ": " + message;
+    }
+
+    // Notices received for table, in the order they came
+    public List<String> getNotices(String table) {
+        return List.copyOf(notices.getOrDefault(table, List.of()));
+    }
+
+    // Runs on the EDT from the timer
+    private void refresh() {
+        long doneRows = rows.sum();
+        long doneBytes = Math.min(bytes.sum(), totalBytes);
+        double seconds = Math.max((System.nanoTime() - startNanos) / 1e9, 0.001);
+        double bytesPerSecond = doneBytes / seconds;
+
+        tableLabel.setText(currentTable.isEmpty() ? "Starting..." : "Table: " + currentTable
+                + (batchSize > 0 ? String.format("   (batch size %,d)", batchSize) : ""));
+        progressBar.setValue((int) (doneBytes * 1000 / totalBytes));
+        progressBar.setString(String.format("%.1f%%", doneBytes * 100.0 / totalBytes));
+        rowsLabel.setText(String.format("Rows: %,d   (%,.0f rows/s)", doneRows, doneRows / seconds));
+        bytesLabel.setText(String.format("Read: %.1f of %.1f MB", doneBytes / 1048576.0, totalBytes / 1048576.0));
+        if (bytesPerSecond > 0 && doneBytes > 0) {
+            long eta = (long) ((totalBytes - doneBytes) / bytesPerSecond);
+            etaLabel.setText(String.format("Time left: about %d:%02d", eta / 60, eta % 60));
+        } else {
+            etaLabel.setText("Time left: estimating...");
+        }
+        noticeLabel.setText(lastNotice.isEmpty() ? " " : lastNotice);
+    }
+}
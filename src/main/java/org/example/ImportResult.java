@@ -0,0 +1,26 @@
+package org.example;
+
+import java.nio.file.Path;
+
+/*
+ * Outcome of importing one CSV file into one table.
+ * error is null when the file was imported and committed.
+ * resumed is true when an incremental import continued from a checkpoint;
+ * rows then counts only the rows written by this run.
+ * rejected counts the rows validation moved to the quarantine file instead.
+ */
+public record ImportResult(String table, Path file, long rows, long rejected, long bytes, long elapsedNanos,
+                           boolean resumed, Exception error) {
+
+    public static ImportResult failed(String table, Path file, Exception error) {
+        return new ImportResult(table, file, 0, 0, 0, 0, false, error);
+    }
+
+    public boolean succeeded() {
+        return error == null;
+    }
+
+    public double rowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rows / (elapsedNanos / 1e9);
+    }
+}
@@ -0,0 +1,88 @@
+package org.example;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/*
+ * SQL text for the row-by-row import: plain INSERT and the dialect specific upsert.
+ * Table and column names must already be validated identifiers.
+ */
+class ImportSql {
+
+    static String insert(String table, String[] cols) {
+        String placeholders = String.join(",", Collections.nCopies(cols.length, "?"));
+        return String.format("INSERT INTO %s (%s) VALUES (%s)", table, String.join(",", cols), placeholders);
+    }
+
+    /*
+     * INSERT that updates the existing row when the primary key is already there.
+     * Rows whose values did not change are not rewritten: MySQL/MariaDB skip updates that
+     * set the same values, and the PostgreSQL form only updates when something differs.
+     */
+    static String upsert(Dialect dialect, String table, String[] cols, List<String> primaryKey) {
+        if (primaryKey.isEmpty()) {
+            throw new IllegalArgumentException("Table " + table + " has no primary key; cannot upsert");
+        }
+        List<String> updatable = new ArrayList<>();
+        for (String c : cols) {
+            if (!containsIgnoreCase(primaryKey, c)) updatable.add(c);
+        }
+        String insert = insert(table, cols);
+        if (dialect == Dialect.POSTGRESQL) {
+            String conflict = " ON CONFLICT (" + String.join(",", primaryKey) + ")";
+            if (updatable.isEmpty()) return insert + conflict + " DO NOTHING";
+            List<String> sets = new ArrayList<>();
+            List<String> current = new ArrayList<>();
+            List<String> excluded = new ArrayList<>();
+            for (String c : updatable) {
+                sets.add(c + "=EXCLUDED." + c);
+                current.add(table + "." + c);
+                excluded.add("EXCLUDED." + c);
+            }
+            return insert + conflict + " DO UPDATE SET " + String.join(",", sets)
+                    + " WHERE (" + String.join(",", current) + ") IS DISTINCT FROM ("
+                    + String.join(",", excluded) + ")";
+        }
+        // MySQL / MariaDB
+        List<String> sets = new ArrayList<>();
+        for (String c : updatable) sets.add(c + "=VALUES(" + c + ")");
+        if (sets.isEmpty()) sets.add(primaryKey.get(0) + "=" + primaryKey.get(0));
+        return insert + " ON DUPLICATE KEY UPDATE " + String.join(",", sets);
+    }
+
+    // Primary key columns of a table in key order, from DatabaseMetaData
+    static List<String> primaryKey(Connection conn, String table) throws SQLException {
+        DatabaseMetaData md = conn.getMetaData();
+        for (String candidate : new String[] {table, table.toLowerCase(Locale.ROOT), table.toUpperCase(Locale.ROOT)}) {
+            List<String> names = new ArrayList<>();
+            List<Integer> seq = new ArrayList<>();
+            try (ResultSet rs = md.getPrimaryKeys(conn.getCatalog(), null, candidate)) {
+                while (rs.next()) {
+                    names.add(rs.getString("COLUMN_NAME"));
+                    seq.add(rs.getInt("KEY_SEQ"));
+                }
+            }
+            if (!names.isEmpty()) {
+                String[] ordered = new String[names.size()];
+                for (int i = 0; i < names.size(); i++) ordered[seq.get(i) - 1] = names.get(i);
+                List<String> result = new ArrayList<>();
+                Collections.addAll(result, ordered);
+                return result;
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    private static boolean containsIgnoreCase(List<String> list, String value) {
+        for (String s : list) {
+            if (s.equalsIgnoreCase(value)) return true;
+        }
+        return false;
+    }
+}
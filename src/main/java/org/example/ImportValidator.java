@@ -0,0 +1,92 @@
+package org.example;
+
+import java.nio.charset.Charset;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Locale;
+
+/*
+ * Client side validation for a whole import, shared by the three tables.
+ *
+ * Builds a RowValidator per file with the constraints of sql/sql schema.txt: NOT NULL and
+ * column sizes from DatabaseMetaData, gender IN ('M','F'), status ENUM, score 0-100, the
+ * primary keys and applicants.email UNIQUE, and the applicant_id foreign keys. Rows that
+ * would break one of them go to the Quarantine instead of failing the whole transaction.
+ *
+ * The foreign key check uses an index of applicant ids read from the applicants table the
+ * first time a child table needs it. ImportPipeline commits applicants before it starts the
+ * children, so the index includes the applicants that were just imported.
+ */
+public class ImportValidator {
+    private FingerprintSet applicantIds;
+
+    /*
+     * Rules for one file. upsert means existing rows may be updated, so keys already in the
+     * table are allowed; only repeats within the file are rejected then. ignoreCase should
+     * match the database's key comparison (true for the MySQL family's default collation).
+     * charset is the CSV file's, so values read from the database hash like the CSV bytes.
+     */
+    RowValidator forTable(Connection conn, String table, String[] cols, boolean upsert, boolean ignoreCase,
+                          Charset charset) throws SQLException {
+        RowValidator validator = new RowValidator(cols, ColumnBinder.forTable(conn, table, cols), ignoreCase);
+        String name = table.toLowerCase(Locale.ROOT);
+
+        // CHECK and ENUM constraints of the schema
+        int gender = indexOf(cols, "gender");
+        if (name.equals("applicants") && gender >= 0) validator.allowedValues(gender, "M", "F");
+        int status = indexOf(cols, "status");
+        if (name.equals("applications") && status >= 0) validator.allowedValues(status, "Accepted", "Rejected", "Pending");
+        int score = indexOf(cols, "score");
+        if (name.equals("exam_scores") && score >= 0) validator.range(score, 0, 100);
+
+        // foreign keys to applicants
+        int applicantId = indexOf(cols, "applicant_id");
+        if ((name.equals("applications") || name.equals("exam_scores")) && applicantId >= 0) {
+            validator.references(applicantId, applicantIds(conn, ignoreCase, charset), "applicants");
+        }
+
+        // single column primary key and UNIQUE email
+        List<String> pk = ImportSql.primaryKey(conn, table);
+        if (pk.size() == 1 && !upsert) {
+            int col = indexOf(cols, pk.get(0));
+            if (col >= 0) validator.unique(col, existingValues(conn, table, cols[col], ignoreCase, charset));
+        }
+        int email = indexOf(cols, "email");
+        if (name.equals("applicants") && email >= 0) {
+            validator.unique(email, upsert ? new FingerprintSet() : existingValues(conn, table, "email", ignoreCase, charset));
+        }
+        return validator;
+    }
+
+    // Loaded once and then only read, by the two child table parser threads at the same time
+    private synchronized FingerprintSet applicantIds(Connection conn, boolean ignoreCase, Charset charset)
+            throws SQLException {
+        if (applicantIds == null) applicantIds = existingValues(conn, "applicants", "applicant_id", ignoreCase, charset);
+        return applicantIds;
+    }
+
+    private static FingerprintSet existingValues(Connection conn, String table, String column, boolean ignoreCase,
+                                                 Charset charset) throws SQLException {
+        FingerprintSet values = new FingerprintSet();
+        try (Statement st = conn.createStatement()) {
+            st.setFetchSize(10_000);
+            try (ResultSet rs = st.executeQuery("SELECT " + column + " FROM " + table)) {
+                while (rs.next()) {
+                    String v = rs.getString(1);
+                    if (v != null) values.add(FingerprintSet.hash(v, charset, ignoreCase));
+                }
+            }
+        }
+        return values;
+    }
+
+    private static int indexOf(String[] cols, String name) {
+        for (int i = 0; i < cols.length; i++) {
+            if (cols[i].equalsIgnoreCase(name)) return i;
+        }
+        return -1;
+    }
+}
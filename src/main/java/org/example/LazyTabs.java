@@ -0,0 +1,56 @@
+package org.example;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * Tabs whose content is loaded the first time they are selected instead of when the
+ * window is built, so startup only pays for the tab that is visible. Each tab has a
+ * loader, which typically starts background queries and fills the tab when they are
+ * done. Used on the EDT only.
+ */
+class LazyTabs {
+    private final JTabbedPane pane;
+    private final Map<Component, Runnable> loaders = new HashMap<>();
+    private final Set<Component> loaded = new HashSet<>();
+    private boolean started;
+
+    LazyTabs(JTabbedPane pane) {
+        this.pane = pane;
+        pane.addChangeListener(e -> loadSelected());
+    }
+
+    void addTab(String title, Component tab, Runnable loader) {
+        loaders.put(tab, loader);
+        pane.addTab(title, tab);
+    }
+
+    /*
+     * Forget what was loaded and load the selected tab (again); the others follow when
+     * they are selected. The first call also enables loading on selection, so building
+     * the window touches no data.
+     */
+    void reload() {
+        started = true;
+        loaded.clear();
+        loadSelected();
+    }
+
+    /* Load only these tabs again: now if one is selected, the others when selected. */
+    void reload(Collection<? extends Component> tabs) {
+        loaded.removeAll(tabs);
+        loadSelected();
+    }
+
+    private void loadSelected() {
+        if (!started) return;
+        Component tab = pane.getSelectedComponent();
+        Runnable loader = loaders.get(tab);
+        if (loader != null && loaded.add(tab)) loader.run();
+    }
+}
@@ -0,0 +1,78 @@
+package org.example;
+
+import javax.swing.*;
+import java.awt.*;
+
+/*
+ * Tab content that is loaded in the background. Shows a busy indicator until the data
+ * is there, then the content (or the error that stopped it). The methods must be called
+ * on the EDT.
+ */
+class LoadingPanel extends JPanel {
+    private static final String LOADING = "loading";
+    private static final String CONTENT = "content";
+    private static final String ERROR = "error";
+
+    private final CardLayout cards = new CardLayout();
+    private final JPanel content = new JPanel(new BorderLayout());
+    private final JLabel error = new JLabel("", SwingConstants.CENTER);
+    // counts the loads of this panel, so the result of a superseded one can be dropped
+    private int loads;
+
+    // name: the tab's title, for its load times (see TabTrace)
+    LoadingPanel(String name) {
+        setName(name);
+        setLayout(cards);
+
+        JPanel loading = new JPanel(new GridBagLayout());
+        JProgressBar bar = new JProgressBar();
+        bar.setIndeterminate(true);
+        JPanel busy = new JPanel(new BorderLayout(0, 6));
+        busy.add(new JLabel("Loading...", SwingConstants.CENTER), BorderLayout.NORTH);
+        busy.add(bar, BorderLayout.CENTER);
+        loading.add(busy);
+
+        error.setForeground(Color.RED.darker());
+        add(loading, LOADING);
+        add(content, CONTENT);
+        add(error, ERROR);
+        cards.show(this, LOADING);
+    }
+
+    void showLoading() {
+        loads++;
+        cards.show(this, LOADING);
+    }
+
+    /*
+     * Start a load that keeps the current content on screen until it is done. Returns
+     * a ticket for isCurrent(); any earlier ticket (and any load before showLoading())
+     * is then out of date.
+     */
+    int beginLoad() {
+        return ++loads;
+    }
+
+    boolean isCurrent(int ticket) {
+        return ticket == loads;
+    }
+
+    // Replace the content (if c is not already it) and show it
+    void showContent(Component c) {
+        if (content.getComponentCount() != 1 || content.getComponent(0) != c) {
+            content.removeAll();
+            content.add(c, BorderLayout.CENTER);
+            content.revalidate();
+        }
+        cards.show(this, CONTENT);
+    }
+
+    void showError(String message) {
+        error.setText("<html><center>Could not load this view:<br>" + escape(message) + "</center></html>");
+        cards.show(this, ERROR);
+    }
+
+    private static String escape(String s) {
+        return s == null ? "" : s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
@@ -1,17 +1,239 @@
 package org.example;
 
-//TIP To <b>Run</b> code, press <shortcut actionId="Run"/> or
-// click the <icon src="AllIcons.Actions.Execute"/> icon in the gutter.
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*
+ * Headless batch report: the dashboard statistics of one or more databases, and
+ * optionally per admission year, written as CSV and JSON files plus the dashboard
+ * charts as PNG images. Nothing here creates a window, and java.awt.headless is set
+ * before any AWT class is loaded, so this runs on a server without a display.
+ *
+ * Each (database, year) pair is a job with its own connection; jobs run in parallel.
+ * The files of a job go to <outDir>/<db>/ or <outDir>/<db>/<year>/.
+ *
+ * Usage: Main <MySQL|PostgreSQL|MariaDB|H2> <host> <port> <db[,db...]> <user> <password|-> <outDir> [year,year...|all] [topN]
+ *
+ * For the embedded H2 database the host and port are ignored and db is the database file.
+ *
+ * A password of "-" is read from the ADMISSIONS_DB_PASSWORD environment variable, so it
+ * does not have to appear in the process list or a crontab.
+ */
 public class Main {
-    public static void main(String[] args) {
-        //TIP Press <shortcut actionId="ShowIntentionActions"/> with your caret at the highlighted text
-        // to see how IntelliJ IDEA suggests fixing it.
-        System.out.printf("Hello and welcome!");
+    private static final String PASSWORD_ENV = "ADMISSIONS_DB_PASSWORD";
+    private static final int CHART_WIDTH = 800;
+    private static final int CHART_HEIGHT = 400;
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        if (args.length < 7) {
+            System.err.println("Usage: Main <type> <host> <port> <db[,db...]> <user> <password|-> <outDir> [year,year...|all] [topN]");
+            System.exit(1);
+        }
+        String password = args[5].equals("-") ? System.getenv(PASSWORD_ENV) : args[5];
+        if (password == null) {
+            System.err.println(PASSWORD_ENV + " is not set");
+            System.exit(1);
+        }
+        Path outDir = Paths.get(args[6]);
+        List<Integer> years = new ArrayList<>();
+        if (args.length > 7 && !args[7].equalsIgnoreCase("all")) {
+            for (String y : args[7].split(",")) years.add(Integer.parseInt(y.trim()));
+        } else {
+            years.add(null);
+        }
+        int topN = args.length > 8 ? Integer.parseInt(args[8]) : StatisticsRepository.TOP_N;
+
+        List<String> names = new ArrayList<>();
+        List<Future<?>> jobs = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(4, Runtime.getRuntime().availableProcessors()));
+        long start = System.nanoTime();
+        try {
+            for (String db : args[3].split(",")) {
+                DatabaseConfig config = new DatabaseConfig(args[0], args[1], args[2], db.trim(), args[4], password);
+                // the file name only, so an H2 database path does not escape outDir
+                String name = Paths.get(db.trim()).getFileName().toString();
+                for (Integer year : years) {
+                    Path dir = outDir.resolve(name);
+                    if (year != null) dir = dir.resolve(year.toString());
+                    Path target = dir;
+                    names.add(target.toString());
+                    jobs.add(executor.submit(() -> {
+                        report(config, year, topN, target);
+                        return null;
+                    }));
+                }
+            }
+            int failed = 0;
+            for (int i = 0; i < jobs.size(); i++) {
+                try {
+                    jobs.get(i).get();
+                } catch (Exception e) {
+                    failed++;
+                    System.err.println(names.get(i) + ": failed");
+                    (e.getCause() != null ? e.getCause() : e).printStackTrace();
+                }
+            }
+            System.out.printf("%d report(s), %d failed, %d ms%n",
+                    jobs.size(), failed, (System.nanoTime() - start) / 1_000_000);
+            if (failed > 0) System.exit(2);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void report(DatabaseConfig config, Integer year, int topN, Path dir) throws Exception {
+        long start = System.nanoTime();
+        StatisticsRepository.Snapshot s;
+        try (Connection conn = config.openConnection()) {
+            s = StatisticsRepository.load(conn, year, topN);
+        }
+        long queried = System.nanoTime();
+
+        Files.createDirectories(dir);
+        writeCsv(dir, s);
+        writeJson(dir.resolve("report.json"), config.getDatabase(), year, s);
+        DashboardCharts.writePng(DashboardCharts.acceptanceRates(s.acceptanceRates()),
+                dir.resolve("acceptance_rates.png"), CHART_WIDTH, CHART_HEIGHT);
+        DashboardCharts.writePng(DashboardCharts.averageScores(s.averageScores()),
+                dir.resolve("average_scores.png"), CHART_WIDTH, CHART_HEIGHT);
+        DashboardCharts.writePng(DashboardCharts.genderDistribution(s.genderCounts()),
+                dir.resolve("gender_distribution.png"), CHART_WIDTH, CHART_HEIGHT);
+        DashboardCharts.writePng(DashboardCharts.scoreHistogram(s.scoreHistogram(), 10),
+                dir.resolve("score_histogram.png"), CHART_WIDTH, CHART_HEIGHT);
+
+        System.out.printf("%s: queries %d ms, files %d ms%n", dir,
+                (queried - start) / 1_000_000, (System.nanoTime() - queried) / 1_000_000);
+    }
+
+    private static void writeCsv(Path dir, StatisticsRepository.Snapshot s) throws IOException {
+        try (PrintWriter out = writer(dir.resolve("acceptance_rates.csv"))) {
+            out.println("program,accepted,total,acceptance_rate");
+            for (StatisticsRepository.ProgramRate r : s.acceptanceRates()) {
+                out.println(csv(r.program()) + "," + r.accepted() + "," + r.total() + "," + number(r.rate()));
+            }
+        }
+        try (PrintWriter out = writer(dir.resolve("average_scores.csv"))) {
+            out.println("program,average_score");
+            for (StatisticsRepository.ProgramScore p : s.averageScores()) {
+                out.println(csv(p.program()) + "," + number(p.average()));
+            }
+        }
+        try (PrintWriter out = writer(dir.resolve("city_gender.csv"))) {
+            out.println("city,gender,count");
+            for (StatisticsRepository.CityGender cg : s.cityGender()) {
+                out.println(csv(cg.city()) + "," + csv(cg.gender()) + "," + cg.count());
+            }
+        }
+        try (PrintWriter out = writer(dir.resolve("score_histogram.csv"))) {
+            out.println("score,count");
+            for (int score = 0; score <= ScoreHistogram.MAX_SCORE; score++) {
+                out.println(score + "," + s.scoreHistogram().count(score));
+            }
+        }
+        try (PrintWriter out = writer(dir.resolve("top_applicants.csv"))) {
+            out.println("first_name,last_name,average_score");
+            for (StatisticsRepository.ApplicantScore a : s.topApplicants()) {
+                out.println(csv(a.firstName()) + "," + csv(a.lastName()) + "," + number(a.average()));
+            }
+        }
+    }
+
+    private static void writeJson(Path file, String db, Integer year, StatisticsRepository.Snapshot s) throws IOException {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n  \"database\": ").append(json(db))
+                .append(",\n  \"year\": ").append(year == null ? "null" : year.toString());
+
+        json.append(",\n  \"acceptanceRates\": [");
+        String sep = "\n    ";
+        for (StatisticsRepository.ProgramRate r : s.acceptanceRates()) {
+            json.append(sep).append("{\"program\": ").append(json(r.program()))
+                    .append(", \"accepted\": ").append(r.accepted())
+                    .append(", \"total\": ").append(r.total())
+                    .append(", \"rate\": ").append(number(r.rate())).append('}');
+            sep = ",\n    ";
+        }
+        json.append("\n  ],\n  \"averageScores\": [");
+        sep = "\n    ";
+        for (StatisticsRepository.ProgramScore p : s.averageScores()) {
+            json.append(sep).append("{\"program\": ").append(json(p.program()))
+                    .append(", \"average\": ").append(number(p.average())).append('}');
+            sep = ",\n    ";
+        }
+        json.append("\n  ],\n  \"cityGender\": [");
+        sep = "\n    ";
+        for (StatisticsRepository.CityGender cg : s.cityGender()) {
+            json.append(sep).append("{\"city\": ").append(json(cg.city()))
+                    .append(", \"gender\": ").append(json(cg.gender()))
+                    .append(", \"count\": ").append(cg.count()).append('}');
+            sep = ",\n    ";
+        }
+        json.append("\n  ],\n  \"genderCounts\": {");
+        sep = "\n    ";
+        for (Map.Entry<String, Integer> g : s.genderCounts().entrySet()) {
+            json.append(sep).append(json(String.valueOf(g.getKey()))).append(": ").append(g.getValue());
+            sep = ",\n    ";
+        }
+        // counts indexed by score, 0..MAX_SCORE
+        json.append("\n  },\n  \"scoreHistogram\": [");
+        for (int score = 0; score <= ScoreHistogram.MAX_SCORE; score++) {
+            if (score > 0) json.append(", ");
+            json.append(s.scoreHistogram().count(score));
+        }
+        json.append("],\n  \"topApplicants\": [");
+        sep = "\n    ";
+        for (StatisticsRepository.ApplicantScore a : s.topApplicants()) {
+            json.append(sep).append("{\"firstName\": ").append(json(a.firstName()))
+                    .append(", \"lastName\": ").append(json(a.lastName()))
+                    .append(", \"average\": ").append(number(a.average())).append('}');
+            sep = ",\n    ";
+        }
+        json.append("\n  ]\n}\n");
+        Files.writeString(file, json, StandardCharsets.UTF_8);
+    }
+
+    private static PrintWriter writer(Path file) throws IOException {
+        return new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8));
+    }
+
+    // Locale.ROOT so the decimal separator is always a dot
+    private static String number(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    private static String csv(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
 
-        for (int i = 1; i <= 5; i++) {
-            //TIP Press <shortcut actionId="Debug"/> to start debugging your code. We have set one <icon src="AllIcons.Debugger.Db_set_breakpoint"/> breakpoint
-            // for you, but you can always add more by pressing <shortcut actionId="ToggleLineBreakpoint"/>.
-            System.out.println("i = " + i);
+    private static String json(String value) {
+        if (value == null) return "null";
+        StringBuilder sb = new StringBuilder("\"");
+        for (char ch : value.toCharArray()) {
+            switch (ch) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (ch < 0x20) sb.append(String.format("\\u%04x", (int) ch));
+                    else sb.append(ch);
+            }
         }
+        return sb.append('"').toString();
     }
-}
\ No newline at end of file
+}
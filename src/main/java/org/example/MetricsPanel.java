@@ -0,0 +1,114 @@
+package org.example;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.util.List;
+
+/*
+ * The Metrics tab: count and p50/p99/max latency of every query, import batch and tab
+ * load of this session (see SessionMetrics), refreshed every two seconds while the tab
+ * is on screen. The same measurements are JFR events (see DashboardEvents).
+ */
+class MetricsPanel extends JPanel {
+    private static final int REFRESH_MS = 2000;
+    private static final String[] COLUMNS = {"Name", "Count", "p50 (ms)", "p99 (ms)", "Max (ms)", "Total (ms)"};
+
+    private final StatsModel model = new StatsModel();
+    private final javax.swing.Timer timer = new javax.swing.Timer(REFRESH_MS, e -> update());
+
+    MetricsPanel() {
+        super(new BorderLayout());
+        JTable table = new JTable(model);
+        table.setAutoCreateRowSorter(true);
+        table.getColumnModel().getColumn(0).setPreferredWidth(300);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        JButton reset = new JButton("Reset");
+        reset.addActionListener(e -> {
+            SessionMetrics.reset();
+            update();
+        });
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttons.add(new JLabel("Latencies since the session started (or the last reset)"));
+        buttons.add(reset);
+        add(buttons, BorderLayout.SOUTH);
+
+        // up to date the moment the tab is selected
+        addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & java.awt.event.HierarchyEvent.SHOWING_CHANGED) != 0) update();
+        });
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        timer.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        timer.stop();
+        super.removeNotify();
+    }
+
+    // an unselected tab stays displayable (and its timer running), so skip it until shown
+    private void update() {
+        if (isShowing()) model.setStats(SessionMetrics.snapshot());
+    }
+
+    private static final class StatsModel extends AbstractTableModel {
+        private List<SessionMetrics.Stat> stats = List.of();
+
+        void setStats(List<SessionMetrics.Stat> stats) {
+            boolean sameRows = stats.size() == this.stats.size();
+            for (int i = 0; sameRows && i < stats.size(); i++) {
+                sameRows = stats.get(i).name().equals(this.stats.get(i).name());
+            }
+            this.stats = stats;
+            // keeps the selection and sort when only the numbers changed
+            if (sameRows) {
+                if (!stats.isEmpty()) fireTableRowsUpdated(0, stats.size() - 1);
+            } else {
+                fireTableDataChanged();
+            }
+        }
+
+        @Override
+        public int getRowCount() {
+            return stats.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            return column == 0 ? String.class : column == 1 ? Long.class : Double.class;
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            SessionMetrics.Stat s = stats.get(row);
+            return switch (column) {
+                case 0 -> s.name();
+                case 1 -> s.count();
+                case 2 -> millis(s.p50());
+                case 3 -> millis(s.p99());
+                case 4 -> millis(s.max());
+                default -> millis(s.total());
+            };
+        }
+
+        private static double millis(long nanos) {
+            return Math.round(nanos / 10_000.0) / 100.0;
+        }
+    }
+}
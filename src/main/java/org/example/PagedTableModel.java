@@ -0,0 +1,412 @@
+package org.example;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Table model over a whole database table that only holds the rows on screen.
+ *
+ * Rows are read in pages of PAGE_SIZE by keyset pagination on the primary key
+ * (WHERE key >= ? ORDER BY key LIMIT n), so reading a page costs the same at the end
+ * of the table as at the start. To find the page of a row the model keeps the first key
+ * of every page, collected by a background scan of the primary key when the model is
+ * opened; the row count grows as that scan proceeds. That index is one key per page,
+ * everything else is bounded: at most CACHED_PAGES pages are kept (least recently used
+ * first out), and each page stores its cells in one array per column, ints and longs
+ * for numbers and dates instead of boxed values.
+ *
+ * A cell of a page that is not loaded yet reads as null; the page is then loaded in the
+ * background, together with the next page in the scroll direction, and the rows are
+ * repainted when it arrives. When the user scrolls faster than pages load, only the
+ * most recently requested pages are read.
+ *
+ * The data is what the table held when the page was read; reload() starts over.
+ */
+public class PagedTableModel extends AbstractTableModel {
+    static final int PAGE_SIZE = 256;
+    private static final int CACHED_PAGES = 64;
+    // requested pages beyond this are dropped, oldest first
+    private static final int MAX_QUEUED = 8;
+    // primary keys read per query of the key scan
+    private static final int SCAN_CHUNK = 64 * PAGE_SIZE;
+
+    /* The tables that can be browsed. */
+    public enum Source {
+        APPLICANTS("applicants", "applicant_id",
+                new Column("applicant_id", "Applicant", Kind.STRING),
+                new Column("first_name", "First name", Kind.STRING),
+                new Column("last_name", "Last name", Kind.STRING),
+                new Column("dob", "Date of birth", Kind.DATE),
+                new Column("gender", "Gender", Kind.STRING),
+                new Column("email", "Email", Kind.STRING),
+                new Column("phone", "Phone", Kind.STRING),
+                new Column("city", "City", Kind.STRING),
+                new Column("created_at", "Created", Kind.TIMESTAMP)),
+        APPLICATIONS("applications", "application_id",
+                new Column("application_id", "Application", Kind.STRING),
+                new Column("applicant_id", "Applicant", Kind.STRING),
+                new Column("program", "Program", Kind.STRING),
+                new Column("admission_year", "Year", Kind.INT),
+                new Column("status", "Status", Kind.STRING),
+                new Column("created_at", "Created", Kind.TIMESTAMP));
+
+        final String table;
+        final String key;
+        final Column[] columns;
+
+        Source(String table, String key, Column... columns) {
+            this.table = table;
+            this.key = key;
+            this.columns = columns;
+        }
+
+        String pageSql() {
+            StringBuilder sql = new StringBuilder("SELECT ");
+            for (int c = 0; c < columns.length; c++) {
+                if (c > 0) sql.append(", ");
+                sql.append(columns[c].name);
+            }
+            return sql.append(" FROM ").append(table).append(" WHERE ").append(key).append(" >= ? ORDER BY ")
+                    .append(key).append(" LIMIT ").append(PAGE_SIZE).toString();
+        }
+    }
+
+    private enum Kind { STRING, INT, DATE, TIMESTAMP }
+
+    private static final class Column {
+        final String name;
+        final String label;
+        final Kind kind;
+
+        Column(String name, String label, Kind kind) {
+            this.name = name;
+            this.label = label;
+            this.kind = kind;
+        }
+    }
+
+    private final Connection connection;
+    private final ConnectionPool pool;
+    private final Source source;
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "paged-table-loader");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // guarded by this
+    private String[] firstKeys = new String[16]; // first key of every page scanned so far
+    private int rowCount;
+    private boolean scanDone;
+    private int generation;
+    private final Map<Integer, Page> pages = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Page> eldest) {
+            return size() > CACHED_PAGES;
+        }
+    };
+    private final Deque<Integer> wanted = new ArrayDeque<>();
+    private boolean draining;
+    private int lastPage;
+
+    // the EDT's view of the row count, changed only by events
+    private int shownRows;
+    private volatile String error;
+
+    /* connection is used (one query at a time) when pool is null. */
+    public PagedTableModel(Connection connection, ConnectionPool pool, Source source) {
+        this.connection = connection;
+        this.pool = pool;
+        this.source = source;
+    }
+
+    /* Forget all rows and scan the table again. Call on the EDT. */
+    public void reload() {
+        int gen;
+        synchronized (this) {
+            gen = ++generation;
+            firstKeys = new String[16];
+            rowCount = 0;
+            scanDone = false;
+            pages.clear();
+            wanted.clear();
+            error = null;
+        }
+        shownRows = 0;
+        fireTableDataChanged();
+        loader.execute(() -> scanKeys(gen, null));
+    }
+
+    /* The last error of a background read, or null. */
+    public String getError() {
+        return error;
+    }
+
+    public synchronized boolean isScanDone() {
+        return scanDone;
+    }
+
+    @Override
+    public int getRowCount() {
+        return shownRows;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return source.columns.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return source.columns[column].label;
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        switch (source.columns[column].kind) {
+            case INT: return Integer.class;
+            case DATE: return LocalDate.class;
+            case TIMESTAMP: return Timestamp.class;
+            default: return String.class;
+        }
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        int p = row / PAGE_SIZE;
+        Page page;
+        synchronized (this) {
+            page = pages.get(p);
+            if (page == null) {
+                request(p);
+            } else if (p != lastPage) {
+                // prefetch the page the user is scrolling towards
+                int next = p > lastPage ? p + 1 : p - 1;
+                if (next >= 0 && next * PAGE_SIZE < rowCount && !pages.containsKey(next)) request(next);
+            }
+            lastPage = p;
+        }
+        return page == null ? null : page.value(row - p * PAGE_SIZE, column);
+    }
+
+    // guarded by this
+    private void request(int p) {
+        wanted.remove(p);
+        wanted.addFirst(p);
+        while (wanted.size() > MAX_QUEUED) wanted.removeLast();
+        if (!draining) {
+            draining = true;
+            int gen = generation;
+            loader.execute(() -> drain(gen));
+        }
+    }
+
+    // Loader thread: read the wanted pages, most recent request first
+    private void drain(int gen) {
+        while (true) {
+            int p;
+            String firstKey;
+            synchronized (this) {
+                Integer next = wanted.pollFirst();
+                if (next == null || gen != generation) {
+                    draining = false;
+                    return;
+                }
+                p = next;
+                if (pages.containsKey(p) || p * PAGE_SIZE >= rowCount) continue;
+                firstKey = firstKeys[p];
+            }
+            try {
+                Page page = withConnection(c -> readPage(c, firstKey));
+                synchronized (this) {
+                    if (gen != generation) continue;
+                    pages.put(p, page);
+                }
+                int first = p * PAGE_SIZE;
+                SwingUtilities.invokeLater(() -> {
+                    if (first < shownRows) fireTableRowsUpdated(first, Math.min(shownRows, first + PAGE_SIZE) - 1);
+                });
+            } catch (SQLException e) {
+                e.printStackTrace();
+                error = e.getMessage();
+                synchronized (this) {
+                    draining = false;
+                }
+                SwingUtilities.invokeLater(this::fireTableDataChanged);
+                return;
+            }
+        }
+    }
+
+    private Page readPage(Connection c, String firstKey) throws SQLException {
+        Page page = new Page(source.columns);
+        try (QueryTrace trace = QueryTrace.begin(source.table + "/page");
+             PreparedStatement ps = c.prepareStatement(source.pageSql())) {
+            ps.setString(1, firstKey);
+            try (ResultSet rs = ps.executeQuery()) {
+                trace.executed();
+                while (rs.next() && page.size < PAGE_SIZE) page.add(rs);
+            }
+            trace.end(page.size);
+        }
+        return page;
+    }
+
+    /*
+     * Loader thread: read the next chunk of primary keys after 'after' (null: from the
+     * start), keep every PAGE_SIZE-th, and queue the following chunk. Pages requested
+     * meanwhile are read between the chunks, as the loader runs its tasks in order.
+     */
+    private void scanKeys(int gen, String after) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(source.key).append(" FROM ").append(source.table);
+        if (after != null) sql.append(" WHERE ").append(source.key).append(" > ?");
+        sql.append(" ORDER BY ").append(source.key).append(" LIMIT ").append(SCAN_CHUNK);
+        String[] chunk;
+        try {
+            chunk = withConnection(c -> {
+                try (QueryTrace trace = QueryTrace.begin(source.table + "/keys");
+                     PreparedStatement ps = c.prepareStatement(sql.toString())) {
+                    if (after != null) ps.setString(1, after);
+                    String[] keys = new String[SCAN_CHUNK];
+                    int n = 0;
+                    try (ResultSet rs = ps.executeQuery()) {
+                        trace.executed();
+                        while (rs.next() && n < SCAN_CHUNK) keys[n++] = rs.getString(1);
+                    }
+                    trace.end(n);
+                    return Arrays.copyOf(keys, n);
+                }
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+            error = e.getMessage();
+            SwingUtilities.invokeLater(this::fireTableDataChanged);
+            return;
+        }
+        int rows;
+        synchronized (this) {
+            if (gen != generation) return;
+            for (String key : chunk) {
+                if (rowCount % PAGE_SIZE == 0) {
+                    int p = rowCount / PAGE_SIZE;
+                    if (p == firstKeys.length) firstKeys = Arrays.copyOf(firstKeys, p * 2);
+                    firstKeys[p] = key;
+                }
+                rowCount++;
+            }
+            scanDone = chunk.length < SCAN_CHUNK;
+            rows = rowCount;
+        }
+        SwingUtilities.invokeLater(() -> grow(gen, rows));
+        if (chunk.length == SCAN_CHUNK) {
+            String last = chunk[chunk.length - 1];
+            loader.execute(() -> scanKeys(gen, last));
+        }
+    }
+
+    // EDT: announce rows the key scan has found
+    private void grow(int gen, int rows) {
+        synchronized (this) {
+            if (gen != generation) return;
+        }
+        if (rows > shownRows) {
+            int first = shownRows;
+            shownRows = rows;
+            fireTableRowsInserted(first, rows - 1);
+        } else {
+            fireTableDataChanged(); // the scan ended without new rows
+        }
+    }
+
+    private interface SqlWork<T> {
+        T run(Connection c) throws SQLException;
+    }
+
+    private <T> T withConnection(SqlWork<T> work) throws SQLException {
+        if (pool == null) {
+            synchronized (connection) {
+                return work.run(connection);
+            }
+        }
+        try (Connection c = pool.getConnection()) {
+            return work.run(c);
+        }
+    }
+
+    /* Up to PAGE_SIZE rows, one array per column; nulls are marked in a bit set. */
+    private static final class Page {
+        private final Column[] columns;
+        private final Object[] data;
+        private final BitSet nulls = new BitSet();
+        int size;
+
+        Page(Column[] columns) {
+            this.columns = columns;
+            this.data = new Object[columns.length];
+            for (int c = 0; c < columns.length; c++) {
+                switch (columns[c].kind) {
+                    case INT: case DATE: data[c] = new int[PAGE_SIZE]; break;
+                    case TIMESTAMP: data[c] = new long[PAGE_SIZE]; break;
+                    default: data[c] = new String[PAGE_SIZE]; break;
+                }
+            }
+        }
+
+        void add(ResultSet rs) throws SQLException {
+            int r = size++;
+            for (int c = 0; c < columns.length; c++) {
+                boolean isNull;
+                switch (columns[c].kind) {
+                    case INT:
+                        ((int[]) data[c])[r] = rs.getInt(c + 1);
+                        isNull = rs.wasNull();
+                        break;
+                    case DATE: {
+                        Date d = rs.getDate(c + 1);
+                        isNull = d == null;
+                        if (!isNull) ((int[]) data[c])[r] = (int) d.toLocalDate().toEpochDay();
+                        break;
+                    }
+                    case TIMESTAMP: {
+                        Timestamp t = rs.getTimestamp(c + 1);
+                        isNull = t == null;
+                        if (!isNull) ((long[]) data[c])[r] = t.getTime();
+                        break;
+                    }
+                    default: {
+                        String s = rs.getString(c + 1);
+                        isNull = s == null;
+                        ((String[]) data[c])[r] = s;
+                        break;
+                    }
+                }
+                if (isNull) nulls.set(r * columns.length + c);
+            }
+        }
+
+        Object value(int r, int c) {
+            if (r >= size || nulls.get(r * columns.length + c)) return null;
+            switch (columns[c].kind) {
+                case INT: return ((int[]) data[c])[r];
+                case DATE: return LocalDate.ofEpochDay(((int[]) data[c])[r]);
+                case TIMESTAMP: return new Timestamp(((long[]) data[c])[r]);
+                default: return ((String[]) data[c])[r];
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package org.example;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+/*
+ * CSV file next to the input (applicants.csv -> applicants.csv.rejected.csv) that receives
+ * the rows the validator rejected. Each row keeps its original fields, followed by its record
+ * number in the input and the reason, so it can be fixed and imported again. It is written
+ * uncompressed, in the charset of the input.
+ *
+ * The file is created on the first rejected row. A fresh import removes the file of an
+ * earlier run; a resumed import first drops the rows past its checkpoint (dropAfter), which
+ * it is about to validate again, and then appends to it.
+ */
+class Quarantine implements Closeable {
+    private final Path path;
+    private final String[] header;
+    private final Charset charset;
+    private BufferedWriter out;
+    private long count;
+
+    Quarantine(Path csvPath, String[] header, Charset charset, boolean append) throws IOException {
+        this.path = pathFor(csvPath);
+        this.header = header;
+        this.charset = charset;
+        if (!append) Files.deleteIfExists(path);
+    }
+
+    // applicants.csv and applicants.csv.gz both quarantine to applicants.csv.rejected.csv
+    static Path pathFor(Path csvPath) {
+        String name = csvPath.getFileName().toString();
+        if (name.toLowerCase(Locale.ROOT).endsWith(".gz")) name = name.substring(0, name.length() - 3);
+        return csvPath.resolveSibling(name + ".rejected.csv");
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    // Number of rows rejected by this run
+    long getCount() {
+        return count;
+    }
+
+    // Write the current record of reader with the reason it was rejected
+    void reject(CsvReader reader, String reason) throws IOException {
+        if (out == null) open();
+        StringBuilder line = new StringBuilder(128);
+        for (int i = 0; i < reader.fieldCount(); i++) {
+            if (i > 0) line.append(',');
+            if (reader.isNull(i)) {
+                line.append("NULL");
+            } else {
+                appendField(line, reader.getString(i));
+            }
+        }
+        // short rows are padded so the extra columns line up with the header
+        for (int i = reader.fieldCount(); i < header.length; i++) line.append(",NULL");
+        line.append(',').append(reader.recordNumber()).append(',');
+        appendField(line, reason);
+        out.write(line.toString());
+        out.newLine();
+        count++;
+    }
+
+    /*
+     * Truncate the file before the first row whose record number is past records (as counted
+     * by ImportCheckpoint, header included). Rows are written in input order, so everything
+     * after that row belongs to records that were not committed either.
+     */
+    void dropAfter(long records) throws IOException {
+        close();
+        if (!Files.exists(path)) return;
+        long keep = -1;
+        try (CsvReader reader = CsvReader.open(path, charset)) {
+            reader.readHeader();
+            while (reader.next()) {
+                if (reader.getLong(header.length) > records) {
+                    keep = reader.recordOffset();
+                    break;
+                }
+            }
+        }
+        if (keep < 0) return;
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            file.truncate(keep);
+        }
+    }
+
+    private void open() throws IOException {
+        boolean exists = Files.exists(path);
+        out = Files.newBufferedWriter(path, charset,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        if (!exists) {
+            out.write(String.join(",", header) + ",reject_record,reject_reason");
+            out.newLine();
+        }
+    }
+
+    private static void appendField(StringBuilder line, String value) {
+        boolean quote = value.equalsIgnoreCase("NULL") || value.isEmpty()
+                || !value.equals(value.trim());
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+        line.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.example;
+
+/*
+ * Times one dashboard query for a DashboardEvents.Query event and SessionMetrics:
+ *
+ *   try (QueryTrace trace = QueryTrace.begin("acceptance_rates");
+ *        ResultSet rs = ps.executeQuery()) {
+ *       trace.executed();
+ *       while (rs.next()) ...
+ *       trace.end(rows);
+ *   }
+ *
+ * A query that throws is not recorded. Used by one thread at a time. On the EDT, the
+ * query also tells EdtWatchdog what a stall was waiting for, until end() or close(),
+ * so a query that throws is not blamed for later stalls.
+ */
+final class QueryTrace implements AutoCloseable {
+    private final DashboardEvents.Query event = new DashboardEvents.Query();
+    private final String sqlId;
+    private final long started;
+    private long executed;
+
+    private QueryTrace(String sqlId) {
+        this.sqlId = sqlId;
+        event.begin();
+        started = System.nanoTime();
+        EdtWatchdog.queryStarted(sqlId);
+    }
+
+    static QueryTrace begin(String sqlId) {
+        return new QueryTrace(sqlId);
+    }
+
+    // executeQuery() has returned; what follows is the fetch
+    void executed() {
+        executed = System.nanoTime();
+    }
+
+    void end(long rows) {
+        long now = System.nanoTime();
+        EdtWatchdog.queryEnded();
+        if (executed == 0) executed = now;
+        SessionMetrics.record("Query " + sqlId, now - started);
+        event.end();
+        if (event.shouldCommit()) {
+            event.sqlId = sqlId;
+            event.rows = rows;
+            event.executeTime = executed - started;
+            event.fetchTime = now - executed;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void close() {
+        EdtWatchdog.queryEnded();
+    }
+}
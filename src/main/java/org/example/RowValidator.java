@@ -0,0 +1,151 @@
+package org.example;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Checks the rows of one CSV file against the table's constraints before they are sent.
+ *
+ * Built by ImportValidator. check() runs on the parser thread for every record and returns
+ * null for a row that may be written, or the reason it would fail on the server: wrong field
+ * count, a value that doesn't convert to the column type, NULL in a NOT NULL column, a value
+ * longer than the column, a CHECK/ENUM violation, a duplicate key or an unknown applicant.
+ * Keys of accepted rows are remembered, so later duplicates in the same file are caught too.
+ */
+class RowValidator {
+
+    // One side effect free check on the current record
+    interface Rule {
+        String check(CsvReader reader);
+    }
+
+    private final String[] cols;
+    private final ColumnBinder[] types;
+    private final Object[] scratch;
+    private final boolean ignoreCase;
+    private final List<Rule> rules = new ArrayList<>();
+    private final List<UniqueKey> uniqueKeys = new ArrayList<>();
+
+    /*
+     * types come from DatabaseMetaData (ColumnBinder.forTable) and are used for the
+     * conversion, NOT NULL and length checks; they need not be the binders used for writing.
+     */
+    RowValidator(String[] cols, ColumnBinder[] types, boolean ignoreCase) {
+        this.cols = cols;
+        this.types = types;
+        this.ignoreCase = ignoreCase;
+        this.scratch = new Object[types.length];
+        for (int i = 0; i < types.length; i++) scratch[i] = types[i].newBuffer(1);
+    }
+
+    // Value of column must be one of the given values (CHECK ... IN, ENUM)
+    void allowedValues(int col, String... values) {
+        rules.add(reader -> {
+            if (reader.isNull(col)) return null;
+            String v = reader.getString(col);
+            for (String allowed : values) {
+                if (ignoreCase ? allowed.equalsIgnoreCase(v) : allowed.equals(v)) return null;
+            }
+            return cols[col] + " must be one of " + String.join(", ", values) + ", found '" + v + "'";
+        });
+    }
+
+    // Integer value of column must be within [min, max]
+    void range(int col, int min, int max) {
+        rules.add(reader -> {
+            if (reader.isNull(col)) return null;
+            int v;
+            try {
+                v = reader.getInt(col);
+            } catch (NumberFormatException e) {
+                return "Invalid number '" + reader.getString(col) + "' for column " + cols[col];
+            }
+            if (v < min || v > max) return cols[col] + " must be between " + min + " and " + max + ", found " + v;
+            return null;
+        });
+    }
+
+    // Value of column must be a key in the referenced table
+    void references(int col, FingerprintSet keys, String target) {
+        rules.add(reader -> {
+            if (reader.isNull(col)) return null;
+            if (keys.contains(reader.fieldFingerprint(col, ignoreCase))) return null;
+            return cols[col] + " '" + reader.getString(col) + "' does not exist in " + target;
+        });
+    }
+
+    // Value of column must not repeat; existing holds the values already in the table.
+    // Keys are compared by fingerprint, so a collision rejects a valid row (see FingerprintSet)
+    void unique(int col, FingerprintSet existing) {
+        uniqueKeys.add(new UniqueKey(col, existing));
+    }
+
+    String check(CsvReader reader) {
+        if (reader.fieldCount() > cols.length) {
+            return "Expected " + cols.length + " fields but found " + reader.fieldCount();
+        }
+        for (int i = 0; i < types.length; i++) {
+            String reason = checkColumn(reader, i);
+            if (reason != null) return reason;
+        }
+        for (Rule rule : rules) {
+            String reason = rule.check(reader);
+            if (reason != null) return reason;
+        }
+        // look up all keys first so a rejected row doesn't leave some of its keys behind
+        for (UniqueKey key : uniqueKeys) {
+            if (reader.isNull(key.col)) {
+                key.pending = 0;
+                continue;
+            }
+            key.pending = reader.fieldFingerprint(key.col, ignoreCase);
+            if (key.seen.contains(key.pending)) {
+                return "Duplicate " + cols[key.col] + " '" + reader.getString(key.col) + "'";
+            }
+        }
+        for (UniqueKey key : uniqueKeys) {
+            if (key.pending != 0) key.seen.add(key.pending);
+        }
+        return null;
+    }
+
+    private String checkColumn(CsvReader reader, int i) {
+        ColumnBinder type = types[i];
+        if (reader.isNull(i)) {
+            return type.notNull ? cols[i] + " must not be NULL" : null;
+        }
+        if (type instanceof ColumnBinder.StringBinder) {
+            // length() counts bytes; only count characters when the bytes already exceed the size
+            if (type.size > 0 && reader.length(i) > type.size && isCharacterType(type.sqlType)) {
+                String v = reader.getString(i);
+                if (v.codePointCount(0, v.length()) > type.size) {
+                    return cols[i] + " is longer than " + type.size + " characters";
+                }
+            }
+            return null;
+        }
+        try {
+            type.read(reader, i, scratch[i], 0);
+            return null;
+        } catch (RuntimeException e) {
+            // NumberFormatException, DateTimeException
+            return "Invalid value '" + reader.getString(i) + "' for column " + cols[i] + ": " + e.getMessage();
+        }
+    }
+
+    private static boolean isCharacterType(int sqlType) {
+        return sqlType == Types.CHAR || sqlType == Types.VARCHAR || sqlType == Types.NCHAR || sqlType == Types.NVARCHAR;
+    }
+
+    private static final class UniqueKey {
+        final int col;
+        final FingerprintSet seen;
+        long pending;
+
+        UniqueKey(int col, FingerprintSet seen) {
+            this.col = col;
+            this.seen = seen;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.example;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Creates the schema of sql/sql schema.txt in an embedded H2 database, so a database file
+ * is ready for the CSV import and the dashboard as soon as it is opened.
+ *
+ * The statements follow the schema file in H2's dialect: there is no CREATE DATABASE (the
+ * file is the database), and the generated average of applicant_score_summary divides as
+ * DECIMAL because H2, unlike MySQL, divides integers as integers. Every statement is
+ * IF NOT EXISTS / OR REPLACE, so installing again changes nothing. Keep this in step with
+ * the schema file.
+ */
+public final class SchemaInstaller {
+    private static final String[] STATEMENTS = {
+            "CREATE TABLE IF NOT EXISTS applicants ("
+                    + "applicant_id VARCHAR(10) PRIMARY KEY, "
+                    + "first_name VARCHAR(50) NOT NULL, "
+                    + "last_name VARCHAR(50) NOT NULL, "
+                    + "dob DATE NOT NULL, "
+                    + "gender CHAR(1) NOT NULL CHECK (gender IN ('M', 'F')), "
+                    + "email VARCHAR(100) NOT NULL UNIQUE, "
+                    + "phone VARCHAR(15), "
+                    + "city VARCHAR(50) NOT NULL, "
+                    + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)",
+            "CREATE TABLE IF NOT EXISTS applications ("
+                    + "application_id VARCHAR(10) PRIMARY KEY, "
+                    + "applicant_id VARCHAR(10) NOT NULL, "
+                    + "program VARCHAR(50) NOT NULL, "
+                    + "admission_year INT NOT NULL, "
+                    + "status ENUM('Accepted', 'Rejected', 'Pending') NOT NULL, "
+                    + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
+                    + "FOREIGN KEY (applicant_id) REFERENCES applicants(applicant_id) ON DELETE CASCADE)",
+            "CREATE TABLE IF NOT EXISTS exam_scores ("
+                    + "score_id VARCHAR(10) PRIMARY KEY, "
+                    + "applicant_id VARCHAR(10) NOT NULL, "
+                    + "subject VARCHAR(50) NOT NULL, "
+                    + "score INT NOT NULL CHECK (score >= 0 AND score <= 100), "
+                    + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
+                    + "FOREIGN KEY (applicant_id) REFERENCES applicants(applicant_id) ON DELETE CASCADE)",
+
+            "CREATE INDEX IF NOT EXISTS idx_applications_program ON applications(program)",
+            "CREATE INDEX IF NOT EXISTS idx_applications_status ON applications(status)",
+            "CREATE INDEX IF NOT EXISTS idx_applicants_city ON applicants(city)",
+            "CREATE INDEX IF NOT EXISTS idx_applicants_gender ON applicants(gender)",
+            "CREATE INDEX IF NOT EXISTS idx_exam_scores_subject ON exam_scores(subject)",
+            "CREATE INDEX IF NOT EXISTS idx_exam_scores_applicant ON exam_scores(applicant_id)",
+            "CREATE INDEX IF NOT EXISTS idx_applicants_created ON applicants(created_at)",
+            "CREATE INDEX IF NOT EXISTS idx_applications_created ON applications(created_at)",
+            "CREATE INDEX IF NOT EXISTS idx_exam_scores_created ON exam_scores(created_at)",
+
+            "CREATE TABLE IF NOT EXISTS " + SummaryTables.SCORE_SUMMARY + " ("
+                    + "applicant_id VARCHAR(10) PRIMARY KEY, "
+                    + "score_sum BIGINT NOT NULL, "
+                    + "score_count INT NOT NULL, "
+                    + "avg_score DECIMAL(7,4) GENERATED ALWAYS AS (CAST(score_sum AS DECIMAL(19,4)) / NULLIF(score_count, 0)))",
+            "CREATE INDEX IF NOT EXISTS idx_applicant_score_summary_avg ON " + SummaryTables.SCORE_SUMMARY + "(avg_score)",
+            "CREATE TABLE IF NOT EXISTS " + SummaryTables.PROGRAM_SUMMARY + " ("
+                    + "program VARCHAR(50) PRIMARY KEY, "
+                    + "accepted_count INT NOT NULL, "
+                    + "total_count INT NOT NULL)",
+
+            "CREATE OR REPLACE VIEW v_acceptance_rates AS "
+                    + "SELECT program, COUNT(*) AS total_applications, "
+                    + "SUM(CASE WHEN status = 'Accepted' THEN 1 ELSE 0 END) AS accepted_count, "
+                    + "ROUND((SUM(CASE WHEN status = 'Accepted' THEN 1 ELSE 0 END) * 100.0 / COUNT(*)), 2) AS acceptance_rate "
+                    + "FROM applications GROUP BY program",
+            "CREATE OR REPLACE VIEW v_avg_scores_by_program AS "
+                    + "SELECT app.program, AVG(es.score) AS avg_score, COUNT(DISTINCT es.applicant_id) AS applicant_count "
+                    + "FROM applications app JOIN exam_scores es ON app.applicant_id = es.applicant_id "
+                    + "WHERE app.status = 'Accepted' GROUP BY app.program",
+            "CREATE OR REPLACE VIEW v_applicant_demographics AS "
+                    + "SELECT city, gender, COUNT(*) AS count, "
+                    + "ROUND((COUNT(*) * 100.0 / (SELECT COUNT(*) FROM applicants)), 2) AS percentage "
+                    + "FROM applicants GROUP BY city, gender ORDER BY city, gender",
+    };
+
+    private SchemaInstaller() {
+    }
+
+    /* Install the schema unless the database has it already (its summary tables exist). */
+    public static void ensureInstalled(Connection conn) throws SQLException {
+        if (SummaryTables.installed(conn)) return;
+        install(conn);
+    }
+
+    /* Run every statement of the schema; existing objects are left as they are. */
+    public static void install(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            for (String sql : STATEMENTS) {
+                st.execute(sql);
+            }
+        }
+    }
+}
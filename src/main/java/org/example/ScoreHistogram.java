@@ -0,0 +1,147 @@
+package org.example;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jfree.data.statistics.SimpleHistogramBin;
+import org.jfree.data.statistics.SimpleHistogramDataset;
+
+/**
+ * Number of exam scores per score value.
+ *
+ * exam_scores.score is an INT between 0 and 100 (CHECK in the schema), so the whole
+ * distribution fits in 101 counters however many rows there are. The database does the
+ * counting (GROUP BY score) and sends at most 101 rows; the chart's bins are then summed
+ * from the counters, so changing the bin width needs no new query.
+ */
+public final class ScoreHistogram {
+    public static final int MAX_SCORE = 100;
+
+    private final long[] counts;
+
+    ScoreHistogram(long[] counts) {
+        if (counts.length != MAX_SCORE + 1) throw new IllegalArgumentException("Need " + (MAX_SCORE + 1) + " counts");
+        this.counts = counts;
+    }
+
+    /*
+     * Count the scores, optionally only those of one subject and/or of applicants who
+     * applied to one program (null for all). Scores outside 0-100 are not counted.
+     */
+    public static ScoreHistogram query(Connection conn, String subject, String program) throws SQLException {
+        return query(conn, subject, program, null);
+    }
+
+    /* As above, and optionally only of applicants who applied for admission in year. */
+    public static ScoreHistogram query(Connection conn, String subject, String program, Integer year) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT e.score, COUNT(*) FROM exam_scores e WHERE e.score BETWEEN 0 AND ")
+                .append(MAX_SCORE);
+        if (subject != null) sql.append(" AND e.subject = ?");
+        // EXISTS rather than a join, so a score is counted once even with several applications
+        if (program != null || year != null) {
+            sql.append(" AND EXISTS (SELECT 1 FROM applications b WHERE b.applicant_id = e.applicant_id");
+            if (program != null) sql.append(" AND b.program = ?");
+            if (year != null) sql.append(" AND b.admission_year = ?");
+            sql.append(")");
+        }
+        sql.append(" GROUP BY e.score");
+
+        long[] counts = new long[MAX_SCORE + 1];
+        int rows = 0;
+        try (QueryTrace trace = QueryTrace.begin(subject == null && program == null && year == null
+                ? "score_histogram" : "score_histogram/filtered");
+             PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+            int p = 1;
+            if (subject != null) ps.setString(p++, subject);
+            if (program != null) ps.setString(p++, program);
+            if (year != null) ps.setInt(p, year);
+            try (ResultSet rs = ps.executeQuery()) {
+                trace.executed();
+                while (rs.next()) {
+                    counts[rs.getInt(1)] = rs.getLong(2);
+                    rows++;
+                }
+            }
+            trace.end(rows);
+        }
+        return new ScoreHistogram(counts);
+    }
+
+    /* Distinct subjects in exam_scores, for a subject filter. */
+    public static List<String> subjects(Connection conn) throws SQLException {
+        List<String> subjects = new ArrayList<>();
+        try (QueryTrace trace = QueryTrace.begin("subjects");
+             PreparedStatement ps = conn.prepareStatement("SELECT DISTINCT subject FROM exam_scores ORDER BY subject");
+             ResultSet rs = ps.executeQuery()) {
+            trace.executed();
+            while (rs.next()) subjects.add(rs.getString(1));
+            trace.end(subjects.size());
+        }
+        return subjects;
+    }
+
+    public long count(int score) {
+        return counts[score];
+    }
+
+    public long total() {
+        long total = 0;
+        for (long c : counts) total += c;
+        return total;
+    }
+
+    /*
+     * Chart data with bins of binWidth score points, starting at 0. Every bin is
+     * [lower, lower + binWidth) except the last, which also takes the score 100, so a
+     * width of 10 gives the ten bins 0-9, 10-19, ..., 90-100.
+     */
+    public BinnedDataset toDataset(Comparable<?> key, int binWidth) {
+        BinnedDataset dataset = new BinnedDataset(key, binWidth);
+        dataset.setCounts(this);
+        return dataset;
+    }
+
+    /*
+     * Histogram dataset with fixed bins whose counts can be replaced in place, so a chart
+     * keeps its dataset (and listeners) when the data changes and redraws once.
+     */
+    public static final class BinnedDataset extends SimpleHistogramDataset {
+        private final int binWidth;
+        private final List<SimpleHistogramBin> bins = new ArrayList<>();
+
+        BinnedDataset(Comparable<?> key, int binWidth) {
+            super(key);
+            if (binWidth < 1 || binWidth > MAX_SCORE) throw new IllegalArgumentException("Bin width must be 1-" + MAX_SCORE);
+            this.binWidth = binWidth;
+            setAdjustForBinSize(false);
+            int count = (MAX_SCORE + binWidth - 1) / binWidth;
+            for (int b = 0; b < count; b++) {
+                boolean last = b == count - 1;
+                SimpleHistogramBin bin = new SimpleHistogramBin(b * binWidth, last ? MAX_SCORE : (b + 1) * binWidth, true, last);
+                bins.add(bin);
+                addBin(bin);
+            }
+        }
+
+        public int getBinWidth() {
+            return binWidth;
+        }
+
+        /* Sum the counts of histogram into the bins, then notify the listeners once. */
+        public void setCounts(ScoreHistogram histogram) {
+            for (int b = 0; b < bins.size(); b++) {
+                int lower = b * binWidth;
+                boolean last = b == bins.size() - 1;
+                int upper = last ? MAX_SCORE : lower + binWidth;
+                long n = 0;
+                for (int s = lower; s < upper || (last && s == upper); s++) n += histogram.counts[s];
+                bins.get(b).setItemCount((int) Math.min(n, Integer.MAX_VALUE));
+            }
+            fireDatasetChanged();
+        }
+    }
+}
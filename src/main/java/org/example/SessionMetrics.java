@@ -0,0 +1,105 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * Latency distributions of this session (queries, import batches, tab loads), by name,
+ * for the Metrics tab. Each is a log-linear histogram: 16 buckets per power of two, so a
+ * percentile is off by at most 1/16 (about 6%), recording is a couple of atomic adds and
+ * memory stays fixed however long the session runs. Thread safe.
+ */
+final class SessionMetrics {
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    // values below SUB_BUCKETS have a bucket each; above, SUB_BUCKETS per power of two up to 2^63
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private static final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    private SessionMetrics() {
+    }
+
+    /* One latency; name is e.g. "Query acceptance_rates". */
+    static void record(String name, long nanos) {
+        histograms.computeIfAbsent(name, n -> new Histogram()).record(Math.max(0, nanos));
+    }
+
+    /* A summary of every distribution, sorted by name. */
+    static List<Stat> snapshot() {
+        List<Stat> stats = new ArrayList<>();
+        histograms.forEach((name, h) -> {
+            Stat s = h.stat(name);
+            if (s.count() > 0) stats.add(s);
+        });
+        stats.sort((a, b) -> a.name().compareTo(b.name()));
+        return stats;
+    }
+
+    static void reset() {
+        histograms.clear();
+    }
+
+    /* Latencies in nanoseconds. */
+    record Stat(String name, long count, long p50, long p99, long max, long total) {}
+
+    private static final class Histogram {
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final AtomicLong sum = new AtomicLong();
+        private volatile long max;
+
+        void record(long nanos) {
+            counts.incrementAndGet(bucket(nanos));
+            sum.addAndGet(nanos);
+            if (nanos > max) {
+                synchronized (this) {
+                    if (nanos > max) max = nanos;
+                }
+            }
+        }
+
+        // A copy of the buckets, so a record() meanwhile can't make the percentiles inconsistent
+        Stat stat(String name) {
+            long[] copy = new long[BUCKETS];
+            long count = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                copy[i] = counts.get(i);
+                count += copy[i];
+            }
+            long m = max;
+            // a bucket's upper bound can lie above the largest value recorded in it
+            return new Stat(name, count, Math.min(m, percentile(copy, count, 0.50)),
+                    Math.min(m, percentile(copy, count, 0.99)), m, sum.get());
+        }
+
+        private static long percentile(long[] counts, long total, double p) {
+            long rank = (long) Math.ceil(p * total);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank && counts[i] > 0) return upperBound(i);
+            }
+            return 0;
+        }
+    }
+
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    // The largest value of bucket i
+    static long upperBound(int i) {
+        if (i < SUB_BUCKETS) return i;
+        int exponent = i / SUB_BUCKETS + SUB_BITS - 1;
+        long sub = i % SUB_BUCKETS;
+        long lower = (SUB_BUCKETS + sub) << (exponent - SUB_BITS);
+        return lower + (1L << (exponent - SUB_BITS)) - 1;
+    }
+}
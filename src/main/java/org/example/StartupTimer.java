@@ -0,0 +1,37 @@
+package org.example;
+
+import java.lang.management.ManagementFactory;
+
+/*
+ * Startup timing of a dashboard window: from construction to the first frame on
+ * screen, and to the first data shown in it. Printed once both are known, e.g.
+ *
+ *   Startup: first frame 92 ms, first data 431 ms (JVM uptime 1204 ms)
+ *
+ * so regressions show up in the console. Used on the EDT only.
+ */
+class StartupTimer {
+    private final long started = System.nanoTime();
+    private long firstFrame = -1;
+    private long firstData = -1;
+
+    void frameShown() {
+        if (firstFrame < 0) {
+            firstFrame = System.nanoTime() - started;
+            report();
+        }
+    }
+
+    void dataShown() {
+        if (firstData < 0) {
+            firstData = System.nanoTime() - started;
+            report();
+        }
+    }
+
+    private void report() {
+        if (firstFrame < 0 || firstData < 0) return;
+        System.out.printf("Startup: first frame %d ms, first data %d ms (JVM uptime %d ms)%n",
+                firstFrame / 1_000_000, firstData / 1_000_000, ManagementFactory.getRuntimeMXBean().getUptime());
+    }
+}
@@ -0,0 +1,526 @@
+package org.example;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The dashboard statistics, read from the database once and shared by every chart,
+ * table and text summary.
+ *
+ * Each statistic (a Part) is one query, run on a background thread and returned as a
+ * CompletableFuture, so a view can show its data as soon as its own query is done. The
+ * queries of a refresh run at the same time, each on a connection borrowed from a
+ * ConnectionPool when one is given (otherwise one after the other on the shared
+ * connection). The queries are prepared statements, which the pool keeps per connection.
+ * Results are kept until the data changes: the cache is dropped by invalidate(), by
+ * dataChanged() (called after an import, for every repository), or when the optional
+ * time to live has passed. A failed query is not cached.
+ *
+ * When the SummaryTables are installed, the acceptance rates and the top applicants
+ * are read from them instead of being aggregated from the base tables. The summary has
+ * no row for applicants without an application, so the rates then lack that empty group.
+ * Whether they are installed is looked up once and again only after dataChanged().
+ *
+ * In memory mode the statistics are computed from a ColumnarSnapshot of the tables
+ * instead of by the database. The tables are then only read again when the data has
+ * changed or the time to live has passed; invalidate() just recomputes the statistics,
+ * which also makes drill-downs by city and gender cheap.
+ */
+public class StatisticsRepository {
+    // bumped whenever the tables are written, so every open dashboard reloads
+    private static final AtomicLong DATA_VERSION = new AtomicLong();
+
+    public static final int TOP_N = 10;
+
+    /* The separately loaded statistics, with the tables each is computed from. */
+    public enum Part {
+        ACCEPTANCE_RATES(ChangeProbe.APPLICANTS, ChangeProbe.APPLICATIONS),
+        AVERAGE_SCORES(ChangeProbe.EXAM_SCORES, ChangeProbe.APPLICATIONS),
+        CITY_GENDER(ChangeProbe.APPLICANTS),
+        SCORE_HISTOGRAM(ChangeProbe.EXAM_SCORES),
+        TOP_APPLICANTS(ChangeProbe.EXAM_SCORES, ChangeProbe.APPLICANTS),
+        SUBJECTS(ChangeProbe.EXAM_SCORES);
+
+        private final Set<String> tables;
+
+        Part(String... tables) {
+            this.tables = Set.of(tables);
+        }
+
+        public boolean readsAny(Set<String> changedTables) {
+            for (String table : changedTables) {
+                if (tables.contains(table)) return true;
+            }
+            return false;
+        }
+    }
+
+    private final Connection connection;
+    private final ConnectionPool pool;
+    private final long ttlNanos;
+    private final ExecutorService executor = Executors.newCachedThreadPool(daemonThreads());
+    private volatile boolean inMemory;
+
+    // guarded by this
+    private final Map<Part, CompletableFuture<?>> parts = new EnumMap<>(Part.class);
+    private CompletableFuture<Snapshot> aggregate;
+    private long partsVersion;
+    private long partsAt;
+    private Map<String, ChangeProbe.Stamp> stamps;
+
+    // guarded by columnsLock; loading can take a while, so it does not hold this
+    private final Object columnsLock = new Object();
+    private ColumnarSnapshot columns;
+    private long columnsVersion;
+    private long columnsAt;
+    // set by refresh() when a table changed; read the snapshot again
+    private volatile boolean columnsStale;
+
+    // whether the SummaryTables exist, as of DATA_VERSION summariesVersion (-1: not known)
+    private volatile boolean summaries;
+    private volatile long summariesVersion = -1;
+
+    public StatisticsRepository(Connection connection) {
+        this(connection, null, null);
+    }
+
+    public StatisticsRepository(Connection connection, Duration ttl) {
+        this(connection, null, ttl);
+    }
+
+    /*
+     * pool may be null: the queries then share connection and run one at a time.
+     * ttl may be null: results are then kept until the data changes. With a ttl they are
+     * also reloaded once older than that, which picks up writes made by other clients.
+     */
+    public StatisticsRepository(Connection connection, ConnectionPool pool, Duration ttl) {
+        this.connection = connection;
+        this.pool = pool;
+        this.ttlNanos = ttl == null ? 0 : ttl.toNanos();
+    }
+
+    public boolean isInMemory() {
+        return inMemory;
+    }
+
+    /* Switch between SQL queries and the in-memory snapshot; takes effect with the next request. */
+    public synchronized void setInMemory(boolean inMemory) {
+        if (this.inMemory == inMemory) return;
+        this.inMemory = inMemory;
+        invalidate();
+        if (!inMemory) {
+            synchronized (columnsLock) {
+                columns = null;
+            }
+        }
+    }
+
+    /* Mark the data of all repositories as stale, e.g. after an import committed rows. */
+    public static void dataChanged() {
+        DATA_VERSION.incrementAndGet();
+    }
+
+    /* Drop this repository's results, so the next request reads the database again. */
+    public synchronized void invalidate() {
+        parts.clear();
+        aggregate = null;
+        stamps = null;
+    }
+
+    /*
+     * Probe the tables for changes since the last probe (see ChangeProbe) and drop the
+     * results computed from the changed ones, so the next request for them queries again
+     * while the others stay cached. Completes with the changed tables; all of them on the
+     * first call or after invalidate() (which has already dropped everything).
+     */
+    public CompletableFuture<Set<String>> refresh() {
+        return async(() -> withConnection(ChangeProbe::probe)).thenApply(this::applyStamps);
+    }
+
+    /* The parts computed from any of tables. */
+    public static Set<Part> affected(Set<String> tables) {
+        Set<Part> affected = EnumSet.noneOf(Part.class);
+        for (Part part : Part.values()) {
+            if (part.readsAny(tables)) affected.add(part);
+        }
+        return affected;
+    }
+
+    private synchronized Set<String> applyStamps(Map<String, ChangeProbe.Stamp> now) {
+        Set<String> changed = ChangeProbe.changed(stamps, now);
+        boolean baseline = stamps == null;
+        stamps = now;
+        if (changed.isEmpty() || baseline) return changed;
+        if (inMemory) {
+            // every part but the subjects comes from the one snapshot
+            columnsStale = true;
+            aggregate = null;
+            parts.keySet().removeIf(part -> part != Part.SUBJECTS || part.readsAny(changed));
+        } else {
+            parts.keySet().removeIf(part -> part.readsAny(changed));
+        }
+        return changed;
+    }
+
+    public CompletableFuture<List<ProgramRate>> acceptanceRates() {
+        return part(Part.ACCEPTANCE_RATES);
+    }
+
+    public CompletableFuture<List<ProgramScore>> averageScores() {
+        return part(Part.AVERAGE_SCORES);
+    }
+
+    public CompletableFuture<List<CityGender>> cityGender() {
+        return part(Part.CITY_GENDER);
+    }
+
+    // summed from the city/gender rows instead of a query of their own
+    public CompletableFuture<Map<String, Integer>> genderCounts() {
+        return cityGender().thenApply(StatisticsRepository::genderCounts);
+    }
+
+    public CompletableFuture<ScoreHistogram> scoreHistogram() {
+        return part(Part.SCORE_HISTOGRAM);
+    }
+
+    /* Scores of one subject and/or program (null for all). Only the unfiltered one is cached. */
+    public CompletableFuture<ScoreHistogram> scoreHistogram(String subject, String program) {
+        if (subject == null && program == null) return scoreHistogram();
+        return async(() -> withConnection(c -> ScoreHistogram.query(c, subject, program)));
+    }
+
+    public CompletableFuture<List<ApplicantScore>> topApplicants() {
+        return part(Part.TOP_APPLICANTS);
+    }
+
+    public CompletableFuture<List<String>> subjects() {
+        return part(Part.SUBJECTS);
+    }
+
+    /*
+     * All statistics at once, waiting for them. The queries still run at the same time.
+     * For callers that are not on the EDT, or don't mind blocking it.
+     */
+    public Snapshot get() throws SQLException {
+        CompletableFuture<List<ProgramRate>> rates = acceptanceRates();
+        CompletableFuture<List<ProgramScore>> averages = averageScores();
+        CompletableFuture<List<CityGender>> cityGender = cityGender();
+        CompletableFuture<ScoreHistogram> histogram = scoreHistogram();
+        CompletableFuture<List<ApplicantScore>> top = topApplicants();
+        List<CityGender> cg = join(cityGender);
+        return new Snapshot(join(rates), join(averages), cg, genderCounts(cg), join(histogram), join(top));
+    }
+
+    /*
+     * The statistics of the applicants of one city and/or gender (null for any), computed
+     * from the in-memory snapshot. Loads the snapshot first if there is no current one.
+     */
+    public CompletableFuture<Snapshot> drillDown(String city, String gender) {
+        return async(() -> columns().aggregate(city, gender));
+    }
+
+    /* Wait for a future of this repository, turning its failure back into the SQLException. */
+    public static <T> T join(CompletableFuture<T> future) throws SQLException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) throw (SQLException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new SQLException(cause);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized <T> CompletableFuture<T> part(Part part) {
+        long version = DATA_VERSION.get();
+        boolean expired = ttlNanos > 0 && System.nanoTime() - partsAt > ttlNanos;
+        if (partsVersion != version || expired) {
+            invalidate();
+            partsVersion = version;
+            partsAt = System.nanoTime();
+        }
+        CompletableFuture<?> future = parts.get(part);
+        if (future == null) {
+            if (inMemory && part != Part.SUBJECTS) {
+                future = aggregate().thenApply(s -> fromSnapshot(s, part));
+            } else {
+                future = async(() -> withConnection(c -> query(part, c)));
+            }
+            parts.put(part, future);
+            CompletableFuture<?> loading = future;
+            // a failure is reported once; the next request tries again
+            future.whenComplete((value, error) -> {
+                if (error != null) forget(part, loading);
+            });
+        }
+        return (CompletableFuture<T>) future;
+    }
+
+    private synchronized void forget(Part part, CompletableFuture<?> future) {
+        parts.remove(part, future);
+        if (aggregate != null && aggregate.isCompletedExceptionally()) aggregate = null;
+    }
+
+    // in memory: one fork/join pass produces every part
+    private synchronized CompletableFuture<Snapshot> aggregate() {
+        if (aggregate == null) aggregate = async(() -> columns().aggregate());
+        return aggregate;
+    }
+
+    private ColumnarSnapshot columns() throws SQLException {
+        synchronized (columnsLock) {
+            long version = DATA_VERSION.get();
+            boolean expired = ttlNanos > 0 && System.nanoTime() - columnsAt > ttlNanos;
+            if (columns == null || columnsVersion != version || expired || columnsStale) {
+                columnsStale = false;
+                columns = null; // let the old snapshot go before the new one is read
+                columns = withConnection(ColumnarSnapshot::load);
+                columnsVersion = version;
+                columnsAt = System.nanoTime();
+            }
+            return columns;
+        }
+    }
+
+    private static Object fromSnapshot(Snapshot s, Part part) {
+        switch (part) {
+            case ACCEPTANCE_RATES: return s.acceptanceRates();
+            case AVERAGE_SCORES: return s.averageScores();
+            case CITY_GENDER: return s.cityGender();
+            case SCORE_HISTOGRAM: return s.scoreHistogram();
+            case TOP_APPLICANTS: return s.topApplicants();
+            default: throw new IllegalArgumentException("Not part of a snapshot: " + part);
+        }
+    }
+
+    private Object query(Part part, Connection c) throws SQLException {
+        switch (part) {
+            case ACCEPTANCE_RATES: return queryAcceptanceRates(c, null, summariesInstalled(c));
+            case AVERAGE_SCORES: return queryAverageScores(c, null);
+            case CITY_GENDER: return queryCityGender(c, null);
+            // counted by the database: at most 101 rows instead of one per score
+            case SCORE_HISTOGRAM: return ScoreHistogram.query(c, null, null);
+            case TOP_APPLICANTS: return queryTopApplicants(c, null, TOP_N, summariesInstalled(c));
+            case SUBJECTS: return List.copyOf(ScoreHistogram.subjects(c));
+            default: throw new IllegalArgumentException("Unknown part " + part);
+        }
+    }
+
+    /*
+     * SummaryTables.installed() costs a few metadata round trips, so it is asked once per
+     * data version instead of before every query. Two threads may both ask; the answer is
+     * the same.
+     */
+    private boolean summariesInstalled(Connection c) throws SQLException {
+        long version = DATA_VERSION.get();
+        if (summariesVersion != version) {
+            summaries = SummaryTables.installed(c);
+            summariesVersion = version;
+        }
+        return summaries;
+    }
+
+    private interface SqlWork<T> {
+        T run(Connection c) throws SQLException;
+    }
+
+    private interface SqlTask<T> {
+        T call() throws SQLException;
+    }
+
+    // A pooled connection if there is a pool, otherwise the shared one (one query at a time)
+    private <T> T withConnection(SqlWork<T> work) throws SQLException {
+        if (pool == null) {
+            synchronized (connection) {
+                return work.run(connection);
+            }
+        }
+        try (Connection c = pool.getConnection()) {
+            return work.run(c);
+        }
+    }
+
+    private <T> CompletableFuture<T> async(SqlTask<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return task.call();
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /*
+     * All statistics of the applications of one admission year (null for all years),
+     * queried one after the other on conn, with the topN best applicants. For batch
+     * reports; the dashboard uses the cached, concurrent parts above.
+     */
+    public static Snapshot load(Connection conn, Integer year, int topN) throws SQLException {
+        boolean summaries = year == null && SummaryTables.installed(conn);
+        List<CityGender> cityGender = queryCityGender(conn, year);
+        return new Snapshot(queryAcceptanceRates(conn, year, summaries), queryAverageScores(conn, year), cityGender,
+                genderCounts(cityGender), ScoreHistogram.query(conn, null, null, year),
+                queryTopApplicants(conn, year, topN, summaries));
+    }
+
+    // The single queries are package-private for the benchmarks (benchmarks/QueryBenchmarks).
+
+    // applicants with an application in the year (the summaries have no year, so they are not used then)
+    private static final String IN_YEAR =
+            "EXISTS (SELECT 1 FROM applications y WHERE y.applicant_id = a.applicant_id AND y.admission_year = ?)";
+
+    // summaries: the SummaryTables are installed (only used for all years)
+    static List<ProgramRate> queryAcceptanceRates(Connection c, Integer year, boolean summaries) throws SQLException {
+        String counts = "SELECT b.program, COUNT(CASE WHEN b.status='Accepted' THEN 1 END) AS Accepted, " +
+                "COUNT(b.application_id) AS totalCount, " +
+                "(COUNT(CASE WHEN b.status='Accepted' THEN 1 END)*100.0/COUNT(b.application_id)) AS acceptanceRate ";
+        String sql = year != null
+                ? counts + "FROM applications AS b WHERE b.admission_year = ? GROUP BY b.program"
+                : summaries
+                ? "SELECT program, accepted_count AS Accepted, total_count AS totalCount, " +
+                  "accepted_count*100.0/total_count AS acceptanceRate FROM " + SummaryTables.PROGRAM_SUMMARY +
+                  " ORDER BY program"
+                : counts + "FROM applicants AS a LEFT JOIN applications AS b ON a.applicant_id=b.applicant_id " +
+                  "GROUP BY b.program";
+        List<ProgramRate> rates = new ArrayList<>();
+        try (QueryTrace trace = QueryTrace.begin(year != null ? "acceptance_rates/year"
+                : sql.contains(SummaryTables.PROGRAM_SUMMARY) ? "acceptance_rates/summary" : "acceptance_rates");
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            if (year != null) ps.setInt(1, year);
+            try (ResultSet rs = ps.executeQuery()) {
+                trace.executed();
+                while (rs.next()) {
+                    rates.add(new ProgramRate(rs.getString("program"), rs.getInt("Accepted"),
+                            rs.getInt("totalCount"), rs.getDouble("acceptanceRate")));
+                }
+            }
+            trace.end(rates.size());
+        }
+        return List.copyOf(rates);
+    }
+
+    static List<ProgramScore> queryAverageScores(Connection c, Integer year) throws SQLException {
+        String sql = year != null
+                ? "SELECT b.program, AVG(e.score) AS avg_score " +
+                  "FROM exam_scores e JOIN applications b ON e.applicant_id = b.applicant_id " +
+                  "WHERE b.admission_year = ? GROUP BY b.program"
+                : "SELECT b.program, AVG(e.score) AS avg_score " +
+                  "FROM exam_scores e LEFT JOIN applications b ON e.applicant_id = b.applicant_id " +
+                  "GROUP BY b.program";
+        List<ProgramScore> averages = new ArrayList<>();
+        try (QueryTrace trace = QueryTrace.begin(year != null ? "average_scores/year" : "average_scores");
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            if (year != null) ps.setInt(1, year);
+            try (ResultSet rs = ps.executeQuery()) {
+                trace.executed();
+                while (rs.next()) {
+                    averages.add(new ProgramScore(rs.getString("program"), rs.getDouble("avg_score")));
+                }
+            }
+            trace.end(averages.size());
+        }
+        return List.copyOf(averages);
+    }
+
+    static List<CityGender> queryCityGender(Connection c, Integer year) throws SQLException {
+        String sql = "SELECT city, gender, COUNT(*) as count FROM applicants a " +
+                (year != null ? "WHERE " + IN_YEAR + " " : "") +
+                "GROUP BY city, gender ORDER BY city, gender";
+        List<CityGender> cityGender = new ArrayList<>();
+        try (QueryTrace trace = QueryTrace.begin(year != null ? "city_gender/year" : "city_gender");
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            if (year != null) ps.setInt(1, year);
+            try (ResultSet rs = ps.executeQuery()) {
+                trace.executed();
+                while (rs.next()) {
+                    cityGender.add(new CityGender(rs.getString("city"), rs.getString("gender"), rs.getInt("count")));
+                }
+            }
+            trace.end(cityGender.size());
+        }
+        return List.copyOf(cityGender);
+    }
+
+    // with the summary this walks the avg_score index from the top and stops after limit
+    static List<ApplicantScore> queryTopApplicants(Connection c, Integer year, int limit, boolean summaries)
+            throws SQLException {
+        String sql = year == null && summaries
+                ? "SELECT a.first_name, a.last_name, s.avg_score " +
+                  "FROM " + SummaryTables.SCORE_SUMMARY + " s " +
+                  "JOIN applicants a ON s.applicant_id = a.applicant_id " +
+                  "ORDER BY s.avg_score DESC LIMIT " + limit
+                : "SELECT a.first_name, a.last_name, AVG(e.score) as avg_score " +
+                  "FROM exam_scores e " +
+                  "JOIN applicants a ON e.applicant_id = a.applicant_id " +
+                  (year != null ? "WHERE " + IN_YEAR + " " : "") +
+                  "GROUP BY a.applicant_id, a.first_name, a.last_name " +
+                  "ORDER BY avg_score DESC LIMIT " + limit;
+        List<ApplicantScore> top = new ArrayList<>();
+        try (QueryTrace trace = QueryTrace.begin(year != null ? "top_applicants/year"
+                : sql.contains(SummaryTables.SCORE_SUMMARY) ? "top_applicants/summary" : "top_applicants");
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            if (year != null) ps.setInt(1, year);
+            try (ResultSet rs = ps.executeQuery()) {
+                trace.executed();
+                while (rs.next()) {
+                    top.add(new ApplicantScore(rs.getString("first_name"), rs.getString("last_name"),
+                            rs.getDouble("avg_score")));
+                }
+            }
+            trace.end(top.size());
+        }
+        return List.copyOf(top);
+    }
+
+    static Map<String, Integer> genderCounts(List<CityGender> cityGender) {
+        Map<String, Integer> genders = new LinkedHashMap<>();
+        for (CityGender cg : cityGender) genders.merge(cg.gender(), cg.count(), Integer::sum);
+        return Collections.unmodifiableMap(genders);
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, "dashboard-query-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    // program is null for applicants without an application
+    public record ProgramRate(String program, int accepted, int total, double rate) {}
+
+    public record ProgramScore(String program, double average) {}
+
+    public record CityGender(String city, String gender, int count) {}
+
+    public record ApplicantScore(String firstName, String lastName, double average) {}
+
+    /* One consistent set of dashboard statistics. */
+    public record Snapshot(List<ProgramRate> acceptanceRates,
+                           List<ProgramScore> averageScores,
+                           List<CityGender> cityGender,
+                           Map<String, Integer> genderCounts,
+                           ScoreHistogram scoreHistogram,
+                           List<ApplicantScore> topApplicants) {}
+}
@@ -0,0 +1,288 @@
+package org.example;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Materialized summaries of exam_scores and applications (see sql/sql schema.txt):
+ *
+ *   applicant_score_summary     score sum and count per applicant, plus the average as a
+ *                               stored generated column with an index on it, so the top
+ *                               applicants are an index range scan instead of an AVG over
+ *                               every score and a sort of every applicant;
+ *   program_acceptance_summary  accepted and total applications per program.
+ *
+ * CsvImporter keeps them up to date with a Delta, written in the same transaction as the
+ * rows: INSERT imports add the written rows, upserts also take out the old values of the
+ * rows they replace, and native bulk loads add the rows of the loaded file. Only when the
+ * delta can't be known (the CSV lacks a summarized column, or the server skipped some
+ * rows of a native load) does the importer recompute the summary instead.
+ * Writes made outside the importer are not seen; rebuild() (the "Rebuild summaries" button
+ * or main()) recomputes both tables from scratch. The views of the schema read the base
+ * tables, so only the dashboard, which knows about the summaries, depends on them.
+ *
+ * The summaries are optional. When the tables are not installed the importer skips them
+ * and the dashboard reads the base tables.
+ */
+public class SummaryTables {
+    public static final String SCORE_SUMMARY = "applicant_score_summary";
+    public static final String PROGRAM_SUMMARY = "program_acceptance_summary";
+
+    // summary deltas are written once this many keys have collected
+    private static final int FLUSH_KEYS = 50_000;
+
+    // Name of the summary fed by a base table, or null
+    static String summaryFor(String table) {
+        switch (table.toLowerCase(Locale.ROOT)) {
+            case "exam_scores":
+                return SCORE_SUMMARY;
+            case "applications":
+                return PROGRAM_SUMMARY;
+            default:
+                return null;
+        }
+    }
+
+    /* True if table has a summary and the summary tables are installed. */
+    public static boolean maintains(Connection conn, String table) throws SQLException {
+        String summary = summaryFor(table);
+        return summary != null && exists(conn, summary);
+    }
+
+    /* True if both summary tables exist in the connected database. */
+    public static boolean installed(Connection conn) throws SQLException {
+        return exists(conn, SCORE_SUMMARY) && exists(conn, PROGRAM_SUMMARY);
+    }
+
+    static boolean exists(Connection conn, String table) throws SQLException {
+        DatabaseMetaData md = conn.getMetaData();
+        for (String candidate : new String[] {table, table.toUpperCase(Locale.ROOT)}) {
+            try (ResultSet rs = md.getTables(conn.getCatalog(), null, candidate, new String[] {"TABLE"})) {
+                if (rs.next()) return true;
+            }
+        }
+        return false;
+    }
+
+    /* Recompute both summaries in one transaction. */
+    public static void rebuild(Connection conn) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            rebuild(conn, "exam_scores");
+            rebuild(conn, "applications");
+            conn.commit();
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    /* Recompute the summary of one base table. Runs in the caller's transaction. */
+    static void rebuild(Connection conn, String table) throws SQLException {
+        String summary = summaryFor(table);
+        if (summary == null) return;
+        try (Statement st = conn.createStatement()) {
+            st.executeUpdate("DELETE FROM " + summary);
+            if (summary.equals(SCORE_SUMMARY)) {
+                st.executeUpdate("INSERT INTO " + SCORE_SUMMARY + " (applicant_id, score_sum, score_count) "
+                        + "SELECT applicant_id, SUM(score), COUNT(*) FROM exam_scores GROUP BY applicant_id");
+            } else {
+                st.executeUpdate("INSERT INTO " + PROGRAM_SUMMARY + " (program, accepted_count, total_count) "
+                        + "SELECT program, SUM(CASE WHEN status='Accepted' THEN 1 ELSE 0 END), COUNT(*) "
+                        + "FROM applications GROUP BY program");
+            }
+        }
+    }
+
+    /*
+     * Collector for the rows an INSERT import writes to table, or null if the CSV lacks a
+     * column the summary needs (the importer rebuilds the summary then).
+     */
+    static Delta delta(Dialect dialect, String table, String[] cols) {
+        String summary = summaryFor(table);
+        if (summary == null) return null;
+        if (summary.equals(SCORE_SUMMARY)) {
+            int applicant = indexOf(cols, "applicant_id");
+            int score = indexOf(cols, "score");
+            return applicant < 0 || score < 0 ? null : new Delta(dialect, table, summary, cols, applicant, score, -1);
+        }
+        int program = indexOf(cols, "program");
+        int status = indexOf(cols, "status");
+        return program < 0 || status < 0 ? null : new Delta(dialect, table, summary, cols, program, status, -1);
+    }
+
+    /*
+     * Collector for the rows an upsert import writes to table, keyed by primaryKey; null
+     * if the CSV lacks a summarized column or the key is not a single CSV column.
+     */
+    static Delta delta(Dialect dialect, String table, String[] cols, List<String> primaryKey) {
+        Delta delta = delta(dialect, table, cols);
+        int pk = primaryKey.size() == 1 ? indexOf(cols, primaryKey.get(0)) : -1;
+        if (delta == null || pk < 0) return null;
+        return new Delta(dialect, table, delta.summary, cols, delta.keyColumn, delta.valueColumn, pk);
+    }
+
+    private static int indexOf(String[] cols, String name) {
+        for (int i = 0; i < cols.length; i++) {
+            if (cols[i].equalsIgnoreCase(name)) return i;
+        }
+        return -1;
+    }
+
+    /*
+     * Summary changes of the rows written since the last apply(), keyed by applicant_id
+     * (scores) or program (applications). Each key holds two counters: score sum and count,
+     * or accepted and total. For upserts the counters of a replaced row are subtracted
+     * first, so they can go negative; a summary row whose count reaches 0 is deleted.
+     * Used by the writer thread only.
+     */
+    static final class Delta {
+        private final Dialect dialect;
+        private final String table;
+        private final String summary;
+        private final String[] cols;
+        final int keyColumn;
+        final int valueColumn;
+        // column of the primary key for upserts, -1 for plain inserts
+        final int primaryKeyColumn;
+        private final Map<String, long[]> counters = new HashMap<>();
+
+        private Delta(Dialect dialect, String table, String summary, String[] cols, int keyColumn, int valueColumn,
+                      int primaryKeyColumn) {
+            this.dialect = dialect;
+            this.table = table;
+            this.summary = summary;
+            this.cols = cols;
+            this.keyColumn = keyColumn;
+            this.valueColumn = valueColumn;
+            this.primaryKeyColumn = primaryKeyColumn;
+        }
+
+        // key and value are the row's keyColumn and valueColumn values, neither NULL
+        void add(Object key, Object value) {
+            count(key, value, 1);
+        }
+
+        // a row that is about to be replaced, as read by currentRowsSql()
+        void subtract(Object key, Object value) {
+            count(key, value, -1);
+        }
+
+        private void count(Object key, Object value, int sign) {
+            long[] c = counters.computeIfAbsent(key.toString(), k -> new long[2]);
+            if (summary.equals(SCORE_SUMMARY)) {
+                long score = value instanceof Number ? ((Number) value).longValue() : Long.parseLong(value.toString().trim());
+                c[0] += sign * score;
+            } else if ("Accepted".equalsIgnoreCase(value.toString())) {
+                c[0] += sign;
+            }
+            c[1] += sign;
+        }
+
+        boolean replacesRows() {
+            return primaryKeyColumn >= 0;
+        }
+
+        /*
+         * Key and value columns of the stored rows with any of n primary keys, for an
+         * upsert batch to subtract before it replaces them.
+         */
+        String currentRowsSql(int n) {
+            StringBuilder sql = new StringBuilder("SELECT ").append(cols[keyColumn]).append(", ")
+                    .append(cols[valueColumn]).append(" FROM ").append(table)
+                    .append(" WHERE ").append(cols[primaryKeyColumn]).append(" IN (");
+            for (int i = 0; i < n; i++) sql.append(i == 0 ? "?" : ",?");
+            return sql.append(')').toString();
+        }
+
+        boolean isFull() {
+            return counters.size() >= FLUSH_KEYS;
+        }
+
+        void clear() {
+            counters.clear();
+        }
+
+        /* Add the collected counters to the summary table and start over. Does not commit. */
+        void apply(Connection conn) throws SQLException {
+            if (counters.isEmpty()) return;
+            List<String> shrunk = new ArrayList<>();
+            try (PreparedStatement ps = conn.prepareStatement(upsertSql())) {
+                for (Map.Entry<String, long[]> e : counters.entrySet()) {
+                    ps.setString(1, e.getKey());
+                    ps.setLong(2, e.getValue()[0]);
+                    ps.setLong(3, e.getValue()[1]);
+                    ps.addBatch();
+                    if (e.getValue()[1] < 0) shrunk.add(e.getKey());
+                }
+                ps.executeBatch();
+            }
+            if (!shrunk.isEmpty()) {
+                try (PreparedStatement ps = conn.prepareStatement("DELETE FROM " + summary + " WHERE "
+                        + keyName() + " = ? AND " + countName() + " <= 0")) {
+                    for (String key : shrunk) {
+                        ps.setString(1, key);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+            }
+            counters.clear();
+        }
+
+        private String keyName() {
+            return summary.equals(SCORE_SUMMARY) ? "applicant_id" : "program";
+        }
+
+        private String countName() {
+            return summary.equals(SCORE_SUMMARY) ? "score_count" : "total_count";
+        }
+
+        private String upsertSql() {
+            String key = keyName();
+            String a = summary.equals(SCORE_SUMMARY) ? "score_sum" : "accepted_count";
+            String b = countName();
+            String insert = String.format("INSERT INTO %s (%s, %s, %s) VALUES (?,?,?)", summary, key, a, b);
+            if (dialect == Dialect.POSTGRESQL) {
+                return insert.replace("INSERT INTO " + summary, "INSERT INTO " + summary + " AS s")
+                        + String.format(" ON CONFLICT (%s) DO UPDATE SET %s = s.%s + EXCLUDED.%s, %s = s.%s + EXCLUDED.%s",
+                        key, a, a, a, b, b, b);
+            }
+            return insert + String.format(" ON DUPLICATE KEY UPDATE %s = %s + VALUES(%s), %s = %s + VALUES(%s)",
+                    a, a, a, b, b, b);
+        }
+    }
+
+    /*
+     * Rebuild command: java org.example.SummaryTables <jdbc-url> <user> <password>
+     * for when the summaries have drifted (rows changed outside the importer).
+     */
+    public static void main(String[] args) throws SQLException {
+        if (args.length != 3) {
+            System.err.println("Usage: SummaryTables <jdbc-url> <user> <password>");
+            System.exit(2);
+        }
+        try (Connection conn = DriverManager.getConnection(args[0], args[1], args[2])) {
+            if (!installed(conn)) {
+                System.err.println("The summary tables are not installed; create them from sql/sql schema.txt first");
+                System.exit(1);
+            }
+            long started = System.nanoTime();
+            rebuild(conn);
+            System.out.printf("Summaries rebuilt in %d ms%n", (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package org.example;
+
+/*
+ * Times the load of one dashboard tab, from starting its queries to its content on
+ * screen, for a DashboardEvents.TabLoad event and SessionMetrics. Begun and ended on
+ * the EDT; a load that fails or is superseded is simply never ended.
+ */
+final class TabTrace {
+    private final DashboardEvents.TabLoad event = new DashboardEvents.TabLoad();
+    private final String tab;
+    private final int refresh;
+    private final long started;
+
+    private TabTrace(String tab, int refresh) {
+        this.tab = tab;
+        this.refresh = refresh;
+        event.begin();
+        started = System.nanoTime();
+    }
+
+    /* refresh: the dashboard's count of refreshes so far */
+    static TabTrace begin(String tab, int refresh) {
+        return new TabTrace(tab, refresh);
+    }
+
+    void end() {
+        SessionMetrics.record("Tab " + tab, System.nanoTime() - started);
+        event.end();
+        if (event.shouldCommit()) {
+            event.tab = tab;
+            event.refresh = refresh;
+            event.commit();
+        }
+    }
+}
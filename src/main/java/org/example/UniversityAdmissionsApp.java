@@ -6,16 +6,8 @@ import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.sql.*;
 import java.util.*;
-import java.text.DecimalFormat;
-import java.util.List;
 
 import org.jfree.chart.*;
-import org.jfree.data.category.DefaultCategoryDataset;
-import org.jfree.data.general.DefaultPieDataset;
-import org.jfree.data.statistics.HistogramDataset;
-import org.jfree.chart.plot.PlotOrientation;
-import org.jfree.chart.plot.PiePlot;
-import org.jfree.chart.labels.StandardPieSectionLabelGenerator;
 
 /*Main application class for the university dashboard
 This class creates a Swing JFrame to display data from a MYSQL database
@@ -23,8 +15,8 @@ using tables and JfreeCharts within a JTabbedPane
  */
 
 public class UniversityAdmissionsApp extends JFrame {
-    //databse connecton object//
-    private Connection connection;
+    //statistics shared by the tabs, read from the database once per data version//
+    private StatisticsRepository stats;
     //Text area displaying top applicants//
     private JTextArea outputArea;
     //Tabbed pane to organize different views//
@@ -33,13 +25,33 @@ public class UniversityAdmissionsApp extends JFrame {
     private JPanel cityGenderPanel;
     //table to display city and gender//
     private JTable cityGenderTable;
-
-    /*constructor for the university admissions app that initializes the user interface,
-    connects to the database and loads initial data*/
+    //tab contents, each filled in the background when the tab is first selected//
+    private final LoadingPanel cityGenderTab = new LoadingPanel("City & Gender Distribution");
+    private final LoadingPanel topApplicantsTab = new LoadingPanel("Top Applicants");
+    private final LoadingPanel[] chartTabs = {new LoadingPanel("Charts: Acceptance Rates"),
+            new LoadingPanel("Charts: Exam Scores"), new LoadingPanel("Charts: Gender"),
+            new LoadingPanel("Charts: Average Scores")};
+    private LazyTabs tabs;
+    private final StartupTimer startup = new StartupTimer();
+    //the charts tab, reloaded when any table changed//
+    private JPanel chartsPanel;
+    //the charts in the chart tabs, created when the charts tab is first loaded//
+    private CachedChartPanel[] chartPanels;
+    //count of refreshes that reloaded tabs, for the tab load times//
+    private int refreshes;
+
+    /*constructor for the university admissions app that initializes the user interface
+    and the connection pool. The data is loaded once the window is open, tab by tab*/
     public UniversityAdmissionsApp() {
-        initializeUI();
         connectToDatabase();
-        loadData();
+        initializeUI();
+        addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowOpened(java.awt.event.WindowEvent e) {
+                startup.frameShown();
+                loadData();
+            }
+        });
     }
     /*Set up main JFrame and its components*/
 
@@ -50,11 +62,13 @@ public class UniversityAdmissionsApp extends JFrame {
 
         // Create main tabbed pane
         tabbedPane = new JTabbedPane();
+        tabs = new LazyTabs(tabbedPane);
 
         // Create panels for different sections
         createCityGenderPanel();
         createChartsPanel();
         createTopApplicantsPanel();
+        tabs.addTab("Metrics", new MetricsPanel(), () -> {});
 
         // Add main components
         add(tabbedPane, BorderLayout.CENTER);
@@ -71,14 +85,10 @@ public class UniversityAdmissionsApp extends JFrame {
 //Establishes connection to MYSQL databse//
     private void connectToDatabase() {
         try {
-            //load the mysql JDBC driver//
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            //Connect to the database//
-            connection = DriverManager.getConnection(
-                    "jdbc:mysql://localhost:3306/University_admissions",
-                    "root",
-                    "Ken@2018"
-            );
+            //the statistics queries borrow pooled connections; nothing is opened before the first query//
+            ConnectionPool pool = new ConnectionPool(
+                    new DatabaseConfig("MySQL", "localhost", "3306", "University_admissions", "root", "Ken@2018"));
+            stats = new StatisticsRepository(null, pool, null);
         } catch (Exception e) {
             showError("Database Connection Error", e);
         }
@@ -89,21 +99,30 @@ public class UniversityAdmissionsApp extends JFrame {
         cityGenderTable = new JTable();
         JScrollPane scrollPane = new JScrollPane(cityGenderTable);
         cityGenderPanel.add(scrollPane, BorderLayout.CENTER);
-        tabbedPane.addTab("City & Gender Distribution", cityGenderPanel);
+        tabs.addTab("City & Gender Distribution", cityGenderTab, () -> publish(stats.cityGender(), cityGenderTab, cg -> {
+            loadCityGenderData(cg);
+            cityGenderTab.showContent(cityGenderPanel);
+        }));
     }
-//creates a pannel for the charts//
+//creates a pannel for the charts; each chart appears as soon as its own data is there//
     private void createChartsPanel() {
-        JPanel chartsPanel = new JPanel(new GridLayout(2, 2, 10, 10));
-        tabbedPane.addTab("Charts", chartsPanel);
-
-        try {
-            chartsPanel.add(createAcceptanceRatesChart());
-            chartsPanel.add(createExamScoresHistogram());
-            chartsPanel.add(createGenderDistributionChart());
-            chartsPanel.add(createAverageScoresChart());
-        } catch (Exception e) {
-            showError("Error Creating Charts", e);
-        }
+        chartsPanel = new JPanel(new GridLayout(2, 2, 10, 10));
+        for (LoadingPanel chart : chartTabs) chartsPanel.add(chart);
+        tabs.addTab("Charts", chartsPanel, () -> {
+            if (chartPanels == null) {
+                //empty charts; every load refills their datasets, so a refresh creates no new charts//
+                chartPanels = new CachedChartPanel[] {
+                        new CachedChartPanel(DashboardCharts.acceptanceRates(java.util.List.of())),
+                        new CachedChartPanel(DashboardCharts.scoreHistogram(new ScoreHistogram(new long[ScoreHistogram.MAX_SCORE + 1]), 5)),
+                        new CachedChartPanel(DashboardCharts.genderDistribution(Map.of())),
+                        new CachedChartPanel(DashboardCharts.averageScores(java.util.List.of()))
+                };
+            }
+            publish(stats.acceptanceRates(), chartTabs[0], r -> showChart(0, c -> DashboardCharts.setAcceptanceRates(c, r)));
+            publish(stats.scoreHistogram(), chartTabs[1], h -> showChart(1, c -> DashboardCharts.setScoreHistogram(c, h, 5)));
+            publish(stats.genderCounts(), chartTabs[2], g -> showChart(2, c -> DashboardCharts.setGenderDistribution(c, g)));
+            publish(stats.averageScores(), chartTabs[3], a -> showChart(3, c -> DashboardCharts.setAverageScores(c, a)));
+        });
     }
     //creates panel for top applicants tab//
 
@@ -113,203 +132,90 @@ public class UniversityAdmissionsApp extends JFrame {
         outputArea.setEditable(false);
         JScrollPane scrollPane = new JScrollPane(outputArea);
         topApplicantsPanel.add(scrollPane, BorderLayout.CENTER);
-        tabbedPane.addTab("Top Applicants", topApplicantsPanel);
-    }
-//Creates a bar chart panel showing acceptance rates per program//
-    private JPanel createAcceptanceRatesChart() throws SQLException {
-        JPanel panel = new JPanel(new BorderLayout());
-        //dataset for barchart//
-        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
-
-        try (Statement stmt = connection.createStatement()) {
-            String query = "SELECT b.program, " +
-                    "COUNT(CASE WHEN b.status='Accepted' THEN 1 END)*100.0/COUNT(b.application_id) AS acceptanceRate " +
-                    "FROM applicants AS a LEFT JOIN applications AS b ON a.applicant_id=b.applicant_id " +
-                    "GROUP BY b.program";
-            ResultSet rs = stmt.executeQuery(query);
-         //populate dataset from query results//
-            while (rs.next()) {
-                dataset.addValue(rs.getDouble("acceptanceRate"),
-                        "Acceptance Rate",
-                        rs.getString("program"));
+        tabs.addTab("Top Applicants", topApplicantsTab, () -> publish(stats.topApplicants(), topApplicantsTab, top -> {
+            loadTopApplicants(top);
+            topApplicantsTab.showContent(topApplicantsPanel);
+        }));
+    }
+//shows a chart in its tab, with its dataset refilled from the new data//
+    private void showChart(int index, java.util.function.Consumer<JFreeChart> update) {
+        update.accept(chartPanels[index].getChart());
+        chartTabs[index].showContent(chartPanels[index]);
+    }
+
+    /*
+     * Hand the result of a query to the EDT, unless the tab has started another load since.
+     * A failure is shown in the tab.
+     */
+    private <T> void publish(java.util.concurrent.CompletableFuture<T> future, LoadingPanel tab,
+                             java.util.function.Consumer<T> show) {
+        int ticket = tab.beginLoad();
+        TabTrace trace = TabTrace.begin(tab.getName(), refreshes);
+        future.whenComplete((value, error) -> SwingUtilities.invokeLater(() -> {
+            if (!tab.isCurrent(ticket)) return;
+            if (error == null) {
+                show.accept(value);
+                trace.end();
+                startup.dataShown();
+                return;
             }
+            Throwable cause = error.getCause() != null ? error.getCause() : error;
+            cause.printStackTrace();
+            tab.showError(cause.getMessage());
+        }));
+    }
+
+    private void loadCityGenderData(java.util.List<StatisticsRepository.CityGender> cityGender) {
+        // Create table model and update the table
+        Vector<String> columnNames = new Vector<>(Arrays.asList("City", "Gender", "Count"));
+        Vector<Vector<Object>> data = new Vector<>();
+
+        for (StatisticsRepository.CityGender cg : cityGender) {
+            Vector<Object> row = new Vector<>();
+            row.add(cg.city());
+            row.add(cg.gender());
+            row.add(cg.count());
+            data.add(row);
         }
-   //Creates the barchart using JFreeChart's chart factory
-        JFreeChart chart = ChartFactory.createBarChart(
-                "Acceptance Rate per Program",
-                "Program",
-                "Acceptance Rate (%)",
-                dataset,
-                PlotOrientation.VERTICAL,
-                true, true, false
-        );
-
-        ChartPanel chartPanel = new ChartPanel(chart);
-        panel.add(chartPanel);
-        return panel;
-    }
-//creates a histogram panel//
-    private JPanel createExamScoresHistogram() throws SQLException {
-        JPanel panel = new JPanel(new BorderLayout());
-        List<Double> scores = new ArrayList<>();
-     //fetches all scores from database//
-        try (Statement stmt = connection.createStatement()) {
-            ResultSet rs = stmt.executeQuery("SELECT score FROM exam_scores");
-            while (rs.next()) {
-                scores.add(rs.getDouble("score"));
-            }
-        }
-// convert list<Double> to double[] array
-        double[] scoreArray = scores.stream().mapToDouble(d -> d).toArray();
-        //create dataset for histogram//
-        HistogramDataset dataset = new HistogramDataset();
-        dataset.addSeries("Scores", scoreArray, 20);
-
-        JFreeChart chart = ChartFactory.createHistogram(
-                "Distribution of Exam Scores",
-                "Score",
-                "Frequency",
-                dataset,
-                PlotOrientation.VERTICAL,
-                true, true, false
-        );
-
-        ChartPanel chartPanel = new ChartPanel(chart);
-        panel.add(chartPanel);
-        return panel;
-    }
-
-    private JPanel createGenderDistributionChart() throws SQLException {
-        JPanel panel = new JPanel(new BorderLayout());
-        DefaultPieDataset dataset = new DefaultPieDataset();
-
-        try (Statement stmt = connection.createStatement()) {
-            ResultSet rs = stmt.executeQuery(
-                    "SELECT gender, COUNT(*) as count FROM applicants GROUP BY gender"
-            );
-            while (rs.next()) {
-                dataset.setValue(rs.getString("gender"), rs.getInt("count"));
-            }
-        }
-
-        JFreeChart chart = ChartFactory.createPieChart(
-                "Gender Distribution",
-                dataset,
-                true, true, false
-        );
-
-        PiePlot plot = (PiePlot) chart.getPlot();
-        plot.setLabelGenerator(new StandardPieSectionLabelGenerator(
-                "{0}: {1} ({2})",
-                new DecimalFormat("0"),
-                new DecimalFormat("0.0%")
-        ));
 
-        ChartPanel chartPanel = new ChartPanel(chart);
-        panel.add(chartPanel);
-        return panel;
+        cityGenderTable.setModel(new DefaultTableModel(data, columnNames));
     }
 
-    private JPanel createAverageScoresChart() throws SQLException {
-        JPanel panel = new JPanel(new BorderLayout());
-        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+    private void loadTopApplicants(java.util.List<StatisticsRepository.ApplicantScore> top) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Top 10 Applicants by Average Exam Score:\n\n");
 
-        try (Statement stmt = connection.createStatement()) {
-            ResultSet rs = stmt.executeQuery(
-                    "SELECT b.program, AVG(score) as avg_score " +
-                            "FROM exam_scores e " +
-                            "JOIN applications b ON e.applicant_id = b.applicant_id " +
-                            "GROUP BY b.program"
-            );
-
-            while (rs.next()) {
-                dataset.addValue(rs.getDouble("avg_score"),
-                        "Average Score",
-                        rs.getString("program"));
-            }
+        for (StatisticsRepository.ApplicantScore a : top) {
+            sb.append(String.format("%s %s: %.2f\n", a.firstName(), a.lastName(), a.average()));
         }
 
-        JFreeChart chart = ChartFactory.createBarChart(
-                "Average Exam Scores by Program",
-                "Program",
-                "Average Score",
-                dataset,
-                PlotOrientation.VERTICAL,
-                true, true, false
-        );
-
-        ChartPanel chartPanel = new ChartPanel(chart);
-        panel.add(chartPanel);
-        return panel;
+        outputArea.setText(sb.toString());
     }
 
+    //first load: the selected tab now, the others when selected//
     private void loadData() {
-        try {
-            loadCityGenderData();
-            loadTopApplicants();
-        } catch (Exception e) {
-            showError("Error Loading Data", e);
-        }
-    }
-
-    private void loadCityGenderData() throws SQLException {
-        try (Statement stmt = connection.createStatement()) {
-            ResultSet rs = stmt.executeQuery(
-                    "SELECT city, gender, COUNT(*) as count " +
-                            "FROM applicants GROUP BY city, gender ORDER BY city, gender"
-            );
-
-            // Create table model and update the table
-            Vector<String> columnNames = new Vector<>(Arrays.asList("City", "Gender", "Count"));
-            Vector<Vector<Object>> data = new Vector<>();
-
-            while (rs.next()) {
-                Vector<Object> row = new Vector<>();
-                row.add(rs.getString("city"));
-                row.add(rs.getString("gender"));
-                row.add(rs.getInt("count"));
-                data.add(row);
-            }
-
-            cityGenderTable.setModel(new DefaultTableModel(data, columnNames));
-        }
-    }
-
-    private void loadTopApplicants() throws SQLException {
-        try (Statement stmt = connection.createStatement()) {
-            ResultSet rs = stmt.executeQuery(
-                    "SELECT a.first_name, a.last_name, AVG(score) as avg_score " +
-                            "FROM exam_scores e " +
-                            "JOIN applicants a ON e.applicant_id = a.applicant_id " +
-                            "GROUP BY a.applicant_id, a.first_name, a.last_name " +
-                            "ORDER BY avg_score DESC LIMIT 10"
-            );
-
-            StringBuilder sb = new StringBuilder();
-            sb.append("Top 10 Applicants by Average Exam Score:\n\n");
-
-            while (rs.next()) {
-                sb.append(String.format("%s %s: %.2f\n",
-                        rs.getString("first_name"),
-                        rs.getString("last_name"),
-                        rs.getDouble("avg_score")
-                ));
-            }
-
-            outputArea.setText(sb.toString());
-        }
+        if (stats == null) return; // no database configured (already reported)
+        stats.refresh(); // the baseline for refreshData()
+        tabs.reload();
     }
 
+    //reload only the tabs built from a table that changed since the last probe//
     private void refreshData() {
-        try {
-            loadData();
-            tabbedPane.removeAll();
-            createCityGenderPanel();
-            createChartsPanel();
-            createTopApplicantsPanel();
-        } catch (Exception e) {
-            showError("Error Refreshing Data", e);
-        }
+        if (stats == null) return;
+        stats.refresh().whenComplete((changed, error) -> SwingUtilities.invokeLater(() -> {
+            if (error != null) {
+                showError("Error Refreshing Data", error.getCause() instanceof Exception ? (Exception) error.getCause() : new Exception(error));
+                return;
+            }
+            if (changed.isEmpty()) return;
+            refreshes++;
+            Set<StatisticsRepository.Part> affected = StatisticsRepository.affected(changed);
+            java.util.List<Component> stale = new ArrayList<>();
+            if (affected.contains(StatisticsRepository.Part.CITY_GENDER)) stale.add(cityGenderTab);
+            if (affected.contains(StatisticsRepository.Part.TOP_APPLICANTS)) stale.add(topApplicantsTab);
+            stale.add(chartsPanel); // every table feeds one of the four charts
+            tabs.reload(stale);
+        }));
     }
 
     private void showError(String title, Exception e) {
@@ -327,6 +233,8 @@ public class UniversityAdmissionsApp extends JFrame {
         } catch (Exception e) {
             e.printStackTrace();
         }
+        // logs the stack of the EDT whenever it stops responding for a while
+        EdtWatchdog.install();
 
         EventQueue.invokeLater(() -> {
             try {
@@ -5,18 +5,18 @@ import javax.swing.*;
 import java.awt.*;
 import java.sql.*;
 import java.util.*;
-import java.text.DecimalFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import org.jfree.chart.*;
-import org.jfree.data.category.DefaultCategoryDataset;
-import org.jfree.data.general.DefaultPieDataset;
-import org.jfree.data.statistics.HistogramDataset;
-import org.jfree.chart.plot.PlotOrientation;
-import org.jfree.chart.plot.PiePlot;
-import org.jfree.chart.labels.StandardPieSectionLabelGenerator;
 
 public class UniversityAdmissionsGUI extends JFrame {
-    //hold active connection to mysql database//
+    //hold active connection to mysql database (null when only the pool is used)//
     private Connection connection;
+    //pool the statistics queries borrow from, or null//
+    private ConnectionPool pool;
+    //statistics shared by all tabs, read from the database once per data version//
+    private StatisticsRepository stats;
     //A text area at the bottom to display summary like top 10//
     private JTextArea outputArea;
     // Table models so we can refresh data without rebuilding UI
@@ -24,6 +24,37 @@ public class UniversityAdmissionsGUI extends JFrame {
     private javax.swing.table.DefaultTableModel avgScoresTableModel;
     private JTable acceptanceTable;
     private JTable avgScoresTable;
+    // "no filter" entry of the histogram's subject and program lists
+    private static final String ALL = "(All)";
+    // Tab contents; each shows a busy indicator until its own query has finished
+    private final LoadingPanel cityGenderTab = new LoadingPanel("City & Gender");
+    private final LoadingPanel acceptanceChartTab = new LoadingPanel("Acceptance Rates (Chart)");
+    private final LoadingPanel acceptanceTableTab = new LoadingPanel("Acceptance Rates (Table)");
+    private final LoadingPanel avgChartTab = new LoadingPanel("Average Scores (Chart)");
+    private final LoadingPanel avgTableTab = new LoadingPanel("Average Scores (Table)");
+    private final LoadingPanel histogramTab = new LoadingPanel("Exam Score Distribution");
+    private final LoadingPanel genderTab = new LoadingPanel("Gender Distribution");
+    private JPanel acceptanceTablePanel;
+    // The charts, kept across refreshes (EDT only)
+    private CachedChartPanel acceptanceChart;
+    private CachedChartPanel avgChart;
+    private CachedChartPanel genderChart;
+    private CachedChartPanel histogramChart;
+    private JPanel avgScoresTablePanel;
+    // Bumped by every load of the output area (EDT only); an older summary or drill-down is dropped
+    private int outputLoads;
+    // What each tab shows: the statistics (or, for the browsers, the table) it is built from
+    private final Map<Component, Set<StatisticsRepository.Part>> tabParts = new HashMap<>();
+    private final Map<Component, String> browserTables = new HashMap<>();
+    // Probe interval of the auto-refresh
+    private static final int AUTO_REFRESH_MS = 10_000;
+    private boolean probing;
+    // Same for the histogram filters: only the latest selection is drawn
+    private int histogramRequest;
+    // Count of refreshes (full or of the changed tabs), for the tab load times (EDT only)
+    private int refreshes;
+    private LazyTabs tabs;
+    private final StartupTimer startup = new StartupTimer();
 
     /*
      * Default constructor - will attempt to initialize the database using
@@ -31,8 +62,9 @@ public class UniversityAdmissionsGUI extends JFrame {
      */
     public UniversityAdmissionsGUI() {
         try {
-            // establish database connection//
+            // the pool connects on first use, so the window shows before the database is touched//
             initializeDatabase();
+            stats = new StatisticsRepository(null, pool, null);
             //build graphical user interface
             buildUI();
         } catch (Exception e) {
@@ -49,8 +81,18 @@ public class UniversityAdmissionsGUI extends JFrame {
      * the user for host/user/password).
      */
     public UniversityAdmissionsGUI(Connection connection) {
+        this(connection, null);
+    }
+
+    /*
+     * As above; with a pool the dashboard queries run side by side, each on a pooled
+     * connection, instead of one after the other on 'connection'.
+     */
+    public UniversityAdmissionsGUI(Connection connection, ConnectionPool pool) {
         //Build UI immediately since  connection is ready//
         this.connection = connection;
+        this.pool = pool;
+        this.stats = new StatisticsRepository(connection, pool, null);
         try {
             buildUI();
         } catch (Exception e) {
@@ -62,7 +104,8 @@ public class UniversityAdmissionsGUI extends JFrame {
     }
 
     /*
-     * Shared UI construction (assumes 'connection' is set).
+     * Shared UI construction (assumes 'connection' or 'pool' is set). Reads no data: each
+     * tab is loaded when first selected, starting with the selected one once the window is open.
      */
     private void buildUI() {
         //Basic window setup//
@@ -82,13 +125,48 @@ public class UniversityAdmissionsGUI extends JFrame {
         try {
             // Add tabs
             //creates a each tab's content a JPannel and add it to its tabbed pane//
-            tabbedPane.addTab("City & Gender", createCityGenderPanel());
-            tabbedPane.addTab("Acceptance Rates (Chart)", createAcceptanceRatesChart());
-            tabbedPane.addTab("Acceptance Rates (Table)", createAcceptanceRatesTablePanel());
-            tabbedPane.addTab("Average Scores (Chart)", createAverageScoresChart());
-            tabbedPane.addTab("Average Scores (Table)", createAverageScoresTablePanel());
-            tabbedPane.addTab("Exam Score Distribution", createExamScoresHistogram());
-            tabbedPane.addTab("Gender Distribution", createGenderDistributionChart());
+            //the content is filled in on first selection, as the statistics arrive//
+            tabs = new LazyTabs(tabbedPane);
+            tabs.addTab("City & Gender", cityGenderTab, () -> publish(stats.cityGender(), cityGenderTab,
+                    cg -> cityGenderTab.showContent(createCityGenderPanel(cg))));
+            tabs.addTab("Acceptance Rates (Chart)", acceptanceChartTab, () -> publish(stats.acceptanceRates(), acceptanceChartTab,
+                    r -> acceptanceChartTab.showContent(acceptanceRatesChart(r))));
+            tabs.addTab("Acceptance Rates (Table)", acceptanceTableTab, () -> publish(stats.acceptanceRates(), acceptanceTableTab, r -> {
+                populateAcceptanceTable(r);
+                acceptanceTableTab.showContent(acceptanceTablePanel);
+            }));
+            tabs.addTab("Average Scores (Chart)", avgChartTab, () -> publish(stats.averageScores(), avgChartTab,
+                    a -> avgChartTab.showContent(averageScoresChart(a))));
+            tabs.addTab("Average Scores (Table)", avgTableTab, () -> publish(stats.averageScores(), avgTableTab, a -> {
+                populateAverageScoresTable(a);
+                avgTableTab.showContent(avgScoresTablePanel);
+            }));
+            tabs.addTab("Exam Score Distribution", histogramTab, this::loadHistogramTab);
+            tabs.addTab("Gender Distribution", genderTab, () -> publish(stats.genderCounts(), genderTab,
+                    g -> genderTab.showContent(genderDistributionChart(g))));
+            //browsers over the whole tables, read page by page while scrolling//
+            PagedTableModel applicants = new PagedTableModel(connection, pool, PagedTableModel.Source.APPLICANTS);
+            PagedTableModel applications = new PagedTableModel(connection, pool, PagedTableModel.Source.APPLICATIONS);
+            JPanel applicantsBrowser = createTableBrowser(applicants);
+            JPanel applicationsBrowser = createTableBrowser(applications);
+            tabs.addTab("Applicants", applicantsBrowser, applicants::reload);
+            tabs.addTab("Applications", applicationsBrowser, applications::reload);
+            //latencies of this session's queries, imports and tab loads//
+            tabs.addTab("Metrics", new MetricsPanel(), () -> {});
+
+            //which tabs a change of a table makes stale//
+            tabParts.put(cityGenderTab, EnumSet.of(StatisticsRepository.Part.CITY_GENDER));
+            tabParts.put(genderTab, EnumSet.of(StatisticsRepository.Part.CITY_GENDER));
+            tabParts.put(acceptanceChartTab, EnumSet.of(StatisticsRepository.Part.ACCEPTANCE_RATES));
+            tabParts.put(acceptanceTableTab, EnumSet.of(StatisticsRepository.Part.ACCEPTANCE_RATES));
+            tabParts.put(avgChartTab, EnumSet.of(StatisticsRepository.Part.AVERAGE_SCORES));
+            tabParts.put(avgTableTab, EnumSet.of(StatisticsRepository.Part.AVERAGE_SCORES));
+            tabParts.put(histogramTab, EnumSet.of(StatisticsRepository.Part.SCORE_HISTOGRAM,
+                    StatisticsRepository.Part.SUBJECTS, StatisticsRepository.Part.ACCEPTANCE_RATES));
+            browserTables.put(applicantsBrowser, ChangeProbe.APPLICANTS);
+            browserTables.put(applicationsBrowser, ChangeProbe.APPLICATIONS);
+            acceptanceTablePanel = createAcceptanceRatesTablePanel();
+            avgScoresTablePanel = createAverageScoresTablePanel();
 
             // Create text output area for the bottom//
             outputArea = new JTextArea(10, 40);
@@ -108,18 +186,44 @@ public class UniversityAdmissionsGUI extends JFrame {
             gbc.weighty = 0.3;
             mainPanel.add(scrollPane, gbc);
 
-            // Add refresh button
+            // Add refresh button (re-reads what changed in the database since the last refresh)
             JButton refreshButton = new JButton("Refresh Data");
-            refreshButton.addActionListener(e -> refreshData());
+            refreshButton.addActionListener(e -> refreshChanged(true));
+            // Auto-refresh: the same, on a timer; an unchanged database costs one probe query
+            javax.swing.Timer autoRefresh = new javax.swing.Timer(AUTO_REFRESH_MS, e -> refreshChanged(false));
+            JCheckBox autoRefreshBox = new JCheckBox("Auto-refresh");
+            autoRefreshBox.addActionListener(e -> {
+                if (autoRefreshBox.isSelected()) autoRefresh.start(); else autoRefresh.stop();
+            });
+            // In-memory analytics: load the tables once and compute the statistics locally
+            JCheckBox inMemoryBox = new JCheckBox("In-memory analytics");
+            inMemoryBox.addActionListener(e -> {
+                stats.setInMemory(inMemoryBox.isSelected());
+                refreshData();
+            });
+            // Recompute the summary tables when they have drifted from the base tables
+            JButton rebuildButton = new JButton("Rebuild Summaries");
+            rebuildButton.addActionListener(e -> rebuildSummaries());
+            JPanel buttons = new JPanel(new FlowLayout(FlowLayout.CENTER));
+            buttons.add(refreshButton);
+            buttons.add(rebuildButton);
+            buttons.add(inMemoryBox);
+            buttons.add(autoRefreshBox);
             gbc.gridy = 2;
             gbc.weighty = 0.05;
             gbc.fill = GridBagConstraints.NONE;
-            mainPanel.add(refreshButton, gbc);
+            mainPanel.add(buttons, gbc);
 
             add(mainPanel);
 
-            // Initial data load (off the EDT)
-            SwingUtilities.invokeLater(this::refreshData);
+            // Initial data load once the first frame is up
+            addWindowListener(new java.awt.event.WindowAdapter() {
+                @Override
+                public void windowOpened(java.awt.event.WindowEvent e) {
+                    startup.frameShown();
+                    refreshData();
+                }
+            });
         } catch (Exception e) {
             JOptionPane.showMessageDialog(this, "Error building UI: " + e.getMessage(), "UI Error", JOptionPane.ERROR_MESSAGE);
             e.printStackTrace();
@@ -130,88 +234,71 @@ public class UniversityAdmissionsGUI extends JFrame {
         setLocationRelativeTo(null);
     }
 
-    private void initializeDatabase() throws ClassNotFoundException, SQLException {
-        Class.forName("com.mysql.cj.jdbc.Driver");
-        connection = DriverManager.getConnection(
-                "jdbc:mysql://localhost:3306/University_admissions",
-                "root",
-                "Ken@2018"
-        );
+    private void initializeDatabase() {
+        pool = new ConnectionPool(
+                new DatabaseConfig("MySQL", "localhost", "3306", "University_admissions", "root", "Ken@2018"));
     }
 
-    private JPanel createAcceptanceRatesChart() throws SQLException {
-        JPanel panel = new JPanel(new BorderLayout());
-        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
-
-        try (Statement stmt = connection.createStatement()) {
-            String query = "SELECT b.program, COUNT(CASE WHEN b.status='Accepted' THEN 1 END) AS Accepted, " +
-                    "COUNT(b.application_id) AS totalCount, " +
-                    "(COUNT(CASE WHEN b.status='Accepted' THEN 1 END)*100/COUNT(b.application_id)) AS acceptanceRate " +
-                    "FROM applicants AS a LEFT JOIN applications AS b ON a.applicant_id=b.applicant_id " +
-                    "GROUP BY b.program";
-            ResultSet rs = stmt.executeQuery(query);
-
-            while (rs.next()) {
-                dataset.addValue(rs.getDouble("acceptanceRate"),
-                        "Acceptance Rate",
-                        rs.getString("program"));
-            }
+    // The first load creates the chart; later loads refill its dataset, which redraws it once
+    private CachedChartPanel acceptanceRatesChart(List<StatisticsRepository.ProgramRate> rates) {
+        if (acceptanceChart == null) {
+            acceptanceChart = chartPanel(DashboardCharts.acceptanceRates(rates));
+        } else {
+            DashboardCharts.setAcceptanceRates(acceptanceChart.getChart(), rates);
         }
+        return acceptanceChart;
+    }
 
-        JFreeChart chart = ChartFactory.createBarChart(
-                "Acceptance Rate per Program",
-                "Program",
-                "Acceptance Rate (%)",
-                dataset,
-                PlotOrientation.VERTICAL,
-                true, true, false
-        );
-
-        ChartPanel chartPanel = new ChartPanel(chart);
+    private static CachedChartPanel chartPanel(JFreeChart chart) {
+        CachedChartPanel chartPanel = new CachedChartPanel(chart);
         chartPanel.setPreferredSize(new Dimension(800, 400));
-        panel.add(chartPanel, BorderLayout.CENTER);
-
-        return panel;
+        return chartPanel;
     }
 
-    private JPanel createCityGenderPanel() throws SQLException {
+    private JPanel createCityGenderPanel(List<StatisticsRepository.CityGender> cityGender) {
         JPanel panel = new JPanel(new BorderLayout());
         javax.swing.table.DefaultTableModel model = null;
 
-        try (Statement stmt = connection.createStatement()) {
-            ResultSet rs = stmt.executeQuery(
-                    "SELECT city, gender, COUNT(*) as count FROM applicants GROUP BY city, gender ORDER BY city, gender"
-            );
-
-            java.util.Vector<String> columnNames = new java.util.Vector<>();
-            columnNames.add("City");
-            columnNames.add("Gender");
-            columnNames.add("Count");
-
-            java.util.Vector<java.util.Vector<Object>> data = new java.util.Vector<>();
-            while (rs.next()) {
-                java.util.Vector<Object> row = new java.util.Vector<>();
-                row.add(rs.getString("city"));
-                row.add(rs.getString("gender"));
-                row.add(rs.getInt("count"));
-                data.add(row);
-            }
-
-            model = new javax.swing.table.DefaultTableModel(data, columnNames) {
-                @Override
-                public boolean isCellEditable(int row, int column) {
-                    return false;
-                }
-            };
+        java.util.Vector<String> columnNames = new java.util.Vector<>();
+        columnNames.add("City");
+        columnNames.add("Gender");
+        columnNames.add("Count");
+
+        java.util.Vector<java.util.Vector<Object>> data = new java.util.Vector<>();
+        for (StatisticsRepository.CityGender cg : cityGender) {
+            java.util.Vector<Object> row = new java.util.Vector<>();
+            row.add(cg.city());
+            row.add(cg.gender());
+            row.add(cg.count());
+            data.add(row);
         }
 
+        model = new javax.swing.table.DefaultTableModel(data, columnNames) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+
         JTable table = new JTable(model);
         table.setFillsViewportHeight(true);
+        table.setToolTipText("Double-click a row for the statistics of that city and gender");
+        // drill down: show the statistics of one city/gender group in the output area
+        table.addMouseListener(new java.awt.event.MouseAdapter() {
+            @Override
+            public void mouseClicked(java.awt.event.MouseEvent e) {
+                int row = table.rowAtPoint(e.getPoint());
+                if (e.getClickCount() == 2 && row >= 0) {
+                    int r = table.convertRowIndexToModel(row);
+                    showDrillDown((String) table.getModel().getValueAt(r, 0), (String) table.getModel().getValueAt(r, 1));
+                }
+            }
+        });
         panel.add(new JScrollPane(table), BorderLayout.CENTER);
         return panel;
     }
 
-    private JPanel createAcceptanceRatesTablePanel() throws SQLException {
+    private JPanel createAcceptanceRatesTablePanel() {
         JPanel panel = new JPanel(new BorderLayout());
         java.util.Vector<String> cols = new java.util.Vector<>();
         cols.add("Program");
@@ -224,12 +311,10 @@ public class UniversityAdmissionsGUI extends JFrame {
         };
         acceptanceTable = new JTable(acceptanceTableModel);
         panel.add(new JScrollPane(acceptanceTable), BorderLayout.CENTER);
-        // populate
-        populateAcceptanceTable();
         return panel;
     }
 
-    private JPanel createAverageScoresTablePanel() throws SQLException {
+    private JPanel createAverageScoresTablePanel() {
         JPanel panel = new JPanel(new BorderLayout());
         java.util.Vector<String> cols = new java.util.Vector<>();
         cols.add("Program");
@@ -240,213 +325,329 @@ public class UniversityAdmissionsGUI extends JFrame {
         };
         avgScoresTable = new JTable(avgScoresTableModel);
         panel.add(new JScrollPane(avgScoresTable), BorderLayout.CENTER);
-        populateAverageScoresTable();
         return panel;
     }
 
-    private void populateAcceptanceTable() {
-        if (connection == null || acceptanceTableModel == null) return;
+    private JPanel createTableBrowser(PagedTableModel model) {
+        JPanel panel = new JPanel(new BorderLayout());
+        JTable table = new JTable(model);
+        table.setFillsViewportHeight(true);
+        JLabel status = new JLabel(" ");
+        // row count (still growing while the keys are scanned) or the last error
+        model.addTableModelListener(e -> {
+            String error = model.getError();
+            status.setText(error != null ? "Error: " + error
+                    : String.format("%,d rows%s", model.getRowCount(), model.isScanDone() ? "" : " (counting...)"));
+        });
+        panel.add(new JScrollPane(table), BorderLayout.CENTER);
+        panel.add(status, BorderLayout.SOUTH);
+        return panel;
+    }
+
+    private void populateAcceptanceTable(List<StatisticsRepository.ProgramRate> rates) {
         acceptanceTableModel.setRowCount(0);
-        try (Statement stmt = connection.createStatement()) {
-            String q = "SELECT b.program, COUNT(CASE WHEN b.status='Accepted' THEN 1 END) AS Accepted, " +
-                    "COUNT(b.application_id) AS totalCount, " +
-                    "(COUNT(CASE WHEN b.status='Accepted' THEN 1 END)*100/COUNT(b.application_id)) AS acceptanceRate " +
-                    "FROM applicants AS a LEFT JOIN applications AS b ON a.applicant_id=b.applicant_id " +
-                    "GROUP BY b.program";
-            ResultSet rs = stmt.executeQuery(q);
-            while (rs.next()) {
-                String program = rs.getString("program");
-                int accepted = rs.getInt("Accepted");
-                int total = rs.getInt("totalCount");
-                double rate = rs.getDouble("acceptanceRate");
-                acceptanceTableModel.addRow(new Object[] { program, accepted, total, String.format("%.2f", rate) });
-            }
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this, "Error loading acceptance table: " + e.getMessage(), "DB Error", JOptionPane.ERROR_MESSAGE);
-            e.printStackTrace();
+        for (StatisticsRepository.ProgramRate r : rates) {
+            acceptanceTableModel.addRow(new Object[] { r.program(), r.accepted(), r.total(), String.format("%.2f", r.rate()) });
         }
     }
 
-    private void populateAverageScoresTable() {
-        if (connection == null || avgScoresTableModel == null) return;
+    private void populateAverageScoresTable(List<StatisticsRepository.ProgramScore> averages) {
         avgScoresTableModel.setRowCount(0);
-        try (Statement stmt = connection.createStatement()) {
-            String q = "SELECT b.program, AVG(e.score) AS avg_score FROM exam_scores e LEFT JOIN applications b ON e.applicant_id=b.applicant_id GROUP BY b.program";
-            ResultSet rs = stmt.executeQuery(q);
-            while (rs.next()) {
-                String program = rs.getString("program");
-                double avg = rs.getDouble("avg_score");
-                avgScoresTableModel.addRow(new Object[] { program, String.format("%.2f", avg) });
-            }
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this, "Error loading average scores table: " + e.getMessage(), "DB Error", JOptionPane.ERROR_MESSAGE);
-            e.printStackTrace();
+        for (StatisticsRepository.ProgramScore p : averages) {
+            avgScoresTableModel.addRow(new Object[] { p.program(), String.format("%.2f", p.average()) });
         }
     }
 
-    private JPanel createExamScoresHistogram() throws SQLException {
+    private JPanel createExamScoresHistogram(ScoreHistogram all, List<String> subjects,
+                                             List<StatisticsRepository.ProgramRate> programs) {
         JPanel panel = new JPanel(new BorderLayout());
-        java.util.List<Double> scores = new ArrayList<>();
+        // the chart is drawn from per-score counts, so the filters and bin width are cheap to change
+        JComboBox<String> subjectBox = new JComboBox<>();
+        subjectBox.addItem(ALL);
+        for (String subject : subjects) subjectBox.addItem(subject);
+        JComboBox<String> programBox = new JComboBox<>();
+        programBox.addItem(ALL);
+        for (StatisticsRepository.ProgramRate r : programs) {
+            if (r.program() != null) programBox.addItem(r.program());
+        }
+        JSpinner binWidth = new JSpinner(new SpinnerNumberModel(10, 1, ScoreHistogram.MAX_SCORE, 1));
 
-        try (Statement stmt = connection.createStatement()) {
-            ResultSet rs = stmt.executeQuery("SELECT score FROM exam_scores");
-            while (rs.next()) {
-                scores.add(rs.getDouble("score"));
-            }
+        // the chart is kept when the tab is rebuilt; only the filters are new
+        if (histogramChart == null) {
+            histogramChart = chartPanel(DashboardCharts.scoreHistogram(all, 10));
+        } else {
+            DashboardCharts.setScoreHistogram(histogramChart.getChart(), all, 10);
         }
+        JFreeChart chart = histogramChart.getChart();
+
+        Runnable update = () -> {
+            String subject = ALL.equals(subjectBox.getSelectedItem()) ? null : (String) subjectBox.getSelectedItem();
+            String program = ALL.equals(programBox.getSelectedItem()) ? null : (String) programBox.getSelectedItem();
+            // counted in the background (the unfiltered counts are cached); a newer selection wins
+            int request = ++histogramRequest;
+            stats.scoreHistogram(subject, program).whenComplete((histogram, error) -> SwingUtilities.invokeLater(() -> {
+                if (request != histogramRequest) return;
+                if (error != null) {
+                    Throwable cause = error.getCause() != null ? error.getCause() : error;
+                    JOptionPane.showMessageDialog(this, "Error loading exam scores: " + cause.getMessage(), "DB Error", JOptionPane.ERROR_MESSAGE);
+                    cause.printStackTrace();
+                    return;
+                }
+                DashboardCharts.setScoreHistogram(chart, histogram, (Integer) binWidth.getValue());
+            }));
+        };
+        subjectBox.addActionListener(e -> update.run());
+        programBox.addActionListener(e -> update.run());
+        binWidth.addChangeListener(e -> update.run());
 
-        double[] scoreArray = scores.stream().mapToDouble(d -> d).toArray();
-        HistogramDataset dataset = new HistogramDataset();
-        dataset.addSeries("Exam Scores", scoreArray, 10);
+        JPanel filters = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        filters.add(new JLabel("Subject:"));
+        filters.add(subjectBox);
+        filters.add(new JLabel("Program:"));
+        filters.add(programBox);
+        filters.add(new JLabel("Bin width:"));
+        filters.add(binWidth);
+        panel.add(filters, BorderLayout.NORTH);
 
-        JFreeChart chart = ChartFactory.createHistogram(
-                "Distribution of Exam Scores",
-                "Score",
-                "Frequency",
-                dataset,
-                PlotOrientation.VERTICAL,
-                true, true, false
-        );
-
-        ChartPanel chartPanel = new ChartPanel(chart);
-        chartPanel.setPreferredSize(new Dimension(800, 400));
-        panel.add(chartPanel, BorderLayout.CENTER);
+        panel.add(histogramChart, BorderLayout.CENTER);
 
         return panel;
     }
 
-    private JPanel createGenderDistributionChart() throws SQLException {
-        JPanel panel = new JPanel(new BorderLayout());
-        DefaultPieDataset dataset = new DefaultPieDataset();
-
-        try (Statement stmt = connection.createStatement()) {
-            ResultSet rs = stmt.executeQuery(
-                    "SELECT gender, COUNT(gender) AS Gendercount FROM applicants GROUP BY gender"
-            );
-            while (rs.next()) {
-                dataset.setValue(rs.getString("gender"), rs.getInt("Gendercount"));
-            }
+    private CachedChartPanel genderDistributionChart(Map<String, Integer> genderCounts) {
+        if (genderChart == null) {
+            genderChart = chartPanel(DashboardCharts.genderDistribution(genderCounts));
+        } else {
+            DashboardCharts.setGenderDistribution(genderChart.getChart(), genderCounts);
         }
+        return genderChart;
+    }
 
-        JFreeChart chart = ChartFactory.createPieChart(
-                "Gender Distribution",
-                dataset,
-                true, true, false
-        );
+    /**
+     * Bar chart that shows average exam score per program.
+     */
+    private CachedChartPanel averageScoresChart(List<StatisticsRepository.ProgramScore> averages) {
+        if (avgChart == null) {
+            avgChart = chartPanel(DashboardCharts.averageScores(averages));
+        } else {
+            DashboardCharts.setAverageScores(avgChart.getChart(), averages);
+        }
+        return avgChart;
+    }
 
-        PiePlot plot = (PiePlot) chart.getPlot();
-        plot.setLabelGenerator(new StandardPieSectionLabelGenerator(
-                "{0}: {1} ({2})",
-                new DecimalFormat("0"),
-                new DecimalFormat("0.0%")
-        ));
+    /*
+     * Reload the summary and the selected tab; the other tabs reload when next selected.
+     * The queries run in the background at the same time, and each tab is filled in on
+     * the EDT as soon as its own data has arrived, so the dashboard waits for the slowest
+     * query instead of the sum of all of them.
+     */
+    private void refreshData() {
+        for (LoadingPanel tab : new LoadingPanel[] {cityGenderTab, acceptanceChartTab, acceptanceTableTab,
+                avgChartTab, avgTableTab, histogramTab, genderTab}) {
+            tab.showLoading();
+        }
+        outputArea.setText("Loading...");
+        refreshes++;
+        // the baseline for refreshChanged()
+        stats.refresh();
+        loadSummary();
+        tabs.reload();
+    }
 
-        ChartPanel chartPanel = new ChartPanel(chart);
-        chartPanel.setPreferredSize(new Dimension(800, 400));
-        panel.add(chartPanel, BorderLayout.CENTER);
+    /*
+     * Probe the tables for changes and reload only what was computed from a changed table;
+     * the other tabs keep their content. Stale tabs keep showing the old data until the
+     * new data is there. manual: report a failed probe (the timer only logs it).
+     */
+    private void refreshChanged(boolean manual) {
+        if (probing) return;
+        probing = true;
+        stats.refresh().whenComplete((changed, error) -> SwingUtilities.invokeLater(() -> {
+            probing = false;
+            if (error != null) {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                cause.printStackTrace();
+                if (manual) {
+                    JOptionPane.showMessageDialog(this, "Error checking for changes: " + cause.getMessage(),
+                            "Database Error", JOptionPane.ERROR_MESSAGE);
+                }
+                return;
+            }
+            if (changed.isEmpty()) return;
+            refreshes++;
+            Set<StatisticsRepository.Part> affected = StatisticsRepository.affected(changed);
+            if (affected.contains(StatisticsRepository.Part.TOP_APPLICANTS)
+                    || affected.contains(StatisticsRepository.Part.ACCEPTANCE_RATES)
+                    || affected.contains(StatisticsRepository.Part.AVERAGE_SCORES)) {
+                loadSummary();
+            }
+            List<Component> stale = new ArrayList<>();
+            for (Map.Entry<Component, Set<StatisticsRepository.Part>> t : tabParts.entrySet()) {
+                if (!Collections.disjoint(t.getValue(), affected)) stale.add(t.getKey());
+            }
+            for (Map.Entry<Component, String> t : browserTables.entrySet()) {
+                if (changed.contains(t.getValue())) stale.add(t.getKey());
+            }
+            tabs.reload(stale);
+        }));
+    }
 
-        return panel;
+    private void loadSummary() {
+        CompletableFuture<List<StatisticsRepository.ApplicantScore>> top = stats.topApplicants();
+        CompletableFuture<List<StatisticsRepository.ProgramRate>> rates = stats.acceptanceRates();
+        CompletableFuture<List<StatisticsRepository.ProgramScore>> averages = stats.averageScores();
+        publish(CompletableFuture.allOf(top, rates, averages), null,
+                done -> showSummary(top.join(), rates.join(), averages.join()));
     }
 
-    /**
-     * Create a bar chart that shows average exam score per program.
+    // the histogram's filter lists need the subjects and the programs too
+    private void loadHistogramTab() {
+        CompletableFuture<ScoreHistogram> histogram = stats.scoreHistogram();
+        CompletableFuture<List<String>> subjects = stats.subjects();
+        CompletableFuture<List<StatisticsRepository.ProgramRate>> rates = stats.acceptanceRates();
+        publish(CompletableFuture.allOf(histogram, subjects, rates), histogramTab,
+                done -> histogramTab.showContent(createExamScoresHistogram(histogram.join(), subjects.join(), rates.join())));
+    }
+
+    /*
+     * Hand the result of a query to the EDT, unless the tab (without a tab: the output
+     * area) has started another load since. A failure is shown in the tab (or in a dialog).
      */
-    private JPanel createAverageScoresChart() throws SQLException {
-        JPanel panel = new JPanel(new BorderLayout());
-        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
-
-        try (Statement stmt = connection.createStatement()) {
-            String sql = "SELECT b.program, AVG(e.score) AS avg_score " +
-                    "FROM exam_scores e LEFT JOIN applications b ON e.applicant_id = b.applicant_id " +
-                    "GROUP BY b.program";
-            ResultSet rs = stmt.executeQuery(sql);
-            while (rs.next()) {
-                String program = rs.getString("program");
-                double avg = rs.getDouble("avg_score");
-                if (program == null) program = "(No program)";
-                dataset.addValue(avg, "Average Score", program);
+    private <T> void publish(CompletableFuture<T> future, LoadingPanel tab, Consumer<T> show) {
+        int ticket = tab != null ? tab.beginLoad() : ++outputLoads;
+        TabTrace trace = TabTrace.begin(tab != null ? tab.getName() : "Summary", refreshes);
+        future.whenComplete((value, error) -> SwingUtilities.invokeLater(() -> {
+            if (tab != null ? !tab.isCurrent(ticket) : ticket != outputLoads) return;
+            if (error == null) {
+                show.accept(value);
+                trace.end();
+                startup.dataShown();
+                return;
             }
-        }
+            Throwable cause = error.getCause() != null ? error.getCause() : error;
+            cause.printStackTrace();
+            if (tab != null) {
+                tab.showError(cause.getMessage());
+            } else {
+                outputArea.setText("");
+                JOptionPane.showMessageDialog(this, "Error refreshing data: " + cause.getMessage(),
+                        "Database Error", JOptionPane.ERROR_MESSAGE);
+            }
+        }));
+    }
 
-        JFreeChart chart = ChartFactory.createBarChart(
-                "Average Exam Score per Program",
-                "Program",
-                "Average Score",
-                dataset,
-                PlotOrientation.VERTICAL,
-                false, true, false
-        );
+    private void showSummary(List<StatisticsRepository.ApplicantScore> top,
+                             List<StatisticsRepository.ProgramRate> rates,
+                             List<StatisticsRepository.ProgramScore> averages) {
+        outputArea.setText(""); // Clear previous output
 
-        ChartPanel chartPanel = new ChartPanel(chart);
-        chartPanel.setPreferredSize(new Dimension(800, 400));
-        panel.add(chartPanel, BorderLayout.CENTER);
-        return panel;
+        // Display top 10 applicants
+        outputArea.append("Top 10 Applicants by Average Exam Score:\n\n");
+        for (StatisticsRepository.ApplicantScore a : top) {
+            outputArea.append(String.format("%s %s: %.2f\n", a.firstName(), a.lastName(), a.average()));
+        }
+        // Also show the acceptance rates and average scores in the output area
+        outputArea.append("Acceptance rates per program:\n");
+        outputArea.append(String.format("%-40s | %-8s | %-6s | %-8s\n", "Program", "Accepted", "Total", "Rate(%)"));
+        for (StatisticsRepository.ProgramRate r : rates) {
+            outputArea.append(String.format("%-40s | %-8d | %-6d | %8.2f\n",
+                    r.program() == null ? "(null)" : r.program(), r.accepted(), r.total(), r.rate()));
+        }
+
+        outputArea.append("\nAverage exam score per program:\n");
+        outputArea.append(String.format("%-40s | %-12s\n", "Program", "AverageScore"));
+        for (StatisticsRepository.ProgramScore p : averages) {
+            outputArea.append(String.format("%-40s | %12.2f\n", p.program() == null ? "(null)" : p.program(), p.average()));
+        }
+        outputArea.setCaretPosition(0);
     }
 
-    private void refreshData() {
-        try {
-            outputArea.setText(""); // Clear previous output
-
-            // Display top 10 applicants
-            try (Statement stmt = connection.createStatement()) {
-                ResultSet rs = stmt.executeQuery(
-                        "SELECT a.first_name, a.last_name, AVG(score) as avg_score " +
-                                "FROM exam_scores AS c " +
-                                "LEFT JOIN applicants AS a ON c.applicant_id=a.applicant_id " +
-                                "GROUP BY c.applicant_id " +
-                                "ORDER BY AVG(score) DESC LIMIT 10"
-                );
-
-                outputArea.append("Top 10 Applicants by Average Exam Score:\n\n");
-                while (rs.next()) {
-                    outputArea.append(String.format("%s %s: %.2f\n",
-                            rs.getString("first_name"),
-                            rs.getString("last_name"),
-                            rs.getDouble("avg_score")
-                    ));
+    // Runs in the background; the dashboard reloads when it is done
+    private void rebuildSummaries() {
+        new SwingWorker<Boolean, Void>() {
+            @Override
+            protected Boolean doInBackground() throws SQLException {
+                boolean rebuilt;
+                if (pool != null) {
+                    try (Connection c = pool.getConnection()) {
+                        rebuilt = rebuildSummaries(c);
+                    }
+                } else {
+                    synchronized (connection) {
+                        rebuilt = rebuildSummaries(connection);
+                    }
                 }
+                if (rebuilt) StatisticsRepository.dataChanged();
+                return rebuilt;
             }
-            // Refresh the tables as well
-            populateAcceptanceTable();
-            populateAverageScoresTable();
-            // Also show the acceptance rates and average scores in the output area
-            outputArea.append("Acceptance rates per program:\n");
-            outputArea.append(String.format("%-40s | %-8s | %-6s | %-8s\n", "Program", "Accepted", "Total", "Rate(%)"));
-            if (acceptanceTableModel != null) {
-                for (int r = 0; r < acceptanceTableModel.getRowCount(); r++) {
-                    Object prog = acceptanceTableModel.getValueAt(r, 0);
-                    Object accepted = acceptanceTableModel.getValueAt(r, 1);
-                    Object total = acceptanceTableModel.getValueAt(r, 2);
-                    Object rate = acceptanceTableModel.getValueAt(r, 3);
-                    outputArea.append(String.format("%-40s | %-8s | %-6s | %8s\n", prog == null ? "(null)" : prog.toString(),
-                            accepted == null ? "0" : accepted.toString(),
-                            total == null ? "0" : total.toString(),
-                            rate == null ? "0.00" : rate.toString()));
+
+            @Override
+            protected void done() {
+                try {
+                    if (get()) {
+                        refreshData();
+                    } else {
+                        JOptionPane.showMessageDialog(UniversityAdmissionsGUI.this,
+                                "The summary tables are not installed (see sql/sql schema.txt).",
+                                "Rebuild Summaries", JOptionPane.INFORMATION_MESSAGE);
+                    }
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(UniversityAdmissionsGUI.this, "Error rebuilding summaries: " + cause.getMessage(),
+                            "DB Error", JOptionPane.ERROR_MESSAGE);
+                    cause.printStackTrace();
                 }
             }
+        }.execute();
+    }
 
-            outputArea.append("\nAverage exam score per program:\n");
-            outputArea.append(String.format("%-40s | %-12s\n", "Program", "AverageScore"));
-            if (avgScoresTableModel != null) {
-                for (int r = 0; r < avgScoresTableModel.getRowCount(); r++) {
-                    Object prog = avgScoresTableModel.getValueAt(r, 0);
-                    Object avg = avgScoresTableModel.getValueAt(r, 1);
-                    outputArea.append(String.format("%-40s | %12s\n", prog == null ? "(null)" : prog.toString(),
-                            avg == null ? "0.00" : avg.toString()));
-                }
+    private static boolean rebuildSummaries(Connection c) throws SQLException {
+        if (!SummaryTables.installed(c)) return false;
+        SummaryTables.rebuild(c);
+        return true;
+    }
+
+    // Computed in the background from the in-memory snapshot
+    private void showDrillDown(String city, String gender) {
+        outputArea.setText("Loading...");
+        int ticket = ++outputLoads;
+        stats.drillDown(city, gender).whenComplete((s, error) -> SwingUtilities.invokeLater(() -> {
+            if (ticket != outputLoads) return;
+            if (error != null) {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                outputArea.setText("");
+                JOptionPane.showMessageDialog(this, "Error loading statistics: " + cause.getMessage(), "DB Error", JOptionPane.ERROR_MESSAGE);
+                cause.printStackTrace();
+                return;
             }
+            showDrillDown(city, gender, s);
+        }));
+    }
 
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this,
-                    "Error refreshing data: " + e.getMessage(),
-                    "Database Error",
-                    JOptionPane.ERROR_MESSAGE
-            );
-            e.printStackTrace();
+    private void showDrillDown(String city, String gender, StatisticsRepository.Snapshot s) {
+        outputArea.setText("");
+        outputArea.append(String.format("Applicants from %s, gender %s\n\n", city, gender));
+        outputArea.append("Top 10 Applicants by Average Exam Score:\n\n");
+        for (StatisticsRepository.ApplicantScore a : s.topApplicants()) {
+            outputArea.append(String.format("%s %s: %.2f\n", a.firstName(), a.lastName(), a.average()));
+        }
+        outputArea.append("\nAcceptance rates per program:\n");
+        outputArea.append(String.format("%-40s | %-8s | %-6s | %-8s\n", "Program", "Accepted", "Total", "Rate(%)"));
+        for (StatisticsRepository.ProgramRate r : s.acceptanceRates()) {
+            outputArea.append(String.format("%-40s | %-8d | %-6d | %8.2f\n",
+                    r.program() == null ? "(null)" : r.program(), r.accepted(), r.total(), r.rate()));
+        }
+        outputArea.append("\nAverage exam score per program:\n");
+        outputArea.append(String.format("%-40s | %-12s\n", "Program", "AverageScore"));
+        for (StatisticsRepository.ProgramScore p : s.averageScores()) {
+            outputArea.append(String.format("%-40s | %12.2f\n", p.program() == null ? "(null)" : p.program(), p.average()));
         }
+        outputArea.setCaretPosition(0);
     }
 
     public static void main(String[] args) {
+        // logs the stack of the EDT whenever it stops responding for a while
+        EdtWatchdog.install();
         EventQueue.invokeLater(() -> {
             try {
                 UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
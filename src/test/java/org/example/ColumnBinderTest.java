@@ -0,0 +1,122 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColumnBinderTest {
+
+    @Test
+    void bindersFollowTheColumnTypes() throws SQLException {
+        try (Connection conn = DriverManager.getConnection("jdbc:h2:mem:binders;MODE=MySQL;DATABASE_TO_LOWER=TRUE")) {
+            SchemaInstaller.install(conn);
+            ColumnBinder[] binders = ColumnBinder.forTable(conn, "APPLICATIONS",
+                    new String[] {"application_id", "admission_year", "status", "created_at", "unknown"});
+            assertInstanceOf(ColumnBinder.CachedStringBinder.class, binders[0]);
+            assertEquals(10, binders[0].size);
+            assertTrue(binders[0].notNull);
+            assertInstanceOf(ColumnBinder.IntBinder.class, binders[1]);
+            // H2 reports ENUM as a type of its own; like timestamps it is bound as a string
+            assertInstanceOf(ColumnBinder.StringBinder.class, binders[2]);
+            assertInstanceOf(ColumnBinder.StringBinder.class, binders[3]);
+            assertFalse(binders[3].notNull);
+            assertEquals(Types.VARCHAR, binders[4].sqlType);
+        }
+        assertInstanceOf(ColumnBinder.LongBinder.class, ColumnBinder.create("n", Types.BIGINT, 19, "BIGINT"));
+        assertInstanceOf(ColumnBinder.DateBinder.class, ColumnBinder.create("d", Types.DATE, 10, "DATE"));
+    }
+
+    @Test
+    void readsValuesIntoColumnBuffers() throws IOException {
+        ColumnBinder[] binders = {
+                ColumnBinder.create("i", Types.INTEGER, 10, "INTEGER"),
+                ColumnBinder.create("l", Types.BIGINT, 19, "BIGINT"),
+                ColumnBinder.create("d", Types.DATE, 10, "DATE"),
+                ColumnBinder.create("s", Types.VARCHAR, 20, "VARCHAR")
+        };
+        Object[] buffers = new Object[binders.length];
+        for (int c = 0; c < binders.length; c++) buffers[c] = binders[c].newBuffer(2);
+        try (CsvReader reader = reader("7,9000000000,2024-02-29,x\n-1,0,1970-01-01,\"y, z\"\n")) {
+            for (int row = 0; row < 2; row++) {
+                assertTrue(reader.next());
+                for (int c = 0; c < binders.length; c++) binders[c].read(reader, c, buffers[c], row);
+            }
+        }
+        assertEquals(7, binders[0].value(buffers[0], 0));
+        assertEquals(9_000_000_000L, binders[1].value(buffers[1], 0));
+        assertEquals(LocalDate.of(2024, 2, 29), binders[2].value(buffers[2], 0));
+        assertEquals("y, z", binders[3].value(buffers[3], 1));
+
+        binders[3].clear(buffers[3], 2);
+        assertNull(binders[3].value(buffers[3], 0));
+    }
+
+    @Test
+    void repeatedStringsShareOneInstance() throws IOException {
+        ColumnBinder binder = ColumnBinder.create("status", Types.VARCHAR, 10, "ENUM");
+        String[] buffer = (String[]) binder.newBuffer(3);
+        try (CsvReader reader = reader("Accepted\nRejected\nAccepted\n")) {
+            for (int row = 0; row < 3; row++) {
+                assertTrue(reader.next());
+                binder.read(reader, 0, buffer, row);
+            }
+        }
+        assertEquals("Accepted", buffer[2]);
+        assertSame(buffer[0], buffer[2]);
+        assertNotSame(buffer[0], buffer[1]);
+    }
+
+    @Test
+    void bindsTypedParameters() throws IOException, SQLException {
+        try (Connection conn = DriverManager.getConnection("jdbc:h2:mem:bind");
+             Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE t (i INT, d DATE, s VARCHAR(10))");
+            ColumnBinder[] binders = {
+                    ColumnBinder.create("i", Types.INTEGER, 10, "INTEGER"),
+                    ColumnBinder.create("d", Types.DATE, 10, "DATE"),
+                    ColumnBinder.create("s", Types.VARCHAR, 10, "VARCHAR")
+            };
+            Object[] buffers = new Object[binders.length];
+            try (CsvReader reader = reader("42,2001-12-31,abc\n")) {
+                assertTrue(reader.next());
+                for (int c = 0; c < binders.length; c++) {
+                    buffers[c] = binders[c].newBuffer(1);
+                    binders[c].read(reader, c, buffers[c], 0);
+                }
+            }
+            try (PreparedStatement ps = conn.prepareStatement("INSERT INTO t VALUES (?, ?, ?)")) {
+                for (int c = 0; c < binders.length; c++) binders[c].bind(ps, c + 1, buffers[c], 0);
+                ps.executeUpdate();
+            }
+            try (ResultSet rs = st.executeQuery("SELECT i, d, s FROM t")) {
+                assertTrue(rs.next());
+                assertEquals(42, rs.getInt(1));
+                assertEquals(LocalDate.of(2001, 12, 31), rs.getDate(2).toLocalDate());
+                assertEquals("abc", rs.getString(3));
+            }
+        }
+    }
+
+    private static CsvReader reader(String csv) {
+        return new CsvReader(Channels.newChannel(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))));
+    }
+}
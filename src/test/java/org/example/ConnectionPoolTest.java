@@ -0,0 +1,168 @@
+package org.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConnectionPoolTest {
+    @TempDir
+    Path dir;
+
+    private DatabaseConfig config;
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        config = new DatabaseConfig("H2", null, null, dir.resolve("db").toString(), "sa", "");
+        // the schema is installed on the first connection; do that outside the pool
+        config.openConnection().close();
+        pool = new ConnectionPool(config, 2, Duration.ofMinutes(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void returnedConnectionIsReused() throws SQLException {
+        Connection first = pool.getConnection();
+        Connection physical = first.unwrap(Connection.class);
+        first.close();
+        assertTrue(first.isClosed());
+        assertThrows(SQLException.class, first::createStatement);
+        // closing twice must not give the connection back twice
+        first.close();
+
+        try (Connection second = pool.getConnection(); Connection third = pool.getConnection()) {
+            assertSame(physical, second.unwrap(Connection.class));
+            assertNotSame(physical, third.unwrap(Connection.class));
+        }
+    }
+
+    @Test
+    void returnedConnectionIsReset() throws SQLException {
+        try (Connection c = pool.getConnection(); Statement st = c.createStatement()) {
+            c.setAutoCommit(false);
+            st.executeUpdate("INSERT INTO applicants (applicant_id, first_name, last_name, dob, gender, email, city)"
+                    + " VALUES ('A1', 'Mary', 'Otieno', DATE '2001-01-01', 'F', 'a1@x', 'Nairobi')");
+        }
+        try (Connection c = pool.getConnection(); Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM applicants")) {
+            assertTrue(c.getAutoCommit());
+            rs.next();
+            assertEquals(0, rs.getInt(1));
+        }
+    }
+
+    @Test
+    void borrowWaitsForAFreeConnection() throws Exception {
+        Connection a = pool.getConnection();
+        Connection b = pool.getConnection();
+        CompletableFuture<Connection> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return pool.getConnection();
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        Thread.sleep(200);
+        assertFalse(waiting.isDone());
+        Connection physical = a.unwrap(Connection.class);
+        a.close();
+        try (Connection c = waiting.get(5, TimeUnit.SECONDS)) {
+            assertSame(physical, c.unwrap(Connection.class));
+        }
+        b.close();
+    }
+
+    @Test
+    void idleConnectionsAreEvicted() throws Exception {
+        pool.close();
+        pool = new ConnectionPool(config, 2, Duration.ofMillis(100));
+        Connection physical;
+        try (Connection c = pool.getConnection()) {
+            physical = c.unwrap(Connection.class);
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!physical.isClosed() && System.nanoTime() < deadline) Thread.sleep(50);
+        assertTrue(physical.isClosed());
+        try (Connection c = pool.getConnection()) {
+            assertNotSame(physical, c.unwrap(Connection.class));
+        }
+    }
+
+    @Test
+    void statementsAreCachedPerConnection() throws SQLException {
+        try (Connection c = pool.getConnection()) {
+            PreparedStatement first = c.prepareStatement("SELECT ?");
+            PreparedStatement cached = first.unwrap(PreparedStatement.class);
+            first.setInt(1, 1);
+            // the same SQL while the first is open gets a statement of its own
+            try (PreparedStatement concurrent = c.prepareStatement("SELECT ?")) {
+                assertNotSame(cached, concurrent.unwrap(PreparedStatement.class));
+            }
+            first.close();
+            assertTrue(first.isClosed());
+            assertFalse(cached.isClosed());
+            assertThrows(SQLException.class, first::executeQuery);
+
+            try (PreparedStatement again = c.prepareStatement("SELECT ?")) {
+                assertSame(cached, again.unwrap(PreparedStatement.class));
+                assertSame(c, again.getConnection());
+            }
+        }
+    }
+
+    @Test
+    void leastRecentlyUsedStatementIsEvicted() throws SQLException {
+        try (Connection c = pool.getConnection()) {
+            PreparedStatement first;
+            try (PreparedStatement ps = c.prepareStatement("SELECT 0")) {
+                first = ps.unwrap(PreparedStatement.class);
+            }
+            PreparedStatement second;
+            try (PreparedStatement ps = c.prepareStatement("SELECT 1")) {
+                second = ps.unwrap(PreparedStatement.class);
+            }
+            // fill the cache of 64, then use SELECT 0 again so SELECT 1 is the least recently used
+            for (int i = 2; i < 64; i++) c.prepareStatement("SELECT " + i).close();
+            c.prepareStatement("SELECT 0").close();
+            assertFalse(second.isClosed());
+            c.prepareStatement("SELECT 64").close();
+            assertTrue(second.isClosed());
+            assertFalse(first.isClosed());
+        }
+    }
+
+    @Test
+    void closingAStatementClosesItsResults() throws SQLException {
+        try (Connection c = pool.getConnection()) {
+            PreparedStatement ps = c.prepareStatement("SELECT 1 UNION ALL SELECT 2");
+            PreparedStatement cached = ps.unwrap(PreparedStatement.class);
+            ResultSet rs = ps.executeQuery();
+            assertTrue(rs.next());
+            ps.close();
+            assertTrue(rs.isClosed());
+            assertFalse(cached.isClosed());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvImporterTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    @Timeout(30)
+    void failsInsteadOfHangingWhenTheParserIsInterrupted() throws Exception {
+        new DatasetGenerator(7).generate(dir, 50);
+        DatabaseConfig config = new DatabaseConfig("H2", null, null, dir.resolve("db").toString(), "sa", "");
+        // the parser thread starts out interrupted, so it never gets a batch to fill
+        Executor interrupted = task -> new Thread(() -> {
+            Thread.currentThread().interrupt();
+            task.run();
+        }).start();
+        try (Connection conn = config.openConnection(); Statement st = conn.createStatement()) {
+            ImportOptions options = new ImportOptions().setDialect(Dialect.H2)
+                    .setStrategy(ImportOptions.LoadStrategy.BATCHED_INSERT);
+            CsvImporter importer = new CsvImporter(interrupted, options);
+            assertThrows(IOException.class,
+                    () -> importer.importCsvToTable(conn, dir.resolve(DatasetGenerator.APPLICANTS_FILE), "applicants"));
+            try (ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM applicants")) {
+                rs.next();
+                assertEquals(0, rs.getInt(1));
+            }
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvReaderTest {
+
+    @Test
+    void readsQuotedFields() throws IOException {
+        List<String[]> rows = readAll("id,name,note\r\n"
+                + "1,\"Smith, John\",\"said \"\"hi\"\"\"\r\n"
+                + "2,\"two\nlines\",\"\"\n");
+        assertEquals(3, rows.size());
+        assertArrayEquals(new String[] {"id", "name", "note"}, rows.get(0));
+        assertArrayEquals(new String[] {"1", "Smith, John", "said \"hi\""}, rows.get(1));
+        assertArrayEquals(new String[] {"2", "two\nlines", ""}, rows.get(2));
+    }
+
+    @Test
+    void trimsUnquotedFieldsAndReadsNull() throws IOException {
+        try (CsvReader reader = reader("  a , NULL ,\"NULL\", \" b \",\n")) {
+            assertTrue(reader.next());
+            assertEquals(5, reader.fieldCount());
+            assertEquals("a", reader.getString(0));
+            assertTrue(reader.isNull(1));
+            assertNull(reader.getString(1));
+            // only an unquoted NULL is SQL NULL
+            assertFalse(reader.isNull(2));
+            assertEquals("NULL", reader.getString(2));
+            assertEquals(" b ", reader.getString(3));
+            assertEquals("", reader.getString(4));
+            // fields past the end of the record are missing
+            assertTrue(reader.isNull(5));
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    void skipsBlankLinesAndBom() throws IOException {
+        byte[] bom = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+        byte[] body = "a,b\n\n\r\n1,2".getBytes(StandardCharsets.UTF_8);
+        byte[] input = new byte[bom.length + body.length];
+        System.arraycopy(bom, 0, input, 0, bom.length);
+        System.arraycopy(body, 0, input, bom.length, body.length);
+        try (CsvReader reader = new CsvReader(Channels.newChannel(new ByteArrayInputStream(input)))) {
+            assertArrayEquals(new String[] {"a", "b"}, reader.readHeader());
+            assertTrue(reader.next());
+            assertEquals(2, reader.recordNumber());
+            assertEquals(1, reader.getInt(0));
+            assertEquals(2, reader.getLong(1));
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    void parsesNumbersAndDates() throws IOException {
+        try (CsvReader reader = reader("-42,2024-02-29,12x,2023-02-29\n")) {
+            assertTrue(reader.next());
+            assertEquals(-42, reader.getInt(0));
+            assertEquals(LocalDate.of(2024, 2, 29).toEpochDay(), reader.getEpochDay(1));
+            assertThrows(NumberFormatException.class, () -> reader.getLong(2));
+            assertThrows(DateTimeException.class, () -> reader.getEpochDay(3));
+        }
+    }
+
+    @Test
+    void failsOnUnterminatedQuote() throws IOException {
+        try (CsvReader reader = reader("a,\"open\n")) {
+            assertThrows(IOException.class, reader::next);
+        }
+    }
+
+    @Test
+    void splitsRecordsAcrossBufferBoundaries() throws IOException {
+        // records longer than the 1 KiB minimum buffer, with every kind of field
+        StringBuilder csv = new StringBuilder("id,text,quoted\r\n");
+        List<String[]> expected = new ArrayList<>();
+        expected.add(new String[] {"id", "text", "quoted"});
+        for (int i = 0; i < 200; i++) {
+            String text = "x".repeat(i * 7 % 1500);
+            String quoted = "q\"" + i + ",\r\n" + "y".repeat(i * 13 % 900);
+            csv.append(i).append(',').append(text).append(",\"").append(quoted.replace("\"", "\"\"")).append("\"\r\n");
+            expected.add(new String[] {Integer.toString(i), text, quoted});
+        }
+        byte[] input = csv.toString().getBytes(StandardCharsets.UTF_8);
+
+        assertRows(expected, read(new CsvReader(Channels.newChannel(new ByteArrayInputStream(input)),
+                StandardCharsets.UTF_8, 1024)));
+        // a channel that returns one byte at a time splits every quote, "" and CRLF pair
+        assertRows(expected, read(new CsvReader(new TrickleChannel(input, 1), StandardCharsets.UTF_8, 1024)));
+        assertRows(expected, read(new CsvReader(new TrickleChannel(input, 1023), StandardCharsets.UTF_8, 1024)));
+    }
+
+    @Test
+    void tracksOffsetsAndResumes() throws IOException {
+        byte[] input = "h\n1\n\"2\"\n3\n".getBytes(StandardCharsets.UTF_8);
+        long offset;
+        try (CsvReader reader = new CsvReader(Channels.newChannel(new ByteArrayInputStream(input)))) {
+            reader.readHeader();
+            assertTrue(reader.next());
+            assertEquals(2, reader.recordOffset());
+            offset = reader.position();
+            assertEquals(4, offset);
+        }
+        try (CsvReader reader = new CsvReader(Channels.newChannel(new ByteArrayInputStream(input)))) {
+            reader.skipTo(offset, 2);
+            assertTrue(reader.next());
+            assertEquals("2", reader.getString(0));
+            assertEquals(3, reader.recordNumber());
+            assertEquals(offset, reader.recordOffset());
+        }
+    }
+
+    private static CsvReader reader(String csv) {
+        return new CsvReader(Channels.newChannel(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    private static List<String[]> readAll(String csv) throws IOException {
+        return read(reader(csv));
+    }
+
+    private static List<String[]> read(CsvReader reader) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        try (reader) {
+            while (reader.next()) {
+                String[] row = new String[reader.fieldCount()];
+                for (int i = 0; i < row.length; i++) row[i] = reader.getString(i);
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private static void assertRows(List<String[]> expected, List<String[]> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i), actual.get(i), "record " + (i + 1) + ": " + Arrays.toString(actual.get(i)));
+        }
+    }
+
+    // Hands out at most chunk bytes per read
+    private static final class TrickleChannel implements ReadableByteChannel {
+        private final InputStream in;
+        private final int chunk;
+        private boolean open = true;
+
+        TrickleChannel(byte[] data, int chunk) {
+            this.in = new ByteArrayInputStream(data);
+            this.chunk = chunk;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            byte[] b = new byte[Math.min(chunk, dst.remaining())];
+            int n = in.read(b);
+            if (n > 0) dst.put(b, 0, n);
+            return n;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() {
+            open = false;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FingerprintSetTest {
+
+    @Test
+    void addsAndFindsAcrossGrowth() {
+        FingerprintSet set = new FingerprintSet();
+        for (long i = 1; i <= 10_000; i++) assertTrue(set.add(i * 0x9E3779B97F4A7C15L));
+        assertEquals(10_000, set.size());
+        for (long i = 1; i <= 10_000; i++) assertTrue(set.contains(i * 0x9E3779B97F4A7C15L));
+        assertFalse(set.contains(0x9E3779B97F4A7C15L * 10_001));
+        // already present
+        assertFalse(set.add(0x9E3779B97F4A7C15L));
+        assertEquals(10_000, set.size());
+    }
+
+    @Test
+    void collidingSlotsAreProbed() {
+        FingerprintSet set = new FingerprintSet();
+        // same low bits, so the same start slot
+        long a = 5;
+        long b = 5 + (1L << 40);
+        assertTrue(set.add(a));
+        assertFalse(set.contains(b));
+        assertTrue(set.add(b));
+        assertTrue(set.contains(a));
+        assertTrue(set.contains(b));
+    }
+
+    @Test
+    void hashMatchesCsvFieldBytes() throws IOException {
+        byte[] row = "x,App-1é,y".getBytes(StandardCharsets.UTF_8);
+        long fromString = FingerprintSet.hash("App-1é", StandardCharsets.UTF_8, false);
+        // the field starts at byte 2 and the é is two bytes
+        assertEquals(fromString, FingerprintSet.hash(row, 2, row.length - 2, false));
+        try (CsvReader reader = new CsvReader(Channels.newChannel(new ByteArrayInputStream(row)))) {
+            assertTrue(reader.next());
+            assertEquals(fromString, reader.fieldFingerprint(1, false));
+        }
+    }
+
+    @Test
+    void ignoreCaseFoldsAsciiOnly() {
+        assertEquals(FingerprintSet.hash("Mary@Example.com", StandardCharsets.UTF_8, true),
+                FingerprintSet.hash("mary@example.COM", StandardCharsets.UTF_8, true));
+        assertNotEquals(FingerprintSet.hash("Mary", StandardCharsets.UTF_8, false),
+                FingerprintSet.hash("mary", StandardCharsets.UTF_8, false));
+        assertNotEquals(0, FingerprintSet.hash(new byte[0], 0, 0, false));
+    }
+}
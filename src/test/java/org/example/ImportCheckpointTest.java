@@ -0,0 +1,99 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImportCheckpointTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void savesAndLoadsProgress() throws IOException {
+        Path csv = write("data.csv", "id\n1\n2\n3\n");
+        assertNull(ImportCheckpoint.load(csv, "t"));
+
+        ImportCheckpoint checkpoint = ImportCheckpoint.start(csv, "t");
+        checkpoint.committed(5, 2);
+        checkpoint.committed(7, 3);
+
+        ImportCheckpoint loaded = ImportCheckpoint.load(csv, "t");
+        assertNotNull(loaded);
+        assertEquals(7, loaded.getOffset());
+        assertEquals(3, loaded.getRecords());
+        assertEquals(2, loaded.getBatches());
+
+        loaded.delete();
+        assertNull(ImportCheckpoint.load(csv, "t"));
+    }
+
+    @Test
+    void ignoresCheckpointOfOtherTableOrFile() throws IOException {
+        Path csv = write("data.csv", "id\n1\n2\n3\n");
+        ImportCheckpoint.start(csv, "t").committed(5, 2);
+        assertNull(ImportCheckpoint.load(csv, "other"));
+
+        // same size, new timestamp
+        Files.setLastModifiedTime(csv, FileTime.fromMillis(Files.getLastModifiedTime(csv).toMillis() - 60_000));
+        assertNull(ImportCheckpoint.load(csv, "t"));
+    }
+
+    @Test
+    void ignoresUnreadableCheckpoint() throws IOException {
+        Path csv = write("data.csv", "id\n1\n");
+        Files.writeString(ImportCheckpoint.checkpointPath(csv), "table=t\noffset=x\n");
+        assertNull(ImportCheckpoint.load(csv, "t"));
+    }
+
+    @Test
+    void incrementalImportResumesAtCheckpoint() throws Exception {
+        new DatasetGenerator(7).generate(dir, 50);
+        Path csv = dir.resolve(DatasetGenerator.APPLICANTS_FILE);
+
+        // pretend an earlier run committed the header and the first 20 rows
+        long offset;
+        try (CsvReader reader = CsvReader.open(csv)) {
+            reader.readHeader();
+            for (int i = 0; i < 20; i++) assertTrue(reader.next());
+            offset = reader.position();
+        }
+        ImportCheckpoint.start(csv, "applicants").committed(offset, 21);
+
+        DatabaseConfig config = new DatabaseConfig("H2", null, null, dir.resolve("db").toString(), "sa", "");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (Connection conn = config.openConnection(); Statement st = conn.createStatement()) {
+            ImportOptions options = new ImportOptions().setDialect(Dialect.H2).setIncremental(true).setBatchSize(7);
+            ImportResult result = new CsvImporter(executor, options).importCsvToTable(conn, csv, "applicants");
+            assertTrue(result.succeeded());
+            assertTrue(result.resumed());
+            assertEquals(30, result.rows());
+            try (ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM applicants")) {
+                rs.next();
+                assertEquals(30, rs.getInt(1));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        // a finished import leaves nothing to resume
+        assertFalse(Files.exists(ImportCheckpoint.checkpointPath(csv)));
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(dir.resolve(name), content);
+    }
+}
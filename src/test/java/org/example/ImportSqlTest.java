@@ -0,0 +1,87 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImportSqlTest {
+    private static final String[] COLS = {"score_id", "applicant_id", "score"};
+    private static final List<String> PK = Collections.singletonList("score_id");
+
+    @Test
+    void insert() {
+        assertEquals("INSERT INTO exam_scores (score_id,applicant_id,score) VALUES (?,?,?)",
+                ImportSql.insert("exam_scores", COLS));
+    }
+
+    @Test
+    void upsertForMySqlFamily() {
+        String expected = "INSERT INTO exam_scores (score_id,applicant_id,score) VALUES (?,?,?)"
+                + " ON DUPLICATE KEY UPDATE applicant_id=VALUES(applicant_id),score=VALUES(score)";
+        assertEquals(expected, ImportSql.upsert(Dialect.MYSQL, "exam_scores", COLS, PK));
+        assertEquals(expected, ImportSql.upsert(Dialect.MARIADB, "exam_scores", COLS, PK));
+        assertEquals(expected, ImportSql.upsert(Dialect.H2, "exam_scores", COLS, PK));
+    }
+
+    @Test
+    void upsertForPostgreSql() {
+        assertEquals("INSERT INTO exam_scores (score_id,applicant_id,score) VALUES (?,?,?)"
+                        + " ON CONFLICT (score_id) DO UPDATE SET applicant_id=EXCLUDED.applicant_id,score=EXCLUDED.score"
+                        + " WHERE (exam_scores.applicant_id,exam_scores.score) IS DISTINCT FROM"
+                        + " (EXCLUDED.applicant_id,EXCLUDED.score)",
+                ImportSql.upsert(Dialect.POSTGRESQL, "exam_scores", COLS, PK));
+    }
+
+    @Test
+    void upsertWithOnlyKeyColumns() {
+        String[] cols = {"a", "B"};
+        List<String> pk = Arrays.asList("A", "b");
+        assertEquals("INSERT INTO t (a,B) VALUES (?,?) ON CONFLICT (A,b) DO NOTHING",
+                ImportSql.upsert(Dialect.POSTGRESQL, "t", cols, pk));
+        assertEquals("INSERT INTO t (a,B) VALUES (?,?) ON DUPLICATE KEY UPDATE A=A",
+                ImportSql.upsert(Dialect.MYSQL, "t", cols, pk));
+    }
+
+    @Test
+    void upsertNeedsPrimaryKey() {
+        assertThrows(IllegalArgumentException.class,
+                () -> ImportSql.upsert(Dialect.MYSQL, "t", COLS, Collections.emptyList()));
+    }
+
+    @Test
+    void primaryKeyAndUpsertOnH2() throws SQLException {
+        try (Connection conn = DriverManager.getConnection("jdbc:h2:mem:importsql;MODE=MySQL;DATABASE_TO_LOWER=TRUE");
+             Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE scores (subject VARCHAR(10), applicant_id VARCHAR(10), score INT,"
+                    + " PRIMARY KEY (applicant_id, subject))");
+            List<String> pk = ImportSql.primaryKey(conn, "SCORES");
+            assertEquals(Arrays.asList("applicant_id", "subject"), pk);
+            assertTrue(ImportSql.primaryKey(conn, "missing").isEmpty());
+
+            String[] cols = {"applicant_id", "subject", "score"};
+            try (PreparedStatement ps = conn.prepareStatement(ImportSql.upsert(Dialect.H2, "scores", cols, pk))) {
+                for (Object[] row : new Object[][] {{"A1", "Math", 50}, {"A1", "Art", 60}, {"A1", "Math", 70}}) {
+                    for (int i = 0; i < row.length; i++) ps.setObject(i + 1, row[i]);
+                    ps.executeUpdate();
+                }
+            }
+            try (ResultSet rs = st.executeQuery("SELECT COUNT(*), SUM(score) FROM scores")) {
+                rs.next();
+                assertEquals(2, rs.getInt(1));
+                assertEquals(130, rs.getInt(2));
+            }
+        }
+    }
+}
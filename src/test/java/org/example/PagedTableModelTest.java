@@ -0,0 +1,124 @@
+package org.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.*;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class PagedTableModelTest {
+    // more than one key scan chunk (64 pages) and more pages than the cache holds
+    private static final int PAGES = 70;
+    private static final int ROWS = PAGES * PagedTableModel.PAGE_SIZE - 100;
+
+    private Connection conn;
+    private PagedTableModel model;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        conn = DriverManager.getConnection("jdbc:h2:mem:paged;MODE=MySQL;DATABASE_TO_LOWER=TRUE");
+        SchemaInstaller.install(conn);
+        try (Statement st = conn.createStatement()) {
+            st.execute("INSERT INTO applicants (applicant_id, first_name, last_name, dob, gender, email, city)"
+                    + " SELECT 'A' || LPAD(\"X\", 6, '0'), 'First' || \"X\", 'Last', DATE '2001-01-01', 'F', 'a' || \"X\", 'Nairobi'"
+                    + " FROM SYSTEM_RANGE(1, " + ROWS + ")");
+        }
+        model = new PagedTableModel(conn, null, PagedTableModel.Source.APPLICANTS);
+        onEdt(() -> {
+            model.reload();
+            return null;
+        });
+        waitFor(() -> model.isScanDone() && model.getRowCount() == ROWS);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        conn.close();
+    }
+
+    @Test
+    void scansAllKeysAndReadsPages() throws Exception {
+        assertEquals(ROWS, (int) onEdt(model::getRowCount));
+        assertEquals("Applicant", model.getColumnName(0));
+        assertEquals(LocalDate.class, model.getColumnClass(3));
+
+        // the first access of a page is empty until it has been read
+        int last = ROWS - 1;
+        assertNull(onEdt(() -> model.getValueAt(last, 0)));
+        waitFor(() -> model.getValueAt(last, 0) != null);
+        assertEquals(String.format("A%06d", ROWS), onEdt(() -> model.getValueAt(last, 0)));
+        assertEquals(LocalDate.of(2001, 1, 1), onEdt(() -> model.getValueAt(last, 3)));
+        // phone is NULL
+        assertNull(onEdt(() -> model.getValueAt(last, 6)));
+        assertNotNull(onEdt(() -> model.getValueAt(last, 8)));
+        assertNull(model.getError());
+    }
+
+    @Test
+    void keepsOnlyTheRecentlyUsedPages() throws Exception {
+        for (int p = 0; p < PAGES; p++) {
+            int row = p * PagedTableModel.PAGE_SIZE;
+            waitFor(() -> model.getValueAt(row, 0) != null);
+            assertEquals(String.format("A%06d", row + 1), onEdt(() -> model.getValueAt(row, 0)));
+        }
+        int lastPageRow = (PAGES - 1) * PagedTableModel.PAGE_SIZE;
+        // the last pages are still cached, the first ones were dropped and are read again
+        assertNotNull(onEdt(() -> model.getValueAt(lastPageRow, 0)));
+        assertNull(onEdt(() -> model.getValueAt(0, 0)));
+        waitFor(() -> model.getValueAt(0, 0) != null);
+        assertEquals("A000001", onEdt(() -> model.getValueAt(0, 0)));
+    }
+
+    @Test
+    void reloadStartsOver() throws Exception {
+        waitFor(() -> model.getValueAt(0, 0) != null);
+        try (Statement st = conn.createStatement()) {
+            st.execute("DELETE FROM applicants WHERE applicant_id > 'A000010'");
+        }
+        // the model shows what it read until reload()
+        assertEquals(ROWS, (int) onEdt(model::getRowCount));
+        onEdt(() -> {
+            model.reload();
+            return null;
+        });
+        waitFor(() -> model.isScanDone() && model.getRowCount() == 10);
+        assertNull(onEdt(() -> model.getValueAt(0, 0)));
+        waitFor(() -> model.getValueAt(9, 0) != null);
+        assertEquals("A000010", onEdt(() -> model.getValueAt(9, 0)));
+    }
+
+    private static <T> T onEdt(Callable<T> work) throws Exception {
+        AtomicReference<T> result = new AtomicReference<>();
+        AtomicReference<Exception> error = new AtomicReference<>();
+        SwingUtilities.invokeAndWait(() -> {
+            try {
+                result.set(work.call());
+            } catch (Exception e) {
+                error.set(e);
+            }
+        });
+        if (error.get() != null) throw error.get();
+        return result.get();
+    }
+
+    // Evaluate condition on the EDT until it holds, so the model's events have been seen
+    private static void waitFor(Callable<Boolean> condition) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!onEdt(condition)) {
+            if (System.nanoTime() > deadline) fail("Timed out waiting for the model");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuarantineTest {
+    private static final String[] HEADER = {"id", "name"};
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void writesRejectedRowsWithRecordAndReason() throws IOException {
+        Path csv = Files.writeString(dir.resolve("people.csv.gz"), "");
+        Path input = Files.writeString(dir.resolve("people.csv"), "id,name\n1,\"Smith, J\"\n2\n");
+        try (Quarantine q = new Quarantine(csv, HEADER, StandardCharsets.UTF_8, false);
+             CsvReader reader = CsvReader.open(input)) {
+            assertEquals(dir.resolve("people.csv.rejected.csv"), q.getPath());
+            reader.readHeader();
+            reader.next();
+            q.reject(reader, "bad, really");
+            reader.next();
+            q.reject(reader, "NULL");
+            assertEquals(2, q.getCount());
+        }
+        assertEquals(Arrays.asList(
+                "id,name,reject_record,reject_reason",
+                "1,\"Smith, J\",2,\"bad, really\"",
+                "2,NULL,3,\"NULL\""), Files.readAllLines(dir.resolve("people.csv.rejected.csv")));
+    }
+
+    @Test
+    void freshImportReplacesTheFile() throws IOException {
+        Path csv = dir.resolve("people.csv");
+        Files.writeString(Quarantine.pathFor(csv), "old\n");
+        new Quarantine(csv, HEADER, StandardCharsets.UTF_8, false).close();
+        assertFalse(Files.exists(Quarantine.pathFor(csv)));
+    }
+
+    @Test
+    void resumeDropsRowsPastTheCheckpoint() throws IOException {
+        Path csv = Files.writeString(dir.resolve("people.csv"), "id,name\n1,a\n2,\"b\nb\"\n3,c\n4,d\n5,e\n");
+        rejectRecords(csv, false, 2, 3, 5);
+
+        // the interrupted run committed records up to 3 (the header and ids 1 and 2)
+        try (Quarantine q = new Quarantine(csv, HEADER, StandardCharsets.UTF_8, true)) {
+            q.dropAfter(3);
+        }
+        rejectRecords(csv, true, 5);
+
+        List<String> lines = Files.readAllLines(Quarantine.pathFor(csv));
+        assertEquals(Arrays.asList(
+                "id,name,reject_record,reject_reason",
+                "1,a,2,rejected",
+                "2,\"b",
+                "b\",3,rejected",
+                "4,d,5,rejected"), lines);
+    }
+
+    @Test
+    void dropAfterWithoutFileOrLaterRows() throws IOException {
+        Path csv = Files.writeString(dir.resolve("people.csv"), "id,name\n1,a\n");
+        try (Quarantine q = new Quarantine(csv, HEADER, StandardCharsets.UTF_8, true)) {
+            q.dropAfter(1);
+        }
+        assertFalse(Files.exists(Quarantine.pathFor(csv)));
+
+        rejectRecords(csv, false, 2);
+        long size = Files.size(Quarantine.pathFor(csv));
+        try (Quarantine q = new Quarantine(csv, HEADER, StandardCharsets.UTF_8, true)) {
+            q.dropAfter(2);
+        }
+        assertEquals(size, Files.size(Quarantine.pathFor(csv)));
+        assertTrue(Files.readString(Quarantine.pathFor(csv)).endsWith("1,a,2,rejected" + System.lineSeparator()));
+    }
+
+    // Quarantine the records of csv with the given record numbers (header = 1)
+    private static void rejectRecords(Path csv, boolean append, long... records) throws IOException {
+        try (Quarantine q = new Quarantine(csv, HEADER, StandardCharsets.UTF_8, append);
+             CsvReader reader = CsvReader.open(csv)) {
+            reader.readHeader();
+            while (reader.next()) {
+                if (Arrays.stream(records).anyMatch(r -> r == reader.recordNumber())) q.reject(reader, "rejected");
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RowValidatorTest {
+    private static final String[] COLS = {"score_id", "applicant_id", "subject", "score", "taken"};
+
+    private final FingerprintSet applicants = new FingerprintSet();
+    private final FingerprintSet scoreIds = new FingerprintSet();
+
+    @Test
+    void acceptsValidRows() throws IOException {
+        List<String> reasons = check(validator(false),
+                "S1,A1,Math,50,2024-05-01",
+                "S2,a1,Art,100,NULL");
+        assertNull(reasons.get(0));
+        // applicant ids compare case sensitively here
+        assertEquals("applicant_id 'a1' does not exist in applicants", reasons.get(1));
+    }
+
+    @Test
+    void reportsTheFirstBrokenConstraint() throws IOException {
+        List<String> reasons = check(validator(false),
+                "S1,A1,Math,50,2024-05-01,extra",
+                "S2,NULL,Math,50,2024-05-01",
+                "S3,A1,Mathematics and more,50,2024-05-01",
+                "S4,A1,Math,abc,2024-05-01",
+                "S5,A1,Math,101,2024-05-01",
+                "S6,A1,Math,50,2024-13-01",
+                "S7,A1,Music,50,2024-05-01",
+                "S8,A2,Math,50,2024-05-01");
+        assertEquals("Expected 5 fields but found 6", reasons.get(0));
+        assertEquals("applicant_id must not be NULL", reasons.get(1));
+        assertEquals("subject is longer than 10 characters", reasons.get(2));
+        assertTrue(reasons.get(3).startsWith("Invalid value 'abc' for column score"));
+        assertEquals("score must be between 0 and 100, found 101", reasons.get(4));
+        assertTrue(reasons.get(5).startsWith("Invalid value '2024-13-01' for column taken"));
+        assertEquals("subject must be one of Math, Art, found 'Music'", reasons.get(6));
+        assertEquals("applicant_id 'A2' does not exist in applicants", reasons.get(7));
+    }
+
+    @Test
+    void rejectsDuplicateKeys() throws IOException {
+        scoreIds.add(FingerprintSet.hash("S0", StandardCharsets.UTF_8, true));
+        List<String> reasons = check(validator(true),
+                "S0,A1,Math,50,NULL",
+                "S1,A1,Math,50,NULL",
+                "s1,a1,Math,60,NULL",
+                "S2,A1,Math,999,NULL",
+                "S2,A1,Math,70,NULL");
+        assertEquals("Duplicate score_id 'S0'", reasons.get(0));
+        assertNull(reasons.get(1));
+        // MySQL style case-insensitive keys
+        assertEquals("Duplicate score_id 's1'", reasons.get(2));
+        // a rejected row does not claim its key
+        assertEquals("score must be between 0 and 100, found 999", reasons.get(3));
+        assertNull(reasons.get(4));
+    }
+
+    private RowValidator validator(boolean ignoreCase) {
+        applicants.add(FingerprintSet.hash("A1", StandardCharsets.UTF_8, ignoreCase));
+        ColumnBinder[] types = {
+                ColumnBinder.create("score_id", Types.VARCHAR, 10, "VARCHAR"),
+                ColumnBinder.create("applicant_id", Types.VARCHAR, 10, "VARCHAR"),
+                ColumnBinder.create("subject", Types.VARCHAR, 10, "VARCHAR"),
+                ColumnBinder.create("score", Types.INTEGER, 10, "INTEGER"),
+                ColumnBinder.create("taken", Types.DATE, 10, "DATE")
+        };
+        types[0].notNull = true;
+        types[1].notNull = true;
+        RowValidator validator = new RowValidator(COLS, types, ignoreCase);
+        validator.allowedValues(2, "Math", "Art");
+        validator.range(3, 0, 100);
+        validator.references(1, applicants, "applicants");
+        validator.unique(0, scoreIds);
+        return validator;
+    }
+
+    private static List<String> check(RowValidator validator, String... rows) throws IOException {
+        byte[] csv = String.join("\n", rows).getBytes(StandardCharsets.UTF_8);
+        List<String> reasons = new ArrayList<>();
+        try (CsvReader reader = new CsvReader(Channels.newChannel(new ByteArrayInputStream(csv)))) {
+            while (reader.next()) reasons.add(validator.check(reader));
+        }
+        return reasons;
+    }
+}
@@ -0,0 +1,101 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ScoreHistogramTest {
+
+    @Test
+    void binsOfTenPutOneHundredInTheLastBin() {
+        long[] counts = new long[ScoreHistogram.MAX_SCORE + 1];
+        counts[0] = 1;
+        counts[9] = 2;
+        counts[10] = 3;
+        counts[95] = 4;
+        counts[100] = 5;
+        ScoreHistogram.BinnedDataset dataset = new ScoreHistogram(counts).toDataset("Scores", 10);
+
+        assertEquals(10, dataset.getItemCount(0));
+        assertEquals(0.0, dataset.getStartXValue(0, 0));
+        assertEquals(100.0, dataset.getEndXValue(0, 9));
+        assertEquals(3, dataset.getY(0, 0).intValue());
+        assertEquals(3, dataset.getY(0, 1).intValue());
+        assertEquals(9, dataset.getY(0, 9).intValue());
+    }
+
+    @Test
+    void binWidthsThatDoNotDivideTheRange() {
+        long[] counts = new long[ScoreHistogram.MAX_SCORE + 1];
+        Arrays.fill(counts, 1);
+        ScoreHistogram histogram = new ScoreHistogram(counts);
+        assertEquals(101, histogram.total());
+
+        for (int width : new int[] {1, 3, 7, 10, 33, 100}) {
+            ScoreHistogram.BinnedDataset dataset = histogram.toDataset("Scores", width);
+            int bins = dataset.getItemCount(0);
+            assertEquals((ScoreHistogram.MAX_SCORE + width - 1) / width, bins, "width " + width);
+            long sum = 0;
+            for (int b = 0; b < bins; b++) sum += dataset.getY(0, b).longValue();
+            // every score counted exactly once
+            assertEquals(101, sum, "width " + width);
+            // the last bin runs from its lower bound up to and including 100
+            assertEquals(ScoreHistogram.MAX_SCORE - (bins - 1) * width + 1, dataset.getY(0, bins - 1).intValue(),
+                    "last bin of width " + width);
+        }
+        assertThrows(IllegalArgumentException.class, () -> histogram.toDataset("Scores", 0));
+        assertThrows(IllegalArgumentException.class, () -> histogram.toDataset("Scores", 101));
+        assertThrows(IllegalArgumentException.class, () -> new ScoreHistogram(new long[100]));
+    }
+
+    @Test
+    void setCountsUpdatesInPlaceWithOneEvent() {
+        long[] counts = new long[ScoreHistogram.MAX_SCORE + 1];
+        ScoreHistogram.BinnedDataset dataset = new ScoreHistogram(counts).toDataset("Scores", 25);
+        AtomicInteger events = new AtomicInteger();
+        dataset.addChangeListener(e -> events.incrementAndGet());
+
+        long[] updated = new long[ScoreHistogram.MAX_SCORE + 1];
+        updated[30] = 7;
+        dataset.setCounts(new ScoreHistogram(updated));
+        assertEquals(1, events.get());
+        assertEquals(7, dataset.getY(0, 1).intValue());
+        assertEquals(0, dataset.getY(0, 0).intValue());
+    }
+
+    @Test
+    void queryCountsPerScore() throws SQLException {
+        try (Connection conn = DriverManager.getConnection("jdbc:h2:mem:histogram;MODE=MySQL;DATABASE_TO_LOWER=TRUE");
+             Statement st = conn.createStatement()) {
+            SchemaInstaller.install(conn);
+            st.execute("INSERT INTO applicants (applicant_id, first_name, last_name, dob, gender, email, city) VALUES"
+                    + " ('A1', 'Mary', 'Otieno', DATE '2001-01-01', 'F', 'a1@x', 'Nairobi'),"
+                    + " ('A2', 'John', 'Kamau', DATE '2001-01-01', 'M', 'a2@x', 'Nairobi')");
+            // A1 applied twice, which must not count its scores twice
+            st.execute("INSERT INTO applications (application_id, applicant_id, program, admission_year, status) VALUES"
+                    + " ('P1', 'A1', 'CS', 2023, 'Accepted'), ('P2', 'A1', 'Law', 2023, 'Rejected'),"
+                    + " ('P3', 'A2', 'CS', 2024, 'Pending')");
+            st.execute("INSERT INTO exam_scores (score_id, applicant_id, subject, score) VALUES"
+                    + " ('S1', 'A1', 'Math', 80), ('S2', 'A1', 'English', 80), ('S3', 'A2', 'Math', 100)");
+
+            ScoreHistogram all = ScoreHistogram.query(conn, null, null);
+            assertEquals(3, all.total());
+            assertEquals(2, all.count(80));
+            assertEquals(1, all.count(100));
+
+            assertEquals(2, ScoreHistogram.query(conn, "Math", null).total());
+            assertEquals(2, ScoreHistogram.query(conn, null, "CS", 2023).total());
+            assertEquals(1, ScoreHistogram.query(conn, "Math", "CS", 2024).count(100));
+            assertEquals(0, ScoreHistogram.query(conn, null, "Law", 2024).total());
+            assertEquals(Arrays.asList("English", "Math"), ScoreHistogram.subjects(conn));
+        }
+    }
+}